@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.animation;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link ColorRamp} lookups against blending the colors for each frame of a
+ * 60-frame animation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorRampBenchmark {
+
+  private static final int FRAME_COUNT = 60;
+  private static final int START_COLOR = 0xFF6200EE;
+  private static final int END_COLOR = 0x0003DAC6;
+
+  @Benchmark
+  public void argbEvaluator(Blackhole blackhole) {
+    final ArgbEvaluatorCompat evaluator = ArgbEvaluatorCompat.getInstance();
+    for (int i = 0; i <= FRAME_COUNT; i++) {
+      blackhole.consume(evaluator.evaluate((float) i / FRAME_COUNT, START_COLOR, END_COLOR));
+    }
+  }
+
+  @Benchmark
+  public void colorRampEvaluator(Blackhole blackhole) {
+    final ColorRampEvaluator evaluator = ColorRampEvaluator.getInstance();
+    for (int i = 0; i <= FRAME_COUNT; i++) {
+      blackhole.consume(evaluator.evaluate((float) i / FRAME_COUNT, START_COLOR, END_COLOR));
+    }
+  }
+
+  @Benchmark
+  public void colorRamp(Blackhole blackhole) {
+    final ColorRamp ramp = ColorRamp.get(START_COLOR, END_COLOR);
+    for (int i = 0; i <= FRAME_COUNT; i++) {
+      blackhole.consume(ramp.getColor((float) i / FRAME_COUNT));
+    }
+  }
+}
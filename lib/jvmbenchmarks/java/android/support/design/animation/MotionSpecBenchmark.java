@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.animation;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link MotionTiming} lookups in a {@link MotionSpec}, using the timing names of
+ * the FAB transformation motion specs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MotionSpecBenchmark {
+
+  private static final String[] TIMING_NAMES = {
+    "elevation", "iconFade", "expansion", "color", "contentFade", "translationX", "translationY"
+  };
+
+  private final MotionSpec spec = new MotionSpec();
+  // Copies of the names, so that lookups can't short-circuit on reference equality
+  private final String[] lookupNames = new String[TIMING_NAMES.length];
+  private final int[] lookupKeys = new int[TIMING_NAMES.length];
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < TIMING_NAMES.length; i++) {
+      spec.setTiming(TIMING_NAMES[i], new MotionTiming(i * 15, 150 + i * 10));
+      lookupNames[i] = new String(TIMING_NAMES[i]);
+      lookupKeys[i] = MotionSpec.getTimingKey(TIMING_NAMES[i]);
+    }
+  }
+
+  @Benchmark
+  public void getTiming(Blackhole blackhole) {
+    for (int i = 0; i < lookupNames.length; i++) {
+      blackhole.consume(spec.getTiming(lookupNames[i]));
+    }
+  }
+
+  @Benchmark
+  public void getTimingByKey(Blackhole blackhole) {
+    for (int i = 0; i < lookupKeys.length; i++) {
+      blackhole.consume(spec.getTiming(lookupKeys[i]));
+    }
+  }
+
+  @Benchmark
+  public void hasTiming(Blackhole blackhole) {
+    for (int i = 0; i < lookupNames.length; i++) {
+      blackhole.consume(spec.hasTiming(lookupNames[i]));
+    }
+  }
+
+  @Benchmark
+  public long getTotalDuration() {
+    return spec.getTotalDuration();
+  }
+
+  @Benchmark
+  public void getInterpolatedFraction(Blackhole blackhole) {
+    for (int i = 0; i < lookupKeys.length; i++) {
+      blackhole.consume(spec.getTiming(lookupKeys[i]).getInterpolatedFraction(100));
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.chip;
+
+import android.content.res.Configuration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the style lookups of inflating 500 chips from XML with {@link ChipStyleCache}.
+ *
+ * <p>Resolving a style needs the framework's native resources, so this only covers the lookup each
+ * chip makes before it would resolve its style. The chips take turns between a few styles in the
+ * last of a number of themes, and look them up with a copy of the configuration they were cached
+ * with, as the resources' own configuration is.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChipStyleCacheBenchmark {
+
+  private static final int CHIP_COUNT = 500;
+  private static final int STYLE_COUNT = 3;
+  private static final int FIRST_STYLE_RES = 0x7f0f0000;
+
+  @Param({"1", "10"})
+  int themeCount;
+
+  private final ChipStyleCache<Object> cache = new ChipStyleCache<>();
+  private Object[] themes;
+  private Configuration configuration;
+
+  @Setup
+  public void setUp() {
+    final Configuration cachedConfiguration = new Configuration();
+    cachedConfiguration.densityDpi = 420;
+    themes = new Object[themeCount];
+    for (int i = 0; i < themeCount; i++) {
+      themes[i] = new Object();
+      for (int j = 0; j < STYLE_COUNT; j++) {
+        cache.put(themes[i], cachedConfiguration, 0, 0, FIRST_STYLE_RES + j, new Object());
+      }
+    }
+    configuration = new Configuration(cachedConfiguration);
+  }
+
+  @Benchmark
+  public void lookUpStylesFor500Chips(Blackhole blackhole) {
+    final Object theme = themes[themeCount - 1];
+    for (int i = 0; i < CHIP_COUNT; i++) {
+      blackhole.consume(
+          cache.get(theme, configuration, 0, 0, FIRST_STYLE_RES + i % STYLE_COUNT));
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link MathUtils}.
+ *
+ * <p>The inputs are read from non-final fields so that the JIT can't fold the calls away.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathUtilsBenchmark {
+
+  float x1 = 12.5f;
+  float y1 = 40.25f;
+  float x2 = 640f;
+  float y2 = 360f;
+  float left = 0f;
+  float top = 0f;
+  float right = 1080f;
+  float bottom = 1920f;
+  float amount = 0.35f;
+
+  @Benchmark
+  public float dist() {
+    return MathUtils.dist(x1, y1, x2, y2);
+  }
+
+  @Benchmark
+  public float distanceToFurthestCorner() {
+    return MathUtils.distanceToFurthestCorner(x1, y1, left, top, right, bottom);
+  }
+
+  @Benchmark
+  public float lerp() {
+    return MathUtils.lerp(x1, x2, amount);
+  }
+
+  @Benchmark
+  public boolean eq() {
+    return MathUtils.eq(x1, y1, MathUtils.DEFAULT_EPSILON);
+  }
+
+  @Benchmark
+  public boolean geq() {
+    return MathUtils.geq(x1, y1, MathUtils.DEFAULT_EPSILON);
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link DirectedAcyclicGraph}.
+ *
+ * <p>The graph is a chain where every node also depends on the node two steps below it, roughly
+ * the shape of a CoordinatorLayout where each child is anchored to, or depends on, its siblings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectedAcyclicGraphBenchmark {
+
+  @Param({"10", "100", "1000"})
+  int size;
+
+  private final DirectedAcyclicGraph<Object> graph = new DirectedAcyclicGraph<>();
+  private final List<Object> outgoingEdges = new ArrayList<>();
+  private Object[] nodes;
+
+  @Setup
+  public void setUp() {
+    nodes = new Object[size];
+    for (int i = 0; i < size; i++) {
+      nodes[i] = new Object();
+    }
+    buildGraph(graph);
+  }
+
+  @Benchmark
+  public DirectedAcyclicGraph<Object> addEdge() {
+    final DirectedAcyclicGraph<Object> graph = new DirectedAcyclicGraph<>();
+    buildGraph(graph);
+    return graph;
+  }
+
+  @Benchmark
+  public List<Object> getSortedList() {
+    return graph.getSortedList();
+  }
+
+  @Benchmark
+  public void getOutgoingEdges(Blackhole blackhole) {
+    for (int i = 0; i < size; i++) {
+      graph.getOutgoingEdges(nodes[i], outgoingEdges);
+      blackhole.consume(outgoingEdges);
+    }
+  }
+
+  @Benchmark
+  public void getOutgoingEdgesCopy(Blackhole blackhole) {
+    for (int i = 0; i < size; i++) {
+      blackhole.consume(graph.getOutgoingEdges(nodes[i]));
+    }
+  }
+
+  @Benchmark
+  public void hasOutgoingEdges(Blackhole blackhole) {
+    for (int i = 0; i < size; i++) {
+      blackhole.consume(graph.hasOutgoingEdges(nodes[i]));
+    }
+  }
+
+  private void buildGraph(DirectedAcyclicGraph<Object> graph) {
+    for (int i = 0; i < size; i++) {
+      graph.addNode(nodes[i]);
+    }
+    for (int i = 1; i < size; i++) {
+      graph.addEdge(nodes[i], nodes[i - 1]);
+      if (i > 1) {
+        graph.addEdge(nodes[i], nodes[i - 2]);
+      }
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link ZSortedList}, which CoordinatorLayout sorts its children into for touch
+ * dispatch.
+ *
+ * <p>The items are added in reverse drawing order, as CoordinatorLayout adds its children. In the
+ * usual case every fifth child is raised, and in the worst case every child is above the last.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZSortedListBenchmark {
+
+  @Param({"10", "50", "200"})
+  int size;
+
+  private final ZSortedList<Object> list = new ZSortedList<>();
+  private Object[] items;
+  private float[] raisedZ;
+  private float[] ascendingZ;
+
+  @Setup
+  public void setUp() {
+    items = new Object[size];
+    raisedZ = new float[size];
+    ascendingZ = new float[size];
+    for (int i = 0; i < size; i++) {
+      items[i] = new Object();
+      raisedZ[i] = i % 5 == 0 ? 10f : 0f;
+      ascendingZ[i] = i;
+    }
+    // Grow the list to its size, as it is after the first sort
+    sort(ascendingZ);
+  }
+
+  @Benchmark
+  public ZSortedList<Object> sortRaisedEveryFifth() {
+    return sort(raisedZ);
+  }
+
+  @Benchmark
+  public ZSortedList<Object> sortAscending() {
+    return sort(ascendingZ);
+  }
+
+  private ZSortedList<Object> sort(float[] z) {
+    list.clear();
+    for (int i = 0; i < size; i++) {
+      list.add(items[i], z[i]);
+    }
+    return list;
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.animation;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Color;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Tests for {@link ColorRamp}. */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class ColorRampTest {
+
+  @Test
+  public void testEndsOfTheRamp() {
+    final ColorRamp ramp = ColorRamp.get(Color.RED, 0x800000FF);
+
+    assertThat(ramp.getColor(0f)).isEqualTo(Color.RED);
+    assertThat(ramp.getColor(1f)).isEqualTo(0x800000FF);
+    // Overshooting fractions are clamped
+    assertThat(ramp.getColor(-0.5f)).isEqualTo(Color.RED);
+    assertThat(ramp.getColor(1.5f)).isEqualTo(0x800000FF);
+  }
+
+  @Test
+  public void testLinearRampBlendsEachChannel() {
+    final ColorRamp ramp = ColorRamp.get(Color.BLACK, 0x00FFFFFF);
+
+    for (int i = 0; i <= 255; i++) {
+      final int color = ramp.getColor(i / 255f);
+      assertThat(Color.alpha(color)).isEqualTo(255 - i);
+      assertThat(Color.red(color)).isEqualTo(i);
+      assertThat(Color.blue(color)).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void testGammaCorrectedRampMatchesArgbEvaluator() {
+    final ColorRamp ramp = ColorRamp.getGammaCorrected(Color.RED, Color.GREEN);
+    final ArgbEvaluatorCompat evaluator = ArgbEvaluatorCompat.getInstance();
+
+    for (int i = 0; i <= 255; i++) {
+      final float fraction = i / 255f;
+      assertThat(ramp.getColor(fraction))
+          .isEqualTo(evaluator.evaluate(fraction, Color.RED, Color.GREEN));
+    }
+  }
+
+  @Test
+  public void testRampsAreShared() {
+    final int hits = ColorRamp.getHitCount();
+    final int misses = ColorRamp.getMissCount();
+
+    final ColorRamp ramp = ColorRamp.get(0xFF123456, 0xFF654321);
+    assertThat(ColorRamp.get(0xFF123456, 0xFF654321)).isSameAs(ramp);
+    assertThat(ColorRamp.get(0xFF654321, 0xFF123456)).isNotSameAs(ramp);
+    assertThat(ColorRamp.getGammaCorrected(0xFF123456, 0xFF654321)).isNotSameAs(ramp);
+
+    assertThat(ColorRamp.getHitCount()).isEqualTo(hits + 1);
+    assertThat(ColorRamp.getMissCount()).isEqualTo(misses + 3);
+  }
+
+  @Test
+  public void testFadesAndGreysDoNotShareACacheSlot() {
+    final int[][] colors = {
+      {Color.BLACK, Color.TRANSPARENT},
+      {Color.WHITE, 0x00FFFFFF},
+      {0x80000000, Color.TRANSPARENT},
+      {0xFF6200EE, 0x006200EE},
+      {0xFF333333, 0xFF666666},
+      {0xFF444444, 0xFF777777},
+      {0xFF222222, 0xFF555555},
+      {Color.BLACK, Color.WHITE},
+    };
+    for (int[] pair : colors) {
+      ColorRamp.get(pair[0], pair[1]);
+    }
+    final int hits = ColorRamp.getHitCount();
+    final int misses = ColorRamp.getMissCount();
+
+    // Had any of these pairs shared a slot, looking them all up again would miss
+    for (int[] pair : colors) {
+      ColorRamp.get(pair[0], pair[1]);
+    }
+
+    assertThat(ColorRamp.getHitCount()).isEqualTo(hits + colors.length);
+    assertThat(ColorRamp.getMissCount()).isEqualTo(misses);
+  }
+
+  @Test
+  public void testEvaluatorLooksTheRampUpOncePerPair() {
+    final ColorRampEvaluator evaluator = new ColorRampEvaluator();
+    final int lookups = ColorRamp.getHitCount() + ColorRamp.getMissCount();
+
+    for (int i = 0; i <= 60; i++) {
+      evaluator.evaluate(i / 60f, Color.RED, Color.BLUE);
+    }
+    assertThat(ColorRamp.getHitCount() + ColorRamp.getMissCount()).isEqualTo(lookups + 1);
+
+    assertThat(evaluator.evaluate(1f, Color.BLUE, Color.RED)).isEqualTo(Color.RED);
+    assertThat(ColorRamp.getHitCount() + ColorRamp.getMissCount()).isEqualTo(lookups + 2);
+  }
+}
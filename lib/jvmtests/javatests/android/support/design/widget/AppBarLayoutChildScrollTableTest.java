@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.support.design.BuildConfig;
+import android.support.design.R;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/** Tests for the {@link AppBarLayout.ChildScrollTable} of an {@link AppBarLayout}. */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class AppBarLayoutChildScrollTableTest {
+
+  private static final int CHILD_COUNT = 20;
+  private static final int CHILD_HEIGHT = 100;
+  private static final int WIDTH = 500;
+
+  private AppBarLayout appBarLayout;
+
+  @Before
+  public void setUp() {
+    final Context context =
+        new ContextThemeWrapper(
+            RuntimeEnvironment.application, R.style.Theme_MaterialComponents_Light);
+    appBarLayout = new AppBarLayout(context);
+
+    for (int i = 0; i < CHILD_COUNT; i++) {
+      final View child = new View(context);
+      final AppBarLayout.LayoutParams lp =
+          new AppBarLayout.LayoutParams(AppBarLayout.LayoutParams.MATCH_PARENT, CHILD_HEIGHT);
+      // All but the last child scroll, and the one before that exits until collapsed
+      if (i < CHILD_COUNT - 1) {
+        lp.setScrollFlags(AppBarLayout.LayoutParams.SCROLL_FLAG_SCROLL);
+      }
+      if (i == CHILD_COUNT - 2) {
+        lp.setScrollFlags(
+            AppBarLayout.LayoutParams.SCROLL_FLAG_SCROLL
+                | AppBarLayout.LayoutParams.SCROLL_FLAG_EXIT_UNTIL_COLLAPSED);
+        child.setMinimumHeight(40);
+      }
+      appBarLayout.addView(child, lp);
+    }
+
+    layout();
+  }
+
+  @Test
+  public void testChildIndexAtPosition() {
+    final AppBarLayout.ChildScrollTable table = appBarLayout.getChildScrollTable();
+
+    assertThat(table.getChildIndexAt(-1)).isEqualTo(-1);
+    assertThat(table.getChildIndexAt(0)).isEqualTo(0);
+    assertThat(table.getChildIndexAt(50)).isEqualTo(0);
+    // Positions on the boundary between two children belong to the first one
+    assertThat(table.getChildIndexAt(100)).isEqualTo(0);
+    assertThat(table.getChildIndexAt(101)).isEqualTo(1);
+    assertThat(table.getChildIndexAt(1550)).isEqualTo(15);
+    assertThat(table.getChildIndexAt(CHILD_COUNT * CHILD_HEIGHT)).isEqualTo(CHILD_COUNT - 1);
+    assertThat(table.getChildIndexAt(CHILD_COUNT * CHILD_HEIGHT + 1)).isEqualTo(-1);
+  }
+
+  @Test
+  public void testChildIndexMatchesChildren() {
+    final AppBarLayout.ChildScrollTable table = appBarLayout.getChildScrollTable();
+
+    for (int position = 0; position <= CHILD_COUNT * CHILD_HEIGHT; position += 7) {
+      int expected = -1;
+      for (int i = 0; i < appBarLayout.getChildCount(); i++) {
+        final View child = appBarLayout.getChildAt(i);
+        if (child.getTop() <= position && child.getBottom() >= position) {
+          expected = i;
+          break;
+        }
+      }
+      assertThat(table.getChildIndexAt(position)).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void testScrollRanges() {
+    // Every scrolling child, less the collapsed height of the one which exits until collapsed
+    final int expected = (CHILD_COUNT - 1) * CHILD_HEIGHT - 40;
+    assertThat(appBarLayout.getTotalScrollRange()).isEqualTo(expected);
+    assertThat(appBarLayout.getDownNestedScrollRange()).isEqualTo(expected);
+    assertThat(appBarLayout.getDownNestedPreScrollRange()).isEqualTo(0);
+  }
+
+  @Test
+  public void testTableIsRebuiltAfterLayout() {
+    final AppBarLayout.ChildScrollTable table = appBarLayout.getChildScrollTable();
+
+    appBarLayout.removeViewAt(0);
+    layout();
+
+    assertThat(appBarLayout.getChildScrollTable().mCount).isEqualTo(CHILD_COUNT - 1);
+    assertThat(table.getChildIndexAt(150)).isEqualTo(1);
+  }
+
+  private void layout() {
+    appBarLayout.measure(
+        MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
+    appBarLayout.layout(0, 0, WIDTH, appBarLayout.getMeasuredHeight());
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.app.Activity;
+import android.support.design.BuildConfig;
+import android.support.design.R;
+import android.view.ViewGroup;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+/** Tests for the dispatch of offset changes to {@link AppBarLayout}'s listeners. */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class AppBarLayoutOffsetDispatchTest {
+
+  private AppBarLayout appBarLayout;
+  private final List<Integer> offsets = new ArrayList<>();
+  private final List<Integer> deltas = new ArrayList<>();
+
+  private final AppBarLayout.OnOffsetChangedListener listener =
+      new AppBarLayout.OnOffsetChangedListener() {
+        @Override
+        public void onOffsetChanged(AppBarLayout appBarLayout, int verticalOffset) {
+          offsets.add(verticalOffset);
+        }
+      };
+
+  private final AppBarLayout.OnOffsetChangedFrameListener frameListener =
+      new AppBarLayout.OnOffsetChangedFrameListener() {
+        @Override
+        public void onOffsetChanged(
+            AppBarLayout appBarLayout, int verticalOffset, int offsetDelta, float velocity) {
+          offsets.add(verticalOffset);
+          deltas.add(offsetDelta);
+        }
+      };
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.setupActivity(Activity.class);
+    activity.setTheme(R.style.Theme_MaterialComponents_Light);
+    appBarLayout = new AppBarLayout(activity);
+    activity.setContentView(appBarLayout);
+  }
+
+  @Test
+  public void testUpdatesAreDispatchedImmediatelyByDefault() {
+    appBarLayout.addOnOffsetChangedListener(listener);
+
+    appBarLayout.dispatchOffsetUpdates(-1);
+    appBarLayout.dispatchOffsetUpdates(-2);
+
+    assertThat(offsets).containsExactly(-1, -2).inOrder();
+    assertThat(appBarLayout.getOffsetDispatchCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testCoalescedUpdatesAreDispatchedOncePerFrame() {
+    appBarLayout.setOffsetUpdatesCoalesced(true);
+    appBarLayout.addOnOffsetChangedFrameListener(frameListener, 0);
+
+    appBarLayout.dispatchOffsetUpdates(-1);
+    appBarLayout.dispatchOffsetUpdates(-2);
+    appBarLayout.dispatchOffsetUpdates(-3);
+    assertThat(offsets).isEmpty();
+
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    assertThat(offsets).containsExactly(-3);
+    assertThat(appBarLayout.getOffsetDispatchCount()).isEqualTo(1);
+
+    appBarLayout.dispatchOffsetUpdates(-8);
+    appBarLayout.dispatchOffsetUpdates(-10);
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    assertThat(offsets).containsExactly(-3, -10).inOrder();
+    assertThat(deltas).containsExactly(0, -7).inOrder();
+  }
+
+  @Test
+  public void testDisablingCoalescingDispatchesPendingUpdate() {
+    appBarLayout.setOffsetUpdatesCoalesced(true);
+    appBarLayout.addOnOffsetChangedListener(listener);
+
+    appBarLayout.dispatchOffsetUpdates(-5);
+    appBarLayout.setOffsetUpdatesCoalesced(false);
+
+    assertThat(offsets).containsExactly(-5);
+  }
+
+  @Test
+  public void testDetachingDispatchesPendingUpdate() {
+    appBarLayout.setOffsetUpdatesCoalesced(true);
+    appBarLayout.addOnOffsetChangedListener(listener);
+
+    appBarLayout.dispatchOffsetUpdates(-5);
+    ((ViewGroup) appBarLayout.getParent()).removeView(appBarLayout);
+    assertThat(offsets).containsExactly(-5);
+
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    assertThat(offsets).containsExactly(-5);
+  }
+
+  @Test
+  public void testListenersAreOnlyCalledWhenThresholdIsCrossed() {
+    appBarLayout.addOnOffsetChangedFrameListener(frameListener, 10);
+
+    appBarLayout.dispatchOffsetUpdates(-20);
+    appBarLayout.dispatchOffsetUpdates(-25);
+    appBarLayout.dispatchOffsetUpdates(-29);
+    appBarLayout.dispatchOffsetUpdates(-30);
+    appBarLayout.dispatchOffsetUpdates(-35);
+    // The end of the offset range is always dispatched
+    appBarLayout.dispatchOffsetUpdates(0);
+
+    assertThat(offsets).containsExactly(-20, -30, 0).inOrder();
+    assertThat(deltas).containsExactly(0, -10, 30).inOrder();
+  }
+
+  @Test
+  public void testRemovedListenersAreNotCalled() {
+    appBarLayout.addOnOffsetChangedListener(listener);
+    appBarLayout.addOnOffsetChangedFrameListener(frameListener, 0);
+    appBarLayout.removeOnOffsetChangedListener(listener);
+    appBarLayout.removeOnOffsetChangedFrameListener(frameListener);
+
+    appBarLayout.dispatchOffsetUpdates(-1);
+
+    assertThat(offsets).isEmpty();
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.support.design.BuildConfig;
+import android.support.design.R;
+import android.support.v4.view.ViewCompat;
+import android.view.ContextThemeWrapper;
+import android.view.Gravity;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/** Tests for which children {@link CoordinatorLayout} checks when its children change. */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CoordinatorLayoutChildChangesTest {
+
+  private static final int SIZE = 1000;
+  private static final int CHILD_SIZE = 100;
+  private static final int UNRELATED_CHILD_COUNT = 20;
+
+  private CoordinatorLayout coordinatorLayout;
+  private View anchor;
+  private View anchored;
+  private View inset;
+  private View dodging;
+
+  @Before
+  public void setUp() {
+    final Context context =
+        new ContextThemeWrapper(
+            RuntimeEnvironment.application, R.style.Theme_MaterialComponents_Light);
+    coordinatorLayout = new CoordinatorLayout(context);
+
+    anchor = addChild(context, new CoordinatorLayout.LayoutParams(CHILD_SIZE, CHILD_SIZE));
+    anchor.setId(View.generateViewId());
+
+    final CoordinatorLayout.LayoutParams anchoredLp =
+        new CoordinatorLayout.LayoutParams(CHILD_SIZE, CHILD_SIZE);
+    anchoredLp.setAnchorId(anchor.getId());
+    anchoredLp.anchorGravity = Gravity.BOTTOM;
+    anchored = addChild(context, anchoredLp);
+
+    final CoordinatorLayout.LayoutParams insetLp =
+        new CoordinatorLayout.LayoutParams(CHILD_SIZE, CHILD_SIZE);
+    insetLp.gravity = Gravity.BOTTOM | Gravity.END;
+    insetLp.insetEdge = Gravity.BOTTOM;
+    inset = addChild(context, insetLp);
+
+    final CoordinatorLayout.LayoutParams dodgingLp =
+        new CoordinatorLayout.LayoutParams(CHILD_SIZE, CHILD_SIZE);
+    dodgingLp.gravity = Gravity.BOTTOM | Gravity.START;
+    dodgingLp.dodgeInsetEdges = Gravity.BOTTOM;
+    dodging = addChild(context, dodgingLp);
+
+    for (int i = 0; i < UNRELATED_CHILD_COUNT; i++) {
+      addChild(context, new CoordinatorLayout.LayoutParams(CHILD_SIZE, CHILD_SIZE));
+    }
+
+    coordinatorLayout.measure(
+        MeasureSpec.makeMeasureSpec(SIZE, MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(SIZE, MeasureSpec.EXACTLY));
+    coordinatorLayout.layout(0, 0, SIZE, SIZE);
+  }
+
+  @Test
+  public void testAllRelatedChildrenAreCheckedAfterLayout() {
+    final int checked = coordinatorLayout.getCheckedChildCount();
+    preDraw();
+
+    // The unrelated children are never checked
+    assertThat(coordinatorLayout.getCheckedChildCount()).isEqualTo(checked + 4);
+  }
+
+  @Test
+  public void testUnchangedChildrenAreNotChecked() {
+    preDraw();
+    final int checked = coordinatorLayout.getCheckedChildCount();
+
+    preDraw();
+    preDraw();
+
+    assertThat(coordinatorLayout.getCheckedChildCount()).isEqualTo(checked);
+  }
+
+  @Test
+  public void testMovingAnAnchorOnlyChecksItAndTheAnchoredChild() {
+    preDraw();
+    final int checked = coordinatorLayout.getCheckedChildCount();
+    final int anchoredTop = anchored.getTop();
+
+    ViewCompat.offsetTopAndBottom(anchor, 10);
+    preDraw();
+
+    assertThat(coordinatorLayout.getCheckedChildCount()).isEqualTo(checked + 2);
+    assertThat(anchored.getTop()).isEqualTo(anchoredTop + 10);
+  }
+
+  @Test
+  public void testMovingAnInsetChildOnlyChecksItAndTheDodgingChild() {
+    preDraw();
+    final int checked = coordinatorLayout.getCheckedChildCount();
+    final int dodgingBottom = dodging.getBottom();
+
+    inset.setTranslationY(-50);
+    preDraw();
+
+    assertThat(coordinatorLayout.getCheckedChildCount()).isEqualTo(checked + 2);
+    assertThat(dodging.getBottom()).isEqualTo(dodgingBottom - 50);
+  }
+
+  private View addChild(Context context, CoordinatorLayout.LayoutParams lp) {
+    final View child = new View(context);
+    coordinatorLayout.addView(child, lp);
+    return child;
+  }
+
+  private void preDraw() {
+    coordinatorLayout.onChildViewsChanged(CoordinatorLayout.EVENT_PRE_DRAW);
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.support.design.BuildConfig;
+import android.support.design.R;
+import android.view.ContextThemeWrapper;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/** Tests for the z-ordered touch dispatch of {@link CoordinatorLayout}. */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CoordinatorLayoutTouchDispatchTest {
+
+  private static final int CHILD_COUNT = 50;
+  private static final int MOVE_EVENT_COUNT = 1000;
+  private static final int SIZE = 1000;
+
+  private CoordinatorLayout coordinatorLayout;
+  private final List<View> touchOrder = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    final Context context =
+        new ContextThemeWrapper(
+            RuntimeEnvironment.application, R.style.Theme_MaterialComponents_Light);
+    coordinatorLayout = new CoordinatorLayout(context);
+
+    for (int i = 0; i < CHILD_COUNT; i++) {
+      final View child = new View(context);
+      // Give every fifth child a raised elevation, so that the z-order differs from drawing order
+      child.setElevation(i % 5 == 0 ? 10f : 0f);
+      final CoordinatorLayout.LayoutParams lp = new CoordinatorLayout.LayoutParams(SIZE, SIZE);
+      lp.setBehavior(new RecordingBehavior());
+      coordinatorLayout.addView(child, lp);
+    }
+
+    coordinatorLayout.measure(
+        MeasureSpec.makeMeasureSpec(SIZE, MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(SIZE, MeasureSpec.EXACTLY));
+    coordinatorLayout.layout(0, 0, SIZE, SIZE);
+  }
+
+  @Test
+  public void testChildrenAreDispatchedInZOrder() {
+    dispatchTouchEvent(MotionEvent.ACTION_DOWN);
+
+    assertThat(touchOrder).hasSize(CHILD_COUNT);
+    for (int i = 0; i < CHILD_COUNT; i++) {
+      // The raised children come first, in reverse drawing order, followed by the rest
+      final int raisedCount = CHILD_COUNT / 5;
+      final int expectedIndex =
+          i < raisedCount ? CHILD_COUNT - 5 - i * 5 : getUnraisedChildIndex(i - raisedCount);
+      assertThat(touchOrder.get(i)).isSameAs(coordinatorLayout.getChildAt(expectedIndex));
+    }
+  }
+
+  @Test
+  public void testTouchDispatchOnlySortsOnce() {
+    dispatchTouchEvent(MotionEvent.ACTION_DOWN);
+    for (int i = 0; i < MOVE_EVENT_COUNT; i++) {
+      dispatchTouchEvent(MotionEvent.ACTION_MOVE);
+    }
+    dispatchTouchEvent(MotionEvent.ACTION_UP);
+
+    assertThat(coordinatorLayout.getTopSortedChildrenSortCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testElevationChangeResorts() {
+    dispatchTouchEvent(MotionEvent.ACTION_DOWN);
+    assertThat(coordinatorLayout.getTopSortedChildrenSortCount()).isEqualTo(1);
+
+    // Raise the bottom-most child above everything else
+    final View bottomChild = coordinatorLayout.getChildAt(1);
+    bottomChild.setTranslationZ(100f);
+    touchOrder.clear();
+    dispatchTouchEvent(MotionEvent.ACTION_MOVE);
+
+    assertThat(coordinatorLayout.getTopSortedChildrenSortCount()).isEqualTo(2);
+    assertThat(touchOrder.get(0)).isSameAs(bottomChild);
+  }
+
+  @Test
+  public void testChildAdditionResorts() {
+    dispatchTouchEvent(MotionEvent.ACTION_DOWN);
+
+    final View child = new View(coordinatorLayout.getContext());
+    final CoordinatorLayout.LayoutParams lp = new CoordinatorLayout.LayoutParams(SIZE, SIZE);
+    lp.setBehavior(new RecordingBehavior());
+    coordinatorLayout.addView(child, lp);
+    touchOrder.clear();
+    dispatchTouchEvent(MotionEvent.ACTION_MOVE);
+
+    assertThat(coordinatorLayout.getTopSortedChildrenSortCount()).isEqualTo(2);
+    assertThat(touchOrder).hasSize(CHILD_COUNT + 1);
+  }
+
+  /** Returns the child index of the nth child without a raised elevation, from the top. */
+  private static int getUnraisedChildIndex(int n) {
+    int index = CHILD_COUNT;
+    for (int found = -1; found < n; ) {
+      index--;
+      if (index % 5 != 0) {
+        found++;
+      }
+    }
+    return index;
+  }
+
+  private void dispatchTouchEvent(int action) {
+    final long now = SystemClock.uptimeMillis();
+    final MotionEvent event = MotionEvent.obtain(now, now, action, SIZE / 2f, SIZE / 2f, 0);
+    coordinatorLayout.dispatchTouchEvent(event);
+    event.recycle();
+  }
+
+  private class RecordingBehavior extends CoordinatorLayout.Behavior<View> {
+    @Override
+    public boolean onTouchEvent(CoordinatorLayout parent, View child, MotionEvent ev) {
+      touchOrder.add(child);
+      return false;
+    }
+  }
+}
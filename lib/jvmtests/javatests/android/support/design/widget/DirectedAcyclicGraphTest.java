@@ -19,10 +19,12 @@ package android.support.design.widget;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import android.support.annotation.NonNull;
 import android.support.test.filters.SmallTest;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
@@ -33,6 +35,11 @@ import org.junit.runners.JUnit4;
 @SmallTest
 public class DirectedAcyclicGraphTest {
 
+  private static final int SMALL_GRAPH_SIZE = 1000;
+  private static final int LARGE_GRAPH_SIZE = 10000;
+  private static final int TIMING_RUNS = 10;
+  private static final long MIN_TIMING_NANOS = 1000000;
+
   private DirectedAcyclicGraph<TestNode> mGraph;
 
   @Before
@@ -163,6 +170,44 @@ public class DirectedAcyclicGraphTest {
     assertFalse(mGraph.contains(edge));
   }
 
+  @Test
+  public void test_removeEdges() {
+    final TestNode node = new TestNode("node");
+    final TestNode edge = new TestNode("edge");
+    mGraph.addNode(node);
+    mGraph.addNode(edge);
+    mGraph.addEdge(node, edge);
+
+    // Now remove the edges from the dependency and assert that both nodes are still present
+    mGraph.removeEdges(edge);
+    assertEquals(2, mGraph.size());
+    assertFalse(mGraph.hasOutgoingEdges(edge));
+    final List<TestNode> incomingEdges = mGraph.getIncomingEdges(node);
+    assertTrue(incomingEdges == null || incomingEdges.isEmpty());
+  }
+
+  @Test
+  public void test_removeNode() {
+    final TestNode node1 = new TestNode("1");
+    final TestNode node2 = new TestNode("2");
+    final TestNode edge = new TestNode("edge");
+    mGraph.addNode(node1);
+    mGraph.addNode(node2);
+    mGraph.addNode(edge);
+    mGraph.addEdge(node1, edge);
+    mGraph.addEdge(edge, node2);
+
+    // Now remove the node in the middle of the chain
+    mGraph.removeNode(edge);
+
+    // Assert that the node has gone, along with any edges which referenced it
+    assertEquals(2, mGraph.size());
+    assertFalse(mGraph.contains(edge));
+    assertFalse(mGraph.hasOutgoingEdges(node2));
+    final List<TestNode> incomingEdges = mGraph.getIncomingEdges(node1);
+    assertTrue(incomingEdges == null || incomingEdges.isEmpty());
+  }
+
   @Test
   public void test_getSortedList() {
     final TestNode node1 = new TestNode("A");
@@ -191,6 +236,116 @@ public class DirectedAcyclicGraphTest {
     assertEquals(node4, sorted.get(3));
   }
 
+  @Test
+  public void test_getOutgoingEdgesIntoList() {
+    final TestNode node1 = new TestNode("1");
+    final TestNode node2 = new TestNode("2");
+    final TestNode edge = new TestNode("edge");
+    mGraph.addNode(node1);
+    mGraph.addNode(node2);
+    mGraph.addNode(edge);
+
+    mGraph.addEdge(node1, edge);
+    mGraph.addEdge(node2, edge);
+
+    // Pre-populate the list to assert that it is cleared first
+    final List<TestNode> outgoingEdges = new ArrayList<>();
+    outgoingEdges.add(node1);
+    mGraph.getOutgoingEdges(edge, outgoingEdges);
+    assertEquals(2, outgoingEdges.size());
+    assertTrue(outgoingEdges.contains(node1));
+    assertTrue(outgoingEdges.contains(node2));
+
+    mGraph.getOutgoingEdges(node1, outgoingEdges);
+    assertTrue(outgoingEdges.isEmpty());
+  }
+
+  @Test
+  public void test_getSortedListLargeChain() {
+    final List<TestNode> nodes = createChain(mGraph, LARGE_GRAPH_SIZE);
+
+    final List<TestNode> sorted = mGraph.getSortedList();
+    assertEquals(LARGE_GRAPH_SIZE, sorted.size());
+    // Each node depends on the one before it, so they should be sorted in reverse order
+    for (int i = 0; i < LARGE_GRAPH_SIZE; i++) {
+      assertSame(nodes.get(LARGE_GRAPH_SIZE - 1 - i), sorted.get(i));
+    }
+  }
+
+  @Test
+  public void test_getSortedListScalesLinearly() {
+    final DirectedAcyclicGraph<TestNode> small = new DirectedAcyclicGraph<>();
+    createChain(small, SMALL_GRAPH_SIZE);
+    final DirectedAcyclicGraph<TestNode> large = new DirectedAcyclicGraph<>();
+    createChain(large, LARGE_GRAPH_SIZE);
+
+    final long smallTime = timeSort(small);
+    final long largeTime = timeSort(large);
+    assertLinear(smallTime, largeTime);
+  }
+
+  @Test
+  public void test_getOutgoingEdgesScalesLinearly() {
+    final DirectedAcyclicGraph<TestNode> small = new DirectedAcyclicGraph<>();
+    final List<TestNode> smallNodes = createChain(small, SMALL_GRAPH_SIZE);
+    final DirectedAcyclicGraph<TestNode> large = new DirectedAcyclicGraph<>();
+    final List<TestNode> largeNodes = createChain(large, LARGE_GRAPH_SIZE);
+
+    final long smallTime = timeOutgoingEdges(small, smallNodes);
+    final long largeTime = timeOutgoingEdges(large, largeNodes);
+    assertLinear(smallTime, largeTime);
+  }
+
+  /** Creates a chain of nodes where each node depends on the node added before it. */
+  private static List<TestNode> createChain(DirectedAcyclicGraph<TestNode> graph, int size) {
+    final List<TestNode> nodes = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final TestNode node = new TestNode(Integer.toString(i));
+      graph.addNode(node);
+      if (i > 0) {
+        graph.addEdge(nodes.get(i - 1), node);
+      }
+      nodes.add(node);
+    }
+    return nodes;
+  }
+
+  private static long timeSort(DirectedAcyclicGraph<TestNode> graph) {
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < TIMING_RUNS; i++) {
+      final long start = System.nanoTime();
+      graph.getSortedList();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best;
+  }
+
+  private static long timeOutgoingEdges(
+      DirectedAcyclicGraph<TestNode> graph, List<TestNode> nodes) {
+    final List<TestNode> out = new ArrayList<>();
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < TIMING_RUNS; i++) {
+      final long start = System.nanoTime();
+      for (int j = 0, size = nodes.size(); j < size; j++) {
+        graph.getOutgoingEdges(nodes.get(j), out);
+      }
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best;
+  }
+
+  /**
+   * Asserts that the time taken for the large graph grew roughly linearly with the graph size. The
+   * allowed factor leaves plenty of headroom for noise, while still catching quadratic growth.
+   */
+  private static void assertLinear(long smallTime, long largeTime) {
+    final long sizeFactor = LARGE_GRAPH_SIZE / SMALL_GRAPH_SIZE;
+    final long allowed = Math.max(smallTime, MIN_TIMING_NANOS) * sizeFactor * 3;
+    assertTrue(
+        "Expected linear growth, took " + smallTime + "ns then " + largeTime + "ns",
+        largeTime <= allowed);
+  }
+
   private static class TestNode {
     private final String mLabel;
 
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.app.Activity;
+import android.support.design.BuildConfig;
+import android.support.design.R;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+/**
+ * Tests for the rotation tracking of a {@link FloatingActionButton}, which is only done before
+ * each frame on the platforms without elevation.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 19)
+public class FloatingActionButtonRotationTest {
+
+  private FloatingActionButton fab;
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.setupActivity(Activity.class);
+    activity.setTheme(R.style.Theme_MaterialComponents_Light);
+    fab = new FloatingActionButton(activity);
+    activity.setContentView(fab);
+  }
+
+  @Test
+  public void testNoPreDrawChecksWithoutRotation() throws Exception {
+    dispatchOnPreDraw(10);
+
+    assertThat(fab.getPreDrawInvocationCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testSetRotationIsAppliedWithoutPreDrawChecks() throws Exception {
+    fab.setRotation(45);
+
+    assertThat(fab.getLayerType()).isEqualTo(View.LAYER_TYPE_SOFTWARE);
+    dispatchOnPreDraw(10);
+    assertThat(fab.getPreDrawInvocationCount()).isEqualTo(0);
+
+    fab.setRotation(90);
+    assertThat(fab.getLayerType()).isEqualTo(View.LAYER_TYPE_NONE);
+  }
+
+  @Test
+  public void testPreDrawChecksOnlyWhileRotationIsAnimated() throws Exception {
+    fab.animate().rotation(90).setDuration(100);
+    dispatchOnPreDraw(1);
+    assertThat(fab.getPreDrawInvocationCount()).isEqualTo(1);
+
+    // Once the animation has ended, the next frame removes the listener
+    ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+    dispatchOnPreDraw(2);
+    final int count = fab.getPreDrawInvocationCount();
+    dispatchOnPreDraw(10);
+
+    assertThat(count).isAtMost(3);
+    assertThat(fab.getPreDrawInvocationCount()).isEqualTo(count);
+  }
+
+  private void dispatchOnPreDraw(int frameCount) throws Exception {
+    // ViewTreeObserver.dispatchOnPreDraw() is hidden
+    final Method dispatchOnPreDraw = ViewTreeObserver.class.getDeclaredMethod("dispatchOnPreDraw");
+    dispatchOnPreDraw.setAccessible(true);
+    for (int i = 0; i < frameCount; i++) {
+      dispatchOnPreDraw.invoke(fab.getViewTreeObserver());
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import android.app.Activity;
+import android.support.design.BuildConfig;
+import android.support.design.R;
+import android.support.design.animation.MotionSpec;
+import android.support.design.animation.MotionTiming;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+/** Tests for the show and hide animations of a {@link FloatingActionButton}. */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FloatingActionButtonVisibilityTest {
+
+  private static final int CYCLE_COUNT = 100;
+  /**
+   * Bytes which a show and hide may allocate, for the scheduling of the animators. Building a new
+   * set of animators for each of them allocates several times as much.
+   */
+  private static final long MAX_BYTES_PER_CYCLE = 1024;
+
+  private FloatingActionButton fab;
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.setupActivity(Activity.class);
+    activity.setTheme(R.style.Theme_MaterialComponents_Light);
+    fab = new FloatingActionButton(activity);
+    activity.setContentView(fab);
+
+    fab.measure(
+        MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED),
+        MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
+    fab.layout(0, 0, fab.getMeasuredWidth(), fab.getMeasuredHeight());
+  }
+
+  @Test
+  public void testHideAndShowAnimateToTheirEndValues() {
+    fab.hide();
+    ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+
+    assertThat(fab.getVisibility()).isEqualTo(View.GONE);
+    assertThat(fab.getAlpha()).isEqualTo(0f);
+    assertThat(fab.getScaleX()).isEqualTo(0f);
+
+    fab.show();
+    assertThat(fab.getVisibility()).isEqualTo(View.VISIBLE);
+    ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+
+    assertThat(fab.getAlpha()).isEqualTo(1f);
+    assertThat(fab.getScaleX()).isEqualTo(1f);
+    assertThat(fab.getScaleY()).isEqualTo(1f);
+  }
+
+  @Test
+  public void testInterruptedHideDoesNotHideTheView() {
+    fab.hide();
+    fab.show();
+    ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+
+    assertThat(fab.getVisibility()).isEqualTo(View.VISIBLE);
+    assertThat(fab.getAlpha()).isEqualTo(1f);
+  }
+
+  @Test
+  public void testTimingsWithoutDurationJumpToTheirEndValues() {
+    final MotionSpec spec = new MotionSpec();
+    spec.setTiming("opacity", new MotionTiming(0, 0));
+    spec.setTiming("scale", new MotionTiming(0, 200));
+    spec.setTiming("iconScale", new MotionTiming(0, 200));
+    fab.setHideMotionSpec(spec);
+
+    fab.hide();
+    ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+
+    assertThat(fab.getAlpha()).isEqualTo(0f);
+    assertThat(Float.isNaN(fab.getScaleX())).isFalse();
+  }
+
+  @Test
+  public void testShowAndHideReuseTheirAnimators() {
+    // Allocation counts are only available on JVMs with the com.sun.management extensions
+    final ThreadMXBean platformBean = ManagementFactory.getThreadMXBean();
+    assumeTrue(platformBean instanceof com.sun.management.ThreadMXBean);
+    final com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) platformBean;
+    assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+    threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    final long threadId = Thread.currentThread().getId();
+
+    // Warm up, so that the animators and motion specs already exist
+    toggle(CYCLE_COUNT);
+
+    final long start = threadMXBean.getThreadAllocatedBytes(threadId);
+    toggle(CYCLE_COUNT);
+    final long end = threadMXBean.getThreadAllocatedBytes(threadId);
+
+    assertThat((end - start) / CYCLE_COUNT).isAtMost(MAX_BYTES_PER_CYCLE);
+  }
+
+  private void toggle(int cycleCount) {
+    // Like a button hidden and shown on every change of scroll direction
+    for (int i = 0; i < cycleCount; i++) {
+      fab.hide();
+      fab.show();
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Matrix;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Tests for {@link GeometryPool}. */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class GeometryPoolTest {
+
+  @Before
+  public void setUp() {
+    GeometryPool.resetCounts();
+  }
+
+  @Test
+  public void testReleasedInstancesAreReused() {
+    final Rect rect = GeometryPool.acquireRect();
+    GeometryPool.releaseRect(rect);
+
+    assertThat(GeometryPool.acquireRect()).isSameAs(rect);
+  }
+
+  @Test
+  public void testReleasedInstancesAreReset() {
+    final Rect rect = GeometryPool.acquireRect();
+    rect.set(1, 2, 3, 4);
+    GeometryPool.releaseRect(rect);
+    assertThat(GeometryPool.acquireRect().isEmpty()).isTrue();
+
+    final RectF rectF = GeometryPool.acquireRectF();
+    rectF.set(1, 2, 3, 4);
+    GeometryPool.releaseRectF(rectF);
+    assertThat(GeometryPool.acquireRectF().isEmpty()).isTrue();
+
+    final PointF point = GeometryPool.acquirePointF();
+    point.set(1, 2);
+    GeometryPool.releasePointF(point);
+    final PointF acquiredPoint = GeometryPool.acquirePointF();
+    assertThat(acquiredPoint.x).isEqualTo(0f);
+    assertThat(acquiredPoint.y).isEqualTo(0f);
+
+    final Matrix matrix = GeometryPool.acquireMatrix();
+    matrix.setScale(2f, 2f);
+    GeometryPool.releaseMatrix(matrix);
+    assertThat(GeometryPool.acquireMatrix().isIdentity()).isTrue();
+  }
+
+  @Test
+  public void testHitAndMissCounts() {
+    // Drain anything left in the pool by previous tests on this thread
+    final List<Rect> held = new ArrayList<>();
+    while (GeometryPool.getMissCount() == 0) {
+      held.add(GeometryPool.acquireRect());
+    }
+    GeometryPool.resetCounts();
+
+    final Rect rect = GeometryPool.acquireRect();
+    assertThat(GeometryPool.getHitCount()).isEqualTo(0);
+    assertThat(GeometryPool.getMissCount()).isEqualTo(1);
+
+    GeometryPool.releaseRect(rect);
+    assertThat(GeometryPool.acquireRect()).isSameAs(rect);
+    assertThat(GeometryPool.getHitCount()).isEqualTo(1);
+    assertThat(GeometryPool.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testPoolGrowsToPeakUsage() {
+    final List<Rect> rects = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      rects.add(GeometryPool.acquireRect());
+    }
+    for (Rect rect : rects) {
+      GeometryPool.releaseRect(rect);
+    }
+    GeometryPool.resetCounts();
+
+    for (int i = 0; i < 20; i++) {
+      GeometryPool.acquireRect();
+    }
+    assertThat(GeometryPool.getHitCount()).isEqualTo(20);
+    assertThat(GeometryPool.getMissCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testPoolsAreConfinedToThread() throws InterruptedException {
+    final Rect rect = GeometryPool.acquireRect();
+    GeometryPool.releaseRect(rect);
+
+    final Rect[] otherThreadRect = new Rect[1];
+    final Thread thread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                otherThreadRect[0] = GeometryPool.acquireRect();
+              }
+            });
+    thread.start();
+    thread.join();
+
+    assertThat(otherThreadRect[0]).isNotSameAs(rect);
+    assertThat(GeometryPool.acquireRect()).isSameAs(rect);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Color;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Tests for {@link ShadowBitmapCache}. */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class ShadowBitmapCacheTest {
+
+  private static final int START_COLOR = 0x44000000;
+  private static final int MIDDLE_COLOR = 0x14000000;
+  private static final int END_COLOR = Color.TRANSPARENT;
+
+  @Before
+  public void setUp() {
+    ShadowBitmapCache.clear();
+  }
+
+  @Test
+  public void testBitmapSizes() {
+    final ShadowBitmapCache.Entry entry =
+        ShadowBitmapCache.get(20, 6, START_COLOR, MIDDLE_COLOR, END_COLOR);
+
+    assertThat(entry.mCorner.getWidth()).isEqualTo(26);
+    assertThat(entry.mCorner.getHeight()).isEqualTo(26);
+    assertThat(entry.mEdge.getWidth()).isEqualTo(1);
+    assertThat(entry.mEdge.getHeight()).isEqualTo(12);
+  }
+
+  @Test
+  public void testEntriesAreShared() {
+    final int hits = ShadowBitmapCache.getHitCount();
+    final int misses = ShadowBitmapCache.getMissCount();
+
+    final ShadowBitmapCache.Entry entry =
+        ShadowBitmapCache.get(20, 6, START_COLOR, MIDDLE_COLOR, END_COLOR);
+    assertThat(ShadowBitmapCache.get(20, 6, START_COLOR, MIDDLE_COLOR, END_COLOR))
+        .isSameAs(entry);
+
+    assertThat(ShadowBitmapCache.getHitCount()).isEqualTo(hits + 1);
+    assertThat(ShadowBitmapCache.getMissCount()).isEqualTo(misses + 1);
+  }
+
+  @Test
+  public void testEntriesAreKeyedByAllParameters() {
+    final ShadowBitmapCache.Entry entry =
+        ShadowBitmapCache.get(20, 6, START_COLOR, MIDDLE_COLOR, END_COLOR);
+
+    assertThat(ShadowBitmapCache.get(21, 6, START_COLOR, MIDDLE_COLOR, END_COLOR))
+        .isNotSameAs(entry);
+    assertThat(ShadowBitmapCache.get(20, 7, START_COLOR, MIDDLE_COLOR, END_COLOR))
+        .isNotSameAs(entry);
+    assertThat(ShadowBitmapCache.get(20, 6, Color.RED, MIDDLE_COLOR, END_COLOR))
+        .isNotSameAs(entry);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntriesAreEvicted() {
+    final ShadowBitmapCache.Entry first =
+        ShadowBitmapCache.get(100, 50, START_COLOR, MIDDLE_COLOR, END_COLOR);
+    // Fill the cache well past its budget with other large shadows
+    for (int size = 51; size < 100; size++) {
+      ShadowBitmapCache.get(100, size, START_COLOR, MIDDLE_COLOR, END_COLOR);
+    }
+
+    assertThat(ShadowBitmapCache.get(100, 50, START_COLOR, MIDDLE_COLOR, END_COLOR))
+        .isNotSameAs(first);
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.support.design.BuildConfig;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+/** Tests for the queue mode of {@link SnackbarManager}. */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SnackbarManagerQueueTest {
+
+  private static final int CAPACITY = 4;
+
+  private SnackbarManager manager;
+  // Held strongly, since the manager only keeps weak references to the callbacks
+  private final List<FakeCallback> callbacks = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    manager = SnackbarManager.getInstance();
+    BaseTransientBottomBar.setQueueCapacity(CAPACITY);
+    BaseTransientBottomBar.resetQueueMetrics();
+    assertThat(BaseTransientBottomBar.getQueueCapacity()).isEqualTo(CAPACITY);
+  }
+
+  @After
+  public void tearDown() {
+    // The manager is a singleton, so remove the queued and current Snackbars for the next test
+    for (FakeCallback callback : callbacks) {
+      manager.dismiss(callback, BaseTransientBottomBar.BaseCallback.DISMISS_EVENT_MANUAL);
+    }
+    for (FakeCallback callback : callbacks) {
+      manager.onDismissed(callback);
+    }
+    BaseTransientBottomBar.setQueueCapacity(0);
+  }
+
+  @Test
+  public void testQueuedSnackbarsAreShownInPriorityOrder() {
+    final FakeCallback current = show(1, null);
+    final FakeCallback low = show(0, null);
+    final FakeCallback high = show(1, null);
+
+    assertThat(current.showCount).isEqualTo(1);
+    assertThat(BaseTransientBottomBar.getQueueDepth()).isEqualTo(2);
+    assertThat(manager.isCurrentOrNext(low)).isTrue();
+
+    manager.onDismissed(current);
+    assertThat(high.showCount).isEqualTo(1);
+    assertThat(low.showCount).isEqualTo(0);
+
+    manager.onDismissed(high);
+    assertThat(low.showCount).isEqualTo(1);
+    assertThat(BaseTransientBottomBar.getQueueDepth()).isEqualTo(0);
+  }
+
+  @Test
+  public void testHigherPrioritySnackbarInterruptsTheCurrentOne() {
+    final FakeCallback current = show(0, null);
+    show(1, null);
+
+    assertThat(current.dismissEvents)
+        .containsExactly(BaseTransientBottomBar.BaseCallback.DISMISS_EVENT_CONSECUTIVE);
+  }
+
+  @Test
+  public void testSnackbarsWithTheSameKeyAreCoalesced() {
+    show(0, null);
+    FakeCallback last = null;
+    for (int i = 0; i < 20; i++) {
+      last = show(0, "sync failed");
+    }
+
+    assertThat(BaseTransientBottomBar.getQueueDepth()).isEqualTo(1);
+    assertThat(BaseTransientBottomBar.getCoalescedCount()).isEqualTo(19);
+    assertThat(manager.isCurrentOrNext(last)).isTrue();
+    assertThat(manager.isCurrentOrNext(callbacks.get(1))).isFalse();
+  }
+
+  @Test
+  public void testSnackbarWithTheSameKeyAsTheCurrentOneIsNotQueued() {
+    final FakeCallback current = show(0, "sync failed");
+    show(0, "sync failed");
+
+    assertThat(BaseTransientBottomBar.getQueueDepth()).isEqualTo(0);
+    assertThat(BaseTransientBottomBar.getCoalescedCount()).isEqualTo(1);
+    assertThat(manager.isCurrent(current)).isTrue();
+  }
+
+  @Test
+  public void testLowestPrioritySnackbarsAreDroppedWhenTheQueueIsFull() {
+    show(1, null);
+    final FakeCallback low = show(0, null);
+    for (int i = 0; i < CAPACITY; i++) {
+      show(1, null);
+    }
+
+    assertThat(BaseTransientBottomBar.getQueueDepth()).isEqualTo(CAPACITY);
+    assertThat(BaseTransientBottomBar.getPeakQueueDepth()).isEqualTo(CAPACITY);
+    assertThat(BaseTransientBottomBar.getDroppedCount()).isEqualTo(1);
+    assertThat(manager.isCurrentOrNext(low)).isFalse();
+  }
+
+  @Test
+  public void testSnackbarsShownFromOtherThreadsAreDrainedOnTheMainThread() throws Exception {
+    final FakeCallback callback = new FakeCallback();
+    callbacks.add(callback);
+    final Thread thread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                manager.show(Snackbar.LENGTH_SHORT, callback, 0, null);
+              }
+            });
+    thread.start();
+    thread.join();
+    assertThat(callback.showCount).isEqualTo(0);
+
+    ShadowLooper.idleMainLooper();
+    assertThat(callback.showCount).isEqualTo(1);
+    assertThat(manager.isCurrent(callback)).isTrue();
+  }
+
+  private FakeCallback show(int priority, String coalescingKey) {
+    final FakeCallback callback = new FakeCallback();
+    callbacks.add(callback);
+    manager.show(Snackbar.LENGTH_INDEFINITE, callback, priority, coalescingKey);
+    return callback;
+  }
+
+  private static class FakeCallback implements SnackbarManager.Callback {
+    int showCount;
+    final List<Integer> dismissEvents = new ArrayList<>();
+
+    @Override
+    public void show() {
+      showCount++;
+    }
+
+    @Override
+    public void dismiss(int event) {
+      dismissEvents.add(event);
+    }
+  }
+}
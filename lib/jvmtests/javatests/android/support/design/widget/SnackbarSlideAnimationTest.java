@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.app.Activity;
+import android.support.design.BuildConfig;
+import android.support.design.R;
+import android.view.View.MeasureSpec;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+/** Tests for the slide animations of a {@link BaseTransientBottomBar}. */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SnackbarSlideAnimationTest {
+
+  private static final int WIDTH = 400;
+  private static final int HEIGHT = 800;
+
+  private CoordinatorLayout coordinatorLayout;
+  private int shownCount;
+  private int dismissedCount;
+
+  private final Snackbar.Callback callback =
+      new Snackbar.Callback() {
+        @Override
+        public void onShown(Snackbar snackbar) {
+          shownCount++;
+        }
+
+        @Override
+        public void onDismissed(Snackbar snackbar, int event) {
+          dismissedCount++;
+        }
+      };
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.setupActivity(Activity.class);
+    activity.setTheme(R.style.Theme_MaterialComponents_Light);
+    coordinatorLayout = new CoordinatorLayout(activity);
+    activity.setContentView(coordinatorLayout);
+  }
+
+  @Test
+  public void testSlidesInAndOut() {
+    final Snackbar snackbar = showSnackbar();
+    ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+
+    assertThat(shownCount).isEqualTo(1);
+    assertThat(snackbar.getView().getTranslationY()).isEqualTo(0f);
+
+    snackbar.dismiss();
+    ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+
+    assertThat(dismissedCount).isEqualTo(1);
+    assertThat(snackbar.getView().getParent()).isNull();
+  }
+
+  @Test
+  public void testDismissWhileSlidingInSlidesOutFromWhereTheViewIs() {
+    final Snackbar snackbar = showSnackbar();
+    final int viewHeight = snackbar.getView().getHeight();
+    ShadowLooper.idleMainLooper(
+        BaseTransientBottomBar.ANIMATION_DURATION / 2, TimeUnit.MILLISECONDS);
+    final float translationY = snackbar.getView().getTranslationY();
+    assertThat(translationY).isLessThan((float) viewHeight);
+
+    snackbar.dismiss();
+    ShadowLooper.idleMainLooper(0, TimeUnit.MILLISECONDS);
+    // The view doesn't jump back to where it would be when fully shown
+    assertThat(snackbar.getView().getTranslationY()).isAtLeast(translationY);
+    // The bar is still reported as shown once it starts sliding out
+    assertThat(shownCount).isEqualTo(1);
+    assertThat(dismissedCount).isEqualTo(0);
+
+    ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+    assertThat(shownCount).isEqualTo(1);
+    assertThat(dismissedCount).isEqualTo(1);
+    assertThat(snackbar.getView().getParent()).isNull();
+  }
+
+  private Snackbar showSnackbar() {
+    final Snackbar snackbar =
+        Snackbar.make(coordinatorLayout, "Sync complete", Snackbar.LENGTH_INDEFINITE)
+            .addCallback(callback);
+    snackbar.show();
+    // Add the bar to the coordinator, and lay it out so that it starts sliding in
+    ShadowLooper.idleMainLooper(0, TimeUnit.MILLISECONDS);
+    coordinatorLayout.measure(
+        MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(HEIGHT, MeasureSpec.EXACTLY));
+    coordinatorLayout.layout(0, 0, WIDTH, HEIGHT);
+    return snackbar;
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.app.Activity;
+import android.content.res.ColorStateList;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.support.design.BuildConfig;
+import android.support.design.R;
+import android.support.design.internal.SnackbarContentLayout;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.widget.TextViewCompat;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+/** Tests for the views prepared for {@link Snackbar}s by a {@link SnackbarViewPool}. */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SnackbarViewPoolTest {
+
+  private static final int POOL_SIZE = 2;
+
+  private CoordinatorLayout coordinatorLayout;
+  private SnackbarViewPool pool;
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.setupActivity(Activity.class);
+    activity.setTheme(R.style.Theme_MaterialComponents_Light);
+    coordinatorLayout = new CoordinatorLayout(activity);
+    activity.setContentView(coordinatorLayout);
+
+    Snackbar.prepareViews(coordinatorLayout, POOL_SIZE);
+    pool = SnackbarViewPool.get(coordinatorLayout);
+    // Run the idle handler until every view has been inflated
+    while (pool.queueIdle()) {}
+  }
+
+  @Test
+  public void testViewsAreInflatedUpToTheCapacity() {
+    assertThat(pool.getPooledViewCount()).isEqualTo(POOL_SIZE);
+    assertThat(pool.queueIdle()).isFalse();
+  }
+
+  @Test
+  public void testMakeUsesAPooledView() {
+    final Snackbar snackbar = Snackbar.make(coordinatorLayout, "Sync complete", 1000);
+
+    assertThat(pool.getPooledViewCount()).isEqualTo(POOL_SIZE - 1);
+    assertThat(getContent(snackbar).getMessageView().getText().toString())
+        .isEqualTo("Sync complete");
+  }
+
+  @Test
+  public void testViewIsResetAndReturnedOnceHidden() {
+    final Snackbar snackbar =
+        Snackbar.make(coordinatorLayout, "Message deleted", Snackbar.LENGTH_INDEFINITE)
+            .setAction(
+                "Undo",
+                new View.OnClickListener() {
+                  @Override
+                  public void onClick(View v) {}
+                });
+    final View view = snackbar.getView();
+    showAndDismiss(snackbar);
+
+    assertThat(view.getParent()).isNull();
+    assertThat(pool.getPooledViewCount()).isEqualTo(POOL_SIZE);
+
+    // The pool hands out the released view last in, first out
+    final Snackbar next = Snackbar.make(coordinatorLayout, "Sync complete", 1000);
+    assertThat(next.getView()).isSameAs(view);
+    assertThat(view.getTranslationY()).isEqualTo(0f);
+    assertThat(getContent(next).getMessageView().getText().toString())
+        .isEqualTo("Sync complete");
+    assertThat(getContent(next).getActionView().getVisibility()).isEqualTo(View.GONE);
+  }
+
+  @Test
+  public void testCustomizationsAreUndoneOnceHidden() {
+    final Snackbar snackbar = Snackbar.make(coordinatorLayout, "Message deleted", 1000);
+    final View view = snackbar.getView();
+    final TextView message = getContent(snackbar).getMessageView();
+    final Drawable.ConstantState background = view.getBackground().getConstantState();
+    final float elevation = ViewCompat.getElevation(view);
+    final int paddingTop = view.getPaddingTop();
+    final int topMargin = ((ViewGroup.MarginLayoutParams) view.getLayoutParams()).topMargin;
+    final ColorStateList messageTextColors = message.getTextColors();
+    final int messageMaxLines = TextViewCompat.getMaxLines(message);
+
+    view.setBackgroundColor(Color.RED);
+    ViewCompat.setElevation(view, elevation + 10);
+    view.setPadding(20, 20, 20, 20);
+    ((ViewGroup.MarginLayoutParams) view.getLayoutParams()).setMargins(30, 30, 30, 30);
+    message.setTextColor(Color.YELLOW);
+    message.setMaxLines(5);
+    showAndDismiss(snackbar);
+
+    final Snackbar next = Snackbar.make(coordinatorLayout, "Sync complete", 1000);
+    assertThat(next.getView()).isSameAs(view);
+    assertThat(view.getBackground().getConstantState()).isSameAs(background);
+    assertThat(ViewCompat.getElevation(view)).isEqualTo(elevation);
+    assertThat(view.getPaddingTop()).isEqualTo(paddingTop);
+    assertThat(((ViewGroup.MarginLayoutParams) view.getLayoutParams()).topMargin)
+        .isEqualTo(topMargin);
+    assertThat(message.getTextColors()).isSameAs(messageTextColors);
+    assertThat(TextViewCompat.getMaxLines(message)).isEqualTo(messageMaxLines);
+  }
+
+  @Test
+  public void testPreparingNoViewsRemovesThePool() {
+    Snackbar.prepareViews(coordinatorLayout, 0);
+
+    assertThat(SnackbarViewPool.get(coordinatorLayout)).isNull();
+    assertThat(Snackbar.make(coordinatorLayout, "Sync complete", 1000).mViewPool).isNull();
+  }
+
+  private void showAndDismiss(Snackbar snackbar) {
+    snackbar.show();
+    ShadowLooper.idleMainLooper(0, TimeUnit.MILLISECONDS);
+    coordinatorLayout.measure(
+        MeasureSpec.makeMeasureSpec(400, MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(800, MeasureSpec.EXACTLY));
+    coordinatorLayout.layout(0, 0, 400, 800);
+    ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+
+    snackbar.dismiss();
+    ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+  }
+
+  private static SnackbarContentLayout getContent(Snackbar snackbar) {
+    return (SnackbarContentLayout) ((ViewGroup) snackbar.getView()).getChildAt(0);
+  }
+}
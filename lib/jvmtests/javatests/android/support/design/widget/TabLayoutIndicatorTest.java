@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.support.design.BuildConfig;
+import android.support.design.R;
+import android.support.v4.view.ViewPager;
+import android.view.ContextThemeWrapper;
+import android.view.View.MeasureSpec;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/** Tests for the selection indicator of a {@link TabLayout}. */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class TabLayoutIndicatorTest {
+
+  private static final int TAB_COUNT = 20;
+  private static final int CALLBACK_COUNT = 1000;
+  private static final int WIDTH = 500;
+
+  private TabLayout tabLayout;
+
+  @Before
+  public void setUp() {
+    final Context context =
+        new ContextThemeWrapper(
+            RuntimeEnvironment.application, R.style.Theme_MaterialComponents_Light);
+    tabLayout = new TabLayout(context);
+    tabLayout.setTabMode(TabLayout.MODE_SCROLLABLE);
+    for (int i = 0; i < TAB_COUNT; i++) {
+      tabLayout.addTab(tabLayout.newTab().setText("Tab " + i));
+    }
+
+    tabLayout.measure(
+        MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
+    tabLayout.layout(0, 0, WIDTH, tabLayout.getMeasuredHeight());
+  }
+
+  @Test
+  public void testPageScrollCallbacksDoNotAllocate() {
+    // Allocation counts are only available on JVMs with the com.sun.management extensions
+    final ThreadMXBean platformBean = ManagementFactory.getThreadMXBean();
+    assumeTrue(platformBean instanceof com.sun.management.ThreadMXBean);
+    final com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) platformBean;
+    assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+    threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    final long threadId = Thread.currentThread().getId();
+
+    final TabLayout.TabLayoutOnPageChangeListener listener =
+        new TabLayout.TabLayoutOnPageChangeListener(tabLayout);
+    listener.onPageScrollStateChanged(ViewPager.SCROLL_STATE_DRAGGING);
+    // Warm up, so that any lazily created state already exists
+    scroll(listener);
+
+    // Reading the counter may allocate by itself, so measure that first
+    final long baselineStart = threadMXBean.getThreadAllocatedBytes(threadId);
+    final long baselineEnd = threadMXBean.getThreadAllocatedBytes(threadId);
+
+    final long start = threadMXBean.getThreadAllocatedBytes(threadId);
+    scroll(listener);
+    final long end = threadMXBean.getThreadAllocatedBytes(threadId);
+
+    assertThat(end - start).isAtMost(baselineEnd - baselineStart);
+    assertThat(tabLayout.getScrollX()).isGreaterThan(0);
+  }
+
+  private static void scroll(TabLayout.TabLayoutOnPageChangeListener listener) {
+    for (int i = 0; i < CALLBACK_COUNT; i++) {
+      // Drag through all of the tabs, in steps of a tenth of a tab
+      final int step = i % ((TAB_COUNT - 1) * 10);
+      listener.onPageScrolled(step / 10, (step % 10) / 10f, 0);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static org.junit.Assert.assertEquals;
+
+import android.support.test.filters.SmallTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+@SmallTest
+public class ZSortedListTest {
+
+  private ZSortedList<String> mList;
+
+  @Before
+  public void setup() {
+    mList = new ZSortedList<>();
+  }
+
+  @Test
+  public void test_itemsAreSortedByDescendingZ() {
+    mList.add("low", 0f);
+    mList.add("high", 10f);
+    mList.add("middle", 5f);
+
+    assertOrder("high", "middle", "low");
+  }
+
+  @Test
+  public void test_equalZKeepsTheOrderAdded() {
+    for (int i = 0; i < 20; i++) {
+      mList.add("item " + i, i % 5 == 0 ? 1f : 0f);
+    }
+
+    assertEquals(20, mList.size());
+    for (int i = 0; i < 4; i++) {
+      assertEquals("item " + i * 5, mList.get(i));
+    }
+    assertEquals("item 1", mList.get(4));
+    assertEquals("item 19", mList.get(19));
+  }
+
+  @Test
+  public void test_clear() {
+    mList.add("first", 1f);
+    mList.clear();
+    mList.add("second", 0f);
+
+    assertOrder("second");
+  }
+
+  private void assertOrder(String... expected) {
+    assertEquals(expected.length, mList.size());
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], mList.get(i));
+    }
+  }
+}
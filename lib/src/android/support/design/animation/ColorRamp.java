@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.support.design.animation;
+
+import android.support.annotation.ColorInt;
+import android.support.annotation.RestrictTo;
+import android.support.annotation.RestrictTo.Scope;
+import android.support.annotation.VisibleForTesting;
+
+/**
+ * A table of the colors between a start and an end ARGB color, precomputed in 256 steps.
+ *
+ * <p>Each channel of a color only has 256 values, so a ramp of 256 steps loses next to nothing
+ * compared to blending the colors for every frame, while looking a color up is a single array
+ * access. Ramps are shared through a small cache keyed by their start and end colors.
+ */
+@RestrictTo(Scope.LIBRARY_GROUP)
+public final class ColorRamp {
+
+  private static final int STEP_COUNT = 256;
+  /** Log2 of the number of ramps kept by each cache. */
+  private static final int CACHE_BITS = 5;
+  private static final int CACHE_SIZE = 1 << CACHE_BITS;
+  /** 2^32 divided by the golden ratio, which spreads the bits of a color over the whole word. */
+  private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+  private static final ColorRamp[] linearRamps = new ColorRamp[CACHE_SIZE];
+  private static final ColorRamp[] gammaCorrectedRamps = new ColorRamp[CACHE_SIZE];
+
+  private static int hitCount;
+  private static int missCount;
+
+  private final int startColor;
+  private final int endColor;
+  private final int[] colors;
+
+  private ColorRamp(int startColor, int endColor, boolean gammaCorrected) {
+    this.startColor = startColor;
+    this.endColor = endColor;
+    colors = new int[STEP_COUNT];
+    for (int i = 0; i < STEP_COUNT; i++) {
+      final float fraction = (float) i / (STEP_COUNT - 1);
+      colors[i] =
+          gammaCorrected
+              ? ArgbEvaluatorCompat.getInstance().evaluate(fraction, startColor, endColor)
+              : blendLinear(startColor, endColor, fraction);
+    }
+  }
+
+  /**
+   * Returns the ramp between {@code startColor} and {@code endColor}, with each channel blended
+   * linearly.
+   */
+  public static ColorRamp get(@ColorInt int startColor, @ColorInt int endColor) {
+    return get(linearRamps, startColor, endColor, false);
+  }
+
+  /**
+   * Returns the ramp between {@code startColor} and {@code endColor}, blended in linear space like
+   * {@link ArgbEvaluatorCompat}.
+   */
+  public static ColorRamp getGammaCorrected(@ColorInt int startColor, @ColorInt int endColor) {
+    return get(gammaCorrectedRamps, startColor, endColor, true);
+  }
+
+  private static ColorRamp get(
+      ColorRamp[] cache, int startColor, int endColor, boolean gammaCorrected) {
+    final int index = indexOf(startColor, endColor);
+    // Ramps are immutable, so a racing lookup at worst creates the same ramp twice
+    ColorRamp ramp = cache[index];
+    if (ramp != null && ramp.startColor == startColor && ramp.endColor == endColor) {
+      hitCount++;
+      return ramp;
+    }
+    missCount++;
+    ramp = new ColorRamp(startColor, endColor, gammaCorrected);
+    cache[index] = ramp;
+    return ramp;
+  }
+
+  /**
+   * Returns the cache slot of a pair of colors. The low bits of a color are only its blue channel,
+   * so pairs such as fades of one color or shades of grey would share a slot if they were masked
+   * off. Instead both colors are mixed by multiplication, which carries every bit of them into the
+   * high bits of the hash, and the slot is taken from those.
+   */
+  private static int indexOf(int startColor, int endColor) {
+    return ((startColor * HASH_MULTIPLIER ^ endColor) * HASH_MULTIPLIER) >>> (32 - CACHE_BITS);
+  }
+
+  @ColorInt
+  public int getStartColor() {
+    return startColor;
+  }
+
+  @ColorInt
+  public int getEndColor() {
+    return endColor;
+  }
+
+  /**
+   * Returns the color at {@code fraction} along the ramp, where 0 is the start color and 1 is the
+   * end color. Fractions outside of [0, 1] are clamped.
+   */
+  @ColorInt
+  public int getColor(float fraction) {
+    if (fraction <= 0f) {
+      return colors[0];
+    } else if (fraction >= 1f) {
+      return colors[STEP_COUNT - 1];
+    }
+    return colors[Math.round(fraction * (STEP_COUNT - 1))];
+  }
+
+  /** Returns the number of lookups which were served from the cache. */
+  @VisibleForTesting
+  static int getHitCount() {
+    return hitCount;
+  }
+
+  /** Returns the number of lookups which needed a new ramp. */
+  @VisibleForTesting
+  static int getMissCount() {
+    return missCount;
+  }
+
+  private static int blendLinear(int startColor, int endColor, float fraction) {
+    final float inverseFraction = 1f - fraction;
+    final float a = ((startColor >>> 24) * inverseFraction) + ((endColor >>> 24) * fraction);
+    final float r =
+        (((startColor >> 16) & 0xff) * inverseFraction) + (((endColor >> 16) & 0xff) * fraction);
+    final float g =
+        (((startColor >> 8) & 0xff) * inverseFraction) + (((endColor >> 8) & 0xff) * fraction);
+    final float b = ((startColor & 0xff) * inverseFraction) + ((endColor & 0xff) * fraction);
+    return Math.round(a) << 24 | Math.round(r) << 16 | Math.round(g) << 8 | Math.round(b);
+  }
+}
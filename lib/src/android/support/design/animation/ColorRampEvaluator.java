@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.support.design.animation;
+
+import android.animation.TypeEvaluator;
+import android.support.annotation.Nullable;
+import android.support.annotation.RestrictTo;
+import android.support.annotation.RestrictTo.Scope;
+
+/**
+ * An evaluator which interpolates ARGB colors in the same way as {@link ArgbEvaluatorCompat}, but
+ * looks the colors up in a shared {@link ColorRamp} instead of converting them to and from linear
+ * space on every frame.
+ */
+@RestrictTo(Scope.LIBRARY_GROUP)
+public class ColorRampEvaluator implements TypeEvaluator<Integer> {
+  private static final ColorRampEvaluator sInstance = new ColorRampEvaluator();
+
+  // The ramp of the last start and end colors, which an animator passes on every frame
+  @Nullable private ColorRamp lastRamp;
+
+  /**
+   * Returns an instance of <code>ColorRampEvaluator</code>. The same instance may be used in
+   * multiple <code>Animator</code>s, since the only state it holds is the last ramp it looked up,
+   * which is immutable.
+   */
+  public static ColorRampEvaluator getInstance() {
+    return sInstance;
+  }
+
+  @Override
+  public Integer evaluate(float fraction, Integer startValue, Integer endValue) {
+    final int startColor = startValue;
+    final int endColor = endValue;
+    ColorRamp ramp = lastRamp;
+    if (ramp == null || ramp.getStartColor() != startColor || ramp.getEndColor() != endColor) {
+      ramp = ColorRamp.getGammaCorrected(startColor, endColor);
+      lastRamp = ramp;
+    }
+    return ramp.getColor(fraction);
+  }
+}
@@ -20,10 +20,16 @@ import android.animation.AnimatorInflater;
 import android.animation.AnimatorSet;
 import android.animation.ObjectAnimator;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.support.annotation.AnimatorRes;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.annotation.RestrictTo;
+import android.support.annotation.RestrictTo.Scope;
 import android.support.annotation.StyleableRes;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.util.LruCache;
 import android.support.v4.util.SimpleArrayMap;
 import android.util.Log;
 import java.util.ArrayList;
@@ -59,32 +65,118 @@ import java.util.List;
  *       android:duration="150"/>
  * </set>
  * }</pre>
+ *
+ * <p>Inflated motion specs are cached per resource and configuration, so each resource is only
+ * inflated once per process.
  */
 public class MotionSpec {
 
   private static final String TAG = "MotionSpec";
 
+  private static final int MAX_CACHED_SPECS = 32;
+
+  /** Shared, immutable motion specs inflated from resources. */
+  private static final LruCache<ResourceKey, MotionSpec> sharedSpecs =
+      new LruCache<>(MAX_CACHED_SPECS);
+
+  /** Keys of the timing names seen so far, shared by all motion specs. */
+  private static final SimpleArrayMap<String, Integer> timingKeys = new SimpleArrayMap<>();
+
+  private static final MotionTiming[] EMPTY_TIMINGS = new MotionTiming[0];
+
   private final SimpleArrayMap<String, MotionTiming> timings = new SimpleArrayMap<>();
+  /** The values of {@link #timings}, indexed by {@link #getTimingKey(String) timing key}. */
+  private MotionTiming[] timingsByKey = EMPTY_TIMINGS;
+  /** The cached total duration, or -1 if it needs to be recalculated. */
+  private long totalDuration = -1;
+  /** Whether this is a shared instance from the resource cache, which can't be modified. */
+  private boolean immutable;
+
+  public MotionSpec() {}
+
+  private MotionSpec(MotionSpec other) {
+    timings.putAll(other.timings);
+    timingsByKey = other.timingsByKey.clone();
+    totalDuration = other.totalDuration;
+  }
+
+  /**
+   * Returns the key for the MotionTiming with the given name, which can be used for faster lookups
+   * than by name. Keys are the same for all motion specs, so can be looked up once and stored in a
+   * static field.
+   */
+  public static int getTimingKey(String name) {
+    synchronized (timingKeys) {
+      Integer key = timingKeys.get(name);
+      if (key == null) {
+        key = timingKeys.size();
+        timingKeys.put(name, key);
+      }
+      return key;
+    }
+  }
 
   /** Returns whether this motion spec contains a MotionTiming with the given name. */
   public boolean hasTiming(String name) {
     return timings.get(name) != null;
   }
 
+  /** Returns whether this motion spec contains a MotionTiming with the given key. */
+  public boolean hasTiming(int key) {
+    return findTiming(key) != null;
+  }
+
   /**
    * Returns the MotionTiming with the given name, or throws IllegalArgumentException if it does not
    * exist.
    */
   public MotionTiming getTiming(String name) {
-    if (!hasTiming(name)) {
+    MotionTiming timing = timings.get(name);
+    if (timing == null) {
       throw new IllegalArgumentException();
     }
+    return timing;
+  }
+
+  /**
+   * Returns the MotionTiming with the given key, or throws IllegalArgumentException if it does not
+   * exist.
+   */
+  public MotionTiming getTiming(int key) {
+    MotionTiming timing = findTiming(key);
+    if (timing == null) {
+      throw new IllegalArgumentException();
+    }
+    return timing;
+  }
+
+  /** Returns the MotionTiming with the given name, or null if it does not exist. */
+  @Nullable
+  public MotionTiming findTiming(String name) {
     return timings.get(name);
   }
 
+  /** Returns the MotionTiming with the given key, or null if it does not exist. */
+  @Nullable
+  public MotionTiming findTiming(int key) {
+    return key >= 0 && key < timingsByKey.length ? timingsByKey[key] : null;
+  }
+
   /** Sets a MotionTiming with the given name. */
   public void setTiming(String name, @Nullable MotionTiming timing) {
+    if (immutable) {
+      throw new IllegalStateException("Shared motion specs can't be modified");
+    }
     timings.put(name, timing);
+
+    int key = getTimingKey(name);
+    if (key >= timingsByKey.length) {
+      MotionTiming[] newTimings = new MotionTiming[key + 1];
+      System.arraycopy(timingsByKey, 0, newTimings, 0, timingsByKey.length);
+      timingsByKey = newTimings;
+    }
+    timingsByKey[key] = timing;
+    totalDuration = -1;
   }
 
   /**
@@ -92,12 +184,17 @@ public class MotionSpec {
    * motion timings.
    */
   public long getTotalDuration() {
-    long duration = 0;
-    for (int i = 0, count = timings.size(); i < count; i++) {
-      MotionTiming timing = timings.valueAt(i);
-      duration = Math.max(duration, timing.getDelay() + timing.getDuration());
+    if (totalDuration < 0) {
+      long duration = 0;
+      for (int i = 0, count = timings.size(); i < count; i++) {
+        MotionTiming timing = timings.valueAt(i);
+        if (timing != null) {
+          duration = Math.max(duration, timing.getDelay() + timing.getDuration());
+        }
+      }
+      totalDuration = duration;
     }
-    return duration;
+    return totalDuration;
   }
 
   /**
@@ -116,9 +213,58 @@ public class MotionSpec {
     return null;
   }
 
-  /** Inflates an instance of MotionSpec from the given animator resource. */
+  /**
+   * Inflates an instance of MotionSpec from the given animator resource.
+   *
+   * <p>The returned instance is a copy of the cached motion spec for the resource, so it can be
+   * freely modified.
+   */
   @Nullable
   public static MotionSpec createFromResource(Context context, @AnimatorRes int id) {
+    MotionSpec spec = getSharedFromResource(context, id);
+    return spec != null ? new MotionSpec(spec) : null;
+  }
+
+  /**
+   * Returns the cached motion spec for the given animator resource, inflating it if needed. The
+   * returned instance is shared and throws if modified.
+   */
+  @RestrictTo(Scope.LIBRARY_GROUP)
+  @Nullable
+  public static MotionSpec getSharedFromResource(Context context, @AnimatorRes int id) {
+    Configuration configuration = context.getResources().getConfiguration();
+    MotionSpec spec = sharedSpecs.get(new ResourceKey(id, configuration));
+    if (spec == null) {
+      spec = inflateFromResource(context, id);
+      if (spec != null) {
+        spec.immutable = true;
+        // Copy the configuration, since the context's instance may be updated in place
+        sharedSpecs.put(new ResourceKey(id, new Configuration(configuration)), spec);
+      }
+    }
+    return spec;
+  }
+
+  /** Returns the number of resource lookups which were served from the cache. */
+  @VisibleForTesting
+  static int getCacheHitCount() {
+    return sharedSpecs.hitCount();
+  }
+
+  /** Returns the number of resource lookups which needed to inflate the motion spec. */
+  @VisibleForTesting
+  static int getCacheMissCount() {
+    return sharedSpecs.missCount();
+  }
+
+  /** Clears the cache of motion specs inflated from resources. */
+  @VisibleForTesting
+  static void clearCache() {
+    sharedSpecs.evictAll();
+  }
+
+  @Nullable
+  private static MotionSpec inflateFromResource(Context context, @AnimatorRes int id) {
     try {
       Animator animator = AnimatorInflater.loadAnimator(context, id);
       if (animator instanceof AnimatorSet) {
@@ -185,4 +331,32 @@ public class MotionSpec {
     out.append("}\n");
     return out.toString();
   }
+
+  /** Cache key for a motion spec resource inflated with a given configuration. */
+  private static final class ResourceKey {
+    @AnimatorRes private final int id;
+    @NonNull private final Configuration configuration;
+
+    ResourceKey(@AnimatorRes int id, @NonNull Configuration configuration) {
+      this.id = id;
+      this.configuration = configuration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ResourceKey)) {
+        return false;
+      }
+      ResourceKey that = (ResourceKey) o;
+      return id == that.id && configuration.equals(that.configuration);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * id + configuration.hashCode();
+    }
+  }
 }
@@ -27,6 +27,9 @@ import android.view.animation.DecelerateInterpolator;
 /** A representation of timing for an animation. */
 public class MotionTiming {
 
+  /** Number of samples in {@link #timeline}, so that the fraction is sampled in steps of 1%. */
+  private static final int TIMELINE_SAMPLE_COUNT = 101;
+
   private long delay = 0;
   private long duration = 300;
   /** Set to an instance, or null for {@link AnimationUtils#FAST_OUT_SLOW_IN_INTERPOLATOR}. */
@@ -35,6 +38,8 @@ public class MotionTiming {
   private int repeatCount = 0;
   /** Set to {@link ValueAnimator#RESTART} or {@link ValueAnimator#REVERSE}. */
   private int repeatMode = ValueAnimator.RESTART;
+  /** The interpolator sampled across [0, 1], or null until it is first needed. */
+  @Nullable private float[] timeline;
 
   public MotionTiming(long delay, long duration) {
     this.delay = delay;
@@ -69,6 +74,43 @@ public class MotionTiming {
     return interpolator != null ? interpolator : AnimationUtils.FAST_OUT_SLOW_IN_INTERPOLATOR;
   }
 
+  /**
+   * Returns the interpolated fraction of this timing at the given time, where time 0 is the start
+   * of the motion spec, before this timing's delay.
+   *
+   * <p>Times within this timing are looked up in a table of interpolator samples which is built on
+   * first use, so repeated calls don't need to evaluate the interpolator. A timing without a
+   * duration jumps straight to its end once its delay has passed.
+   */
+  public float getInterpolatedFraction(long time) {
+    if (getDuration() == 0) {
+      return time >= getDelay() ? 1f : 0f;
+    }
+
+    float fraction = (float) (time - getDelay()) / getDuration();
+    if (!(fraction >= 0f && fraction <= 1f)) {
+      // Outside of the timing, and the interpolator may not clamp, so evaluate it directly
+      return getInterpolator().getInterpolation(fraction);
+    }
+
+    float[] timeline = this.timeline;
+    if (timeline == null) {
+      timeline = createTimeline(getInterpolator());
+      this.timeline = timeline;
+    }
+    float position = fraction * (TIMELINE_SAMPLE_COUNT - 1);
+    int index = Math.min((int) position, TIMELINE_SAMPLE_COUNT - 2);
+    return AnimationUtils.lerp(timeline[index], timeline[index + 1], position - index);
+  }
+
+  private static float[] createTimeline(TimeInterpolator interpolator) {
+    float[] timeline = new float[TIMELINE_SAMPLE_COUNT];
+    for (int i = 0; i < TIMELINE_SAMPLE_COUNT; i++) {
+      timeline[i] = interpolator.getInterpolation((float) i / (TIMELINE_SAMPLE_COUNT - 1));
+    }
+    return timeline;
+  }
+
   public int getRepeatCount() {
     return repeatCount;
   }
@@ -20,7 +20,6 @@ import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.Resources;
 import android.content.res.Resources.NotFoundException;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.ColorFilter;
@@ -29,6 +28,7 @@ import android.graphics.Paint;
 import android.graphics.Paint.Align;
 import android.graphics.Paint.FontMetrics;
 import android.graphics.Paint.Style;
+import android.graphics.Picture;
 import android.graphics.PixelFormat;
 import android.graphics.PointF;
 import android.graphics.PorterDuff.Mode;
@@ -37,6 +37,8 @@ import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.Drawable.Callback;
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
 import android.support.annotation.AnimatorRes;
 import android.support.annotation.AttrRes;
 import android.support.annotation.BoolRes;
@@ -48,11 +50,11 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.StringRes;
 import android.support.annotation.StyleRes;
+import android.support.annotation.VisibleForTesting;
 import android.support.annotation.XmlRes;
 import android.support.design.animation.MotionSpec;
 import android.support.design.canvas.CanvasCompat;
 import android.support.design.drawable.DrawableUtils;
-import android.support.design.resources.MaterialResources;
 import android.support.design.resources.TextAppearance;
 import android.support.design.ripple.RippleUtils;
 import android.support.v4.graphics.ColorUtils;
@@ -239,7 +241,26 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
   @Nullable private ColorStateList compatRippleColor;
   private WeakReference<Delegate> delegate = new WeakReference<>(null);
 
-  /** Returns a ChipDrawable from the given attributes. */
+  // Text measurements, cached until the text or its appearance changes.
+  private boolean textMeasurementsDirty = true;
+  private float chipTextWidth;
+  private float minimumChipTextWidth;
+  private float chipTextCenterFromBaseline;
+  private boolean textDrawStateDirty = true;
+  private int textMeasurementCount;
+
+  // Recorded background, stroke and icons, replayed until one of them changes.
+  private boolean useStaticLayerCache;
+  private boolean staticLayersDirty = true;
+  @Nullable private Picture backgroundLayer;
+  @Nullable private Picture iconLayer;
+  private int staticLayerRecordCount;
+
+  /**
+   * Returns a ChipDrawable from the given attributes. Chips inflated with the same style and theme,
+   * without any ChipDrawable attributes of their own other than their text and whether they're
+   * checkable, share the attributes resolved from the style, which are then set on each chip.
+   */
   public static ChipDrawable createFromAttributes(
       Context context, AttributeSet attrs, @AttrRes int defStyleAttr, @StyleRes int defStyleRes) {
     ChipDrawable chip = new ChipDrawable(context);
@@ -305,56 +326,8 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
 
   private void loadFromAttributes(
       AttributeSet attrs, @AttrRes int defStyleAttr, @StyleRes int defStyleRes) {
-    TypedArray a =
-        context.obtainStyledAttributes(attrs, R.styleable.ChipDrawable, defStyleAttr, defStyleRes);
-
-    setChipBackgroundColor(
-        MaterialResources.getColorStateList(
-            context, a, R.styleable.ChipDrawable_chipBackgroundColor));
-    setChipMinHeight(a.getDimension(R.styleable.ChipDrawable_chipMinHeight, 0f));
-    setChipCornerRadius(a.getDimension(R.styleable.ChipDrawable_chipCornerRadius, 0f));
-    setChipStrokeColor(
-        MaterialResources.getColorStateList(context, a, R.styleable.ChipDrawable_chipStrokeColor));
-    setChipStrokeWidth(a.getDimension(R.styleable.ChipDrawable_chipStrokeWidth, 0f));
-    setRippleColor(
-        MaterialResources.getColorStateList(context, a, R.styleable.ChipDrawable_rippleColor));
-    setRippleAlpha(
-        MaterialResources.getColorStateList(context, a, R.styleable.ChipDrawable_rippleAlpha));
-
-    setChipText(a.getText(R.styleable.ChipDrawable_chipText));
-    setTextAppearance(
-        MaterialResources.getTextAppearance(
-            context, a, R.styleable.ChipDrawable_android_textAppearance));
-
-    setChipIconEnabled(a.getBoolean(R.styleable.ChipDrawable_chipIconEnabled, false));
-    setChipIcon(MaterialResources.getDrawable(context, a, R.styleable.ChipDrawable_chipIcon));
-    setChipIconSize(a.getDimension(R.styleable.ChipDrawable_chipIconSize, 0f));
-
-    setCloseIconEnabled(a.getBoolean(R.styleable.ChipDrawable_closeIconEnabled, false));
-    setCloseIcon(MaterialResources.getDrawable(context, a, R.styleable.ChipDrawable_closeIcon));
-    setCloseIconTint(
-        MaterialResources.getColorStateList(context, a, R.styleable.ChipDrawable_closeIconTint));
-    setCloseIconSize(a.getDimension(R.styleable.ChipDrawable_closeIconSize, 0f));
-
-    setCheckable(a.getBoolean(R.styleable.ChipDrawable_android_checkable, false));
-    setCheckedIconEnabled(a.getBoolean(R.styleable.ChipDrawable_checkedIconEnabled, false));
-    setCheckedIcon(MaterialResources.getDrawable(context, a, R.styleable.ChipDrawable_checkedIcon));
-
-    setShowMotionSpec(
-        MotionSpec.createFromAttribute(context, a, R.styleable.ChipDrawable_showMotionSpec));
-    setHideMotionSpec(
-        MotionSpec.createFromAttribute(context, a, R.styleable.ChipDrawable_hideMotionSpec));
-
-    setChipStartPadding(a.getDimension(R.styleable.ChipDrawable_chipStartPadding, 0f));
-    setIconStartPadding(a.getDimension(R.styleable.ChipDrawable_iconStartPadding, 0f));
-    setIconEndPadding(a.getDimension(R.styleable.ChipDrawable_iconEndPadding, 0f));
-    setTextStartPadding(a.getDimension(R.styleable.ChipDrawable_textStartPadding, 0f));
-    setTextEndPadding(a.getDimension(R.styleable.ChipDrawable_textEndPadding, 0f));
-    setCloseIconStartPadding(a.getDimension(R.styleable.ChipDrawable_closeIconStartPadding, 0f));
-    setCloseIconEndPadding(a.getDimension(R.styleable.ChipDrawable_closeIconEndPadding, 0f));
-    setChipEndPadding(a.getDimension(R.styleable.ChipDrawable_chipEndPadding, 0f));
-
-    a.recycle();
+    ChipDrawableStyle.obtain(context, attrs, defStyleAttr, defStyleRes).applyTo(this, context);
+    ChipDrawableStyle.applyInstanceAttributes(this, context, attrs);
   }
 
   /** Sets whether this ChipDrawable should draw its own compatibility ripples. */
@@ -371,6 +344,29 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
     return useCompatRipple;
   }
 
+  /**
+   * Sets whether this ChipDrawable should record its background, stroke and icons into {@link
+   * Picture}s, and replay them until they change. This way, changes to the text or the compat
+   * ripple don't need to draw the rest of the chip again.
+   *
+   * <p>Only supported on API 23 and above, where hardware accelerated canvases can draw pictures.
+   */
+  public void setUseStaticLayerCache(boolean useStaticLayerCache) {
+    if (this.useStaticLayerCache != useStaticLayerCache) {
+      this.useStaticLayerCache = useStaticLayerCache;
+      if (!useStaticLayerCache) {
+        backgroundLayer = null;
+        iconLayer = null;
+      }
+      invalidateStaticLayers();
+    }
+  }
+
+  /** Returns whether this ChipDrawable should record its background, stroke and icons. */
+  public boolean getUseStaticLayerCache() {
+    return useStaticLayerCache;
+  }
+
   /** Sets the View delegate that owns this ChipDrawable. */
   public void setDelegate(@Nullable Delegate delegate) {
     this.delegate = new WeakReference<>(delegate);
@@ -407,7 +403,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
         (chipStartPadding
             + calculateChipIconWidth()
             + textStartPadding
-            + calculateChipTextWidth(chipText)
+            + getChipTextWidth()
             + textEndPadding
             + calculateCloseIconWidth()
             + chipEndPadding);
@@ -425,7 +421,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
         (chipStartPadding
             + calculateChipIconWidth()
             + textStartPadding
-            + calculateChipTextWidth("M") // Show one character at minimum.
+            + getMinimumChipTextWidth() // Show one character at minimum.
             + textEndPadding
             + calculateCloseIconWidth()
             + chipEndPadding);
@@ -459,6 +455,35 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
     return 0f;
   }
 
+  private float getChipTextWidth() {
+    updateTextMeasurements();
+    return chipTextWidth;
+  }
+
+  private float getMinimumChipTextWidth() {
+    updateTextMeasurements();
+    return minimumChipTextWidth;
+  }
+
+  private float getChipTextCenterFromBaseline() {
+    updateTextMeasurements();
+    return chipTextCenterFromBaseline;
+  }
+
+  /**
+   * Measures the chip text, if the text or its appearance has changed since it was last measured.
+   * Hosts query the intrinsic width repeatedly during layout, so measuring it every time is costly.
+   */
+  private void updateTextMeasurements() {
+    if (textMeasurementsDirty) {
+      chipTextWidth = calculateChipTextWidth(chipText);
+      minimumChipTextWidth = calculateChipTextWidth("M");
+      chipTextCenterFromBaseline = calculateChipTextCenterFromBaseline();
+      textMeasurementsDirty = false;
+      textMeasurementCount++;
+    }
+  }
+
   private float calculateChipTextWidth(@Nullable CharSequence charSequence) {
     if (charSequence == null) {
       return 0f;
@@ -492,26 +517,42 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
               canvas, bounds.left, bounds.top, bounds.right, bounds.bottom, alpha);
     }
 
-    // 1. Draw chip background.
-    drawChipBackground(canvas, bounds);
+    if (shouldUseStaticLayerCache()) {
+      updateStaticLayers(bounds);
+
+      // 1-2. Draw recorded chip background and stroke.
+      drawLayer(canvas, bounds, backgroundLayer);
+
+      // 3. Draw compat ripple.
+      drawCompatRipple(canvas, bounds);
+
+      // 4-5, 7. Draw recorded chip, checked and close icons.
+      drawLayer(canvas, bounds, iconLayer);
+
+      // 6. Draw chip text.
+      drawChipText(canvas, bounds);
+    } else {
+      // 1. Draw chip background.
+      drawChipBackground(canvas, bounds);
 
-    // 2. Draw chip stroke.
-    drawChipStroke(canvas, bounds);
+      // 2. Draw chip stroke.
+      drawChipStroke(canvas, bounds);
 
-    // 3. Draw compat ripple.
-    drawCompatRipple(canvas, bounds);
+      // 3. Draw compat ripple.
+      drawCompatRipple(canvas, bounds);
 
-    // 4. Draw chip icon.
-    drawChipIcon(canvas, bounds);
+      // 4. Draw chip icon.
+      drawChipIcon(canvas, bounds);
 
-    // 5. Draw checked icon.
-    drawCheckedIcon(canvas, bounds);
+      // 5. Draw checked icon.
+      drawCheckedIcon(canvas, bounds);
 
-    // 6. Draw chip text.
-    drawChipText(canvas, bounds);
+      // 6. Draw chip text.
+      drawChipText(canvas, bounds);
 
-    // 7. Draw close icon.
-    drawCloseIcon(canvas, bounds);
+      // 7. Draw close icon.
+      drawCloseIcon(canvas, bounds);
+    }
 
     // Debug.
     drawDebug(canvas, bounds);
@@ -521,6 +562,62 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
     }
   }
 
+  private boolean shouldUseStaticLayerCache() {
+    return useStaticLayerCache && VERSION.SDK_INT >= VERSION_CODES.M;
+  }
+
+  /** Records the chip background, stroke and icons again if any of them has changed. */
+  private void updateStaticLayers(Rect bounds) {
+    if (!staticLayersDirty && backgroundLayer != null) {
+      return;
+    }
+    if (backgroundLayer == null) {
+      backgroundLayer = new Picture();
+      iconLayer = new Picture();
+    }
+
+    // The layers are recorded relative to the top-left of the bounds.
+    Canvas recordingCanvas = backgroundLayer.beginRecording(bounds.width(), bounds.height());
+    recordingCanvas.translate(-bounds.left, -bounds.top);
+    drawChipBackground(recordingCanvas, bounds);
+    drawChipStroke(recordingCanvas, bounds);
+    backgroundLayer.endRecording();
+
+    recordingCanvas = iconLayer.beginRecording(bounds.width(), bounds.height());
+    recordingCanvas.translate(-bounds.left, -bounds.top);
+    drawChipIcon(recordingCanvas, bounds);
+    drawCheckedIcon(recordingCanvas, bounds);
+    drawCloseIcon(recordingCanvas, bounds);
+    iconLayer.endRecording();
+
+    staticLayersDirty = false;
+    staticLayerRecordCount++;
+  }
+
+  /** Returns the number of times the chip text has been measured. */
+  @VisibleForTesting
+  int getTextMeasurementCount() {
+    return textMeasurementCount;
+  }
+
+  /** Returns the number of times the chip background, stroke and icons have been recorded. */
+  @VisibleForTesting
+  int getStaticLayerRecordCount() {
+    return staticLayerRecordCount;
+  }
+
+  private static void drawLayer(@NonNull Canvas canvas, Rect bounds, Picture layer) {
+    canvas.translate(bounds.left, bounds.top);
+    canvas.drawPicture(layer);
+    canvas.translate(-bounds.left, -bounds.top);
+  }
+
+  /** Invalidates this drawable, including the recorded chip background, stroke and icons. */
+  private void invalidateStaticLayers() {
+    staticLayersDirty = true;
+    invalidateSelf();
+  }
+
   private void drawChipBackground(@NonNull Canvas canvas, Rect bounds) {
     chipPaint.setColor(currentChipBackgroundColor);
     chipPaint.setStyle(Style.FILL);
@@ -588,9 +685,10 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
       // TODO: Bounds may be smaller than intrinsic size. Ellipsize, clip, or multiline the text.
       Align align = calculateChipTextOrigin(bounds, pointF);
 
-      if (textAppearance != null) {
+      if (textAppearance != null && textDrawStateDirty) {
         textPaint.drawableState = getState();
         textAppearance.updateDrawState(context, textPaint);
+        textDrawStateDirty = false;
       }
       textPaint.setTextAlign(align);
       canvas.drawText(chipText, 0, chipText.length(), pointF.x, pointF.y, textPaint);
@@ -691,7 +789,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
         align = Align.RIGHT;
       }
 
-      pointF.y = bounds.centerY() - calculateChipTextCenterFromBaseline();
+      pointF.y = bounds.centerY() - getChipTextCenterFromBaseline();
     }
 
     return align;
@@ -839,7 +937,9 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
    */
   private boolean onStateChange(int[] chipState, int[] closeIconState) {
     boolean invalidate = super.onStateChange(chipState);
+    boolean staticLayersChanged = false;
     boolean sizeChanged = false;
+    textDrawStateDirty = true;
 
     int newChipBackgroundColor =
         chipBackgroundColor != null
@@ -848,6 +948,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
     if (currentChipBackgroundColor != newChipBackgroundColor) {
       currentChipBackgroundColor = newChipBackgroundColor;
       invalidate = true;
+      staticLayersChanged = true;
     }
 
     int newChipStrokeColor =
@@ -857,6 +958,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
     if (currentChipStrokeColor != newChipStrokeColor) {
       currentChipStrokeColor = newChipStrokeColor;
       invalidate = true;
+      staticLayersChanged = true;
     }
 
     int newCompatRippleColor =
@@ -885,6 +987,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
       currentChecked = newChecked;
       float newChipIconWidth = calculateChipIconWidth();
       invalidate = true;
+      staticLayersChanged = true;
 
       if (oldChipIconWidth != newChipIconWidth) {
         sizeChanged = true;
@@ -896,18 +999,23 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
       currentTint = newTint;
       tintFilter = DrawableUtils.updateTintFilter(this, tint, tintMode);
       invalidate = true;
+      staticLayersChanged = true;
     }
 
     if (isStateful(chipIcon)) {
-      invalidate |= chipIcon.setState(chipState);
+      staticLayersChanged |= chipIcon.setState(chipState);
     }
     if (isStateful(checkedIcon)) {
-      invalidate |= checkedIcon.setState(chipState);
+      staticLayersChanged |= checkedIcon.setState(chipState);
     }
     if (isStateful(closeIcon)) {
-      invalidate |= closeIcon.setState(closeIconState);
+      staticLayersChanged |= closeIcon.setState(closeIconState);
     }
+    invalidate |= staticLayersChanged;
 
+    if (staticLayersChanged) {
+      staticLayersDirty = true;
+    }
     if (invalidate) {
       invalidateSelf();
     }
@@ -946,7 +1054,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
     }
 
     if (invalidate) {
-      invalidateSelf();
+      invalidateStaticLayers();
     }
     return true;
   }
@@ -966,7 +1074,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
     }
 
     if (invalidate) {
-      invalidateSelf();
+      invalidateStaticLayers();
     }
     return invalidate;
   }
@@ -986,7 +1094,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
     }
 
     if (invalidate) {
-      invalidateSelf();
+      invalidateStaticLayers();
     }
     return invalidate;
   }
@@ -1012,7 +1120,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
   public void setColorFilter(@Nullable ColorFilter colorFilter) {
     if (this.colorFilter != colorFilter) {
       this.colorFilter = colorFilter;
-      invalidateSelf();
+      invalidateStaticLayers();
     }
   }
 
@@ -1035,10 +1143,16 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
     if (this.tintMode != tintMode) {
       this.tintMode = tintMode;
       tintFilter = DrawableUtils.updateTintFilter(this, tint, tintMode);
-      invalidateSelf();
+      invalidateStaticLayers();
     }
   }
 
+  @Override
+  protected void onBoundsChange(Rect bounds) {
+    super.onBoundsChange(bounds);
+    staticLayersDirty = true;
+  }
+
   @Override
   public int getOpacity() {
     return PixelFormat.TRANSLUCENT;
@@ -1058,6 +1172,8 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
 
   @Override
   public void invalidateDrawable(@NonNull Drawable who) {
+    // One of the icons has changed, so it needs to be recorded again.
+    staticLayersDirty = true;
     Callback callback = getCallback();
     if (callback != null) {
       callback.invalidateDrawable(this);
@@ -1189,7 +1305,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
   public void setChipCornerRadius(float chipCornerRadius) {
     if (this.chipCornerRadius != chipCornerRadius) {
       this.chipCornerRadius = chipCornerRadius;
-      invalidateSelf();
+      invalidateStaticLayers();
     }
   }
 
@@ -1223,7 +1339,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
 
       chipPaint.setStrokeWidth(chipStrokeWidth);
 
-      invalidateSelf();
+      invalidateStaticLayers();
     }
   }
 
@@ -1273,6 +1389,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
   public void setChipText(@Nullable CharSequence chipText) {
     if (this.chipText != chipText) {
       this.chipText = BidiFormatter.getInstance().unicodeWrap(chipText);
+      textMeasurementsDirty = true;
       invalidateSelf();
       onSizeChange();
     }
@@ -1294,6 +1411,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
       if (textAppearance != null) {
         textAppearance.updateMeasureState(context, textPaint);
       }
+      textMeasurementsDirty = true;
 
       onStateChange(getState());
       onSizeChange();
@@ -1310,6 +1428,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
 
   public void setChipIconEnabled(boolean chipIconEnabled) {
     this.chipIconEnabled = chipIconEnabled;
+    staticLayersDirty = true;
   }
 
   @Nullable
@@ -1333,7 +1452,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
         applyChildDrawable(this.chipIcon);
       }
 
-      invalidateSelf();
+      invalidateStaticLayers();
       if (oldChipIconWidth != newChipIconWidth) {
         onSizeChange();
       }
@@ -1354,7 +1473,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
       this.chipIconSize = chipIconSize;
       float newChipIconWidth = calculateChipIconWidth();
 
-      invalidateSelf();
+      invalidateStaticLayers();
       if (oldChipIconWidth != newChipIconWidth) {
         onSizeChange();
       }
@@ -1371,6 +1490,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
 
   public void setCloseIconEnabled(boolean closeIconEnabled) {
     this.closeIconEnabled = closeIconEnabled;
+    staticLayersDirty = true;
   }
 
   @Nullable
@@ -1394,7 +1514,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
         applyChildDrawable(this.closeIcon);
       }
 
-      invalidateSelf();
+      invalidateStaticLayers();
       if (oldCloseIconWidth != newCloseIconWidth) {
         onSizeChange();
       }
@@ -1433,7 +1553,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
   public void setCloseIconSize(float closeIconSize) {
     if (this.closeIconSize != closeIconSize) {
       this.closeIconSize = closeIconSize;
-      invalidateSelf();
+      invalidateStaticLayers();
       if (showsCloseIcon()) {
         onSizeChange();
       }
@@ -1458,7 +1578,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
       }
       float newChipIconWidth = calculateChipIconWidth();
 
-      invalidateSelf();
+      invalidateStaticLayers();
       if (oldChipIconWidth != newChipIconWidth) {
         onSizeChange();
       }
@@ -1475,6 +1595,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
 
   public void setCheckedIconEnabled(boolean checkedIconEnabled) {
     this.checkedIconEnabled = checkedIconEnabled;
+    staticLayersDirty = true;
   }
 
   @Nullable
@@ -1496,7 +1617,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
       unapplyChildDrawable(this.checkedIcon);
       applyChildDrawable(this.checkedIcon);
 
-      invalidateSelf();
+      invalidateStaticLayers();
       if (oldChipIconWidth != newChipIconWidth) {
         onSizeChange();
       }
@@ -1540,7 +1661,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
   public void setChipStartPadding(float chipStartPadding) {
     if (this.chipStartPadding != chipStartPadding) {
       this.chipStartPadding = chipStartPadding;
-      invalidateSelf();
+      invalidateStaticLayers();
       onSizeChange();
     }
   }
@@ -1559,7 +1680,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
       this.iconStartPadding = iconStartPadding;
       float newChipIconWidth = calculateChipIconWidth();
 
-      invalidateSelf();
+      invalidateStaticLayers();
       if (oldChipIconWidth != newChipIconWidth) {
         onSizeChange();
       }
@@ -1580,7 +1701,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
       this.iconEndPadding = iconEndPadding;
       float newChipIconWidth = calculateChipIconWidth();
 
-      invalidateSelf();
+      invalidateStaticLayers();
       if (oldChipIconWidth != newChipIconWidth) {
         onSizeChange();
       }
@@ -1598,7 +1719,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
   public void setTextStartPadding(float textStartPadding) {
     if (this.textStartPadding != textStartPadding) {
       this.textStartPadding = textStartPadding;
-      invalidateSelf();
+      invalidateStaticLayers();
       onSizeChange();
     }
   }
@@ -1614,7 +1735,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
   public void setTextEndPadding(float textEndPadding) {
     if (this.textEndPadding != textEndPadding) {
       this.textEndPadding = textEndPadding;
-      invalidateSelf();
+      invalidateStaticLayers();
       onSizeChange();
     }
   }
@@ -1630,7 +1751,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
   public void setCloseIconStartPadding(float closeIconStartPadding) {
     if (this.closeIconStartPadding != closeIconStartPadding) {
       this.closeIconStartPadding = closeIconStartPadding;
-      invalidateSelf();
+      invalidateStaticLayers();
       if (showsCloseIcon()) {
         onSizeChange();
       }
@@ -1648,7 +1769,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
   public void setCloseIconEndPadding(float closeIconEndPadding) {
     if (this.closeIconEndPadding != closeIconEndPadding) {
       this.closeIconEndPadding = closeIconEndPadding;
-      invalidateSelf();
+      invalidateStaticLayers();
       if (showsCloseIcon()) {
         onSizeChange();
       }
@@ -1666,7 +1787,7 @@ public class ChipDrawable extends Drawable implements TintAwareDrawable, Callbac
   public void setChipEndPadding(float chipEndPadding) {
     if (this.chipEndPadding != chipEndPadding) {
       this.chipEndPadding = chipEndPadding;
-      invalidateSelf();
+      invalidateStaticLayers();
       onSizeChange();
     }
   }
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.chip;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.Resources.Theme;
+import android.content.res.TypedArray;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.Drawable.ConstantState;
+import android.support.annotation.AnimatorRes;
+import android.support.annotation.AttrRes;
+import android.support.annotation.Nullable;
+import android.support.annotation.StyleRes;
+import android.support.annotation.VisibleForTesting;
+import android.support.design.animation.MotionSpec;
+import android.support.design.resources.MaterialResources;
+import android.support.design.resources.TextAppearance;
+import android.util.AttributeSet;
+
+/**
+ * The attributes of a {@link ChipDrawable} style, resolved from a {@link TypedArray} once.
+ *
+ * <p>Like a {@link ConstantState}, a style is immutable, so every chip inflated with the same style
+ * in the same theme and configuration shares one instance. What's shared is resolving the style:
+ * {@link #applyTo(ChipDrawable, Context)} still copies each of its values into the chip through the
+ * chip's setters, so that each chip can be changed on its own afterwards. Colors and text
+ * appearances are immutable and are shared by reference, while each chip gets its own icon
+ * drawables, created from the constant states of the resolved ones.
+ *
+ * <p>Chips which override their style with ChipDrawable attributes directly in their XML resolve a
+ * style of their own. The text and whether a chip is checkable are the exception, since they
+ * usually differ between chips of one style: they're applied to each chip on top of its style
+ * instead.
+ */
+final class ChipDrawableStyle {
+
+  private static final ChipStyleCache<ChipDrawableStyle> sharedStyles = new ChipStyleCache<>();
+
+  private static int hitCount;
+  private static int missCount;
+
+  private final boolean shared;
+
+  @Nullable private final ColorStateList chipBackgroundColor;
+  private final float chipMinHeight;
+  private final float chipCornerRadius;
+  @Nullable private final ColorStateList chipStrokeColor;
+  private final float chipStrokeWidth;
+  @Nullable private final ColorStateList rippleColor;
+  @Nullable private final ColorStateList rippleAlpha;
+
+  @Nullable private final CharSequence chipText;
+  @Nullable private final TextAppearance textAppearance;
+
+  private final boolean chipIconEnabled;
+  @Nullable private final Drawable chipIcon;
+  private final float chipIconSize;
+
+  private final boolean closeIconEnabled;
+  @Nullable private final Drawable closeIcon;
+  @Nullable private final ColorStateList closeIconTint;
+  private final float closeIconSize;
+
+  private final boolean checkable;
+  private final boolean checkedIconEnabled;
+  @Nullable private final Drawable checkedIcon;
+
+  @AnimatorRes private final int showMotionSpecId;
+  @AnimatorRes private final int hideMotionSpecId;
+
+  private final float chipStartPadding;
+  private final float iconStartPadding;
+  private final float iconEndPadding;
+  private final float textStartPadding;
+  private final float textEndPadding;
+  private final float closeIconStartPadding;
+  private final float closeIconEndPadding;
+  private final float chipEndPadding;
+
+  /**
+   * Returns the style for the given attributes, shared with every other chip inflated with the same
+   * style in the same theme and configuration where possible.
+   */
+  static ChipDrawableStyle obtain(
+      Context context,
+      @Nullable AttributeSet attrs,
+      @AttrRes int defStyleAttr,
+      @StyleRes int defStyleRes) {
+    if (hasStyleOverrides(attrs)) {
+      // The attributes set on the chip itself can't be shared
+      synchronized (sharedStyles) {
+        missCount++;
+      }
+      return new ChipDrawableStyle(context, attrs, defStyleAttr, defStyleRes, false);
+    }
+
+    final int styleAttribute = attrs != null ? attrs.getStyleAttribute() : 0;
+    final Theme theme = context.getTheme();
+    final Configuration configuration = context.getResources().getConfiguration();
+    synchronized (sharedStyles) {
+      final ChipDrawableStyle style =
+          sharedStyles.get(theme, configuration, styleAttribute, defStyleAttr, defStyleRes);
+      if (style != null) {
+        hitCount++;
+        return style;
+      }
+      missCount++;
+    }
+
+    final ChipDrawableStyle style =
+        new ChipDrawableStyle(context, attrs, defStyleAttr, defStyleRes, true);
+    if (style.shared) {
+      sharedStyles.put(theme, configuration, styleAttribute, defStyleAttr, defStyleRes, style);
+    }
+    return style;
+  }
+
+  private ChipDrawableStyle(
+      Context context,
+      @Nullable AttributeSet attrs,
+      @AttrRes int defStyleAttr,
+      @StyleRes int defStyleRes,
+      boolean shareable) {
+    TypedArray a =
+        context.obtainStyledAttributes(attrs, R.styleable.ChipDrawable, defStyleAttr, defStyleRes);
+
+    chipBackgroundColor =
+        MaterialResources.getColorStateList(
+            context, a, R.styleable.ChipDrawable_chipBackgroundColor);
+    chipMinHeight = a.getDimension(R.styleable.ChipDrawable_chipMinHeight, 0f);
+    chipCornerRadius = a.getDimension(R.styleable.ChipDrawable_chipCornerRadius, 0f);
+    chipStrokeColor =
+        MaterialResources.getColorStateList(context, a, R.styleable.ChipDrawable_chipStrokeColor);
+    chipStrokeWidth = a.getDimension(R.styleable.ChipDrawable_chipStrokeWidth, 0f);
+    rippleColor =
+        MaterialResources.getColorStateList(context, a, R.styleable.ChipDrawable_rippleColor);
+    rippleAlpha =
+        MaterialResources.getColorStateList(context, a, R.styleable.ChipDrawable_rippleAlpha);
+
+    chipText = a.getText(R.styleable.ChipDrawable_chipText);
+    textAppearance =
+        MaterialResources.getTextAppearance(
+            context, a, R.styleable.ChipDrawable_android_textAppearance);
+
+    chipIconEnabled = a.getBoolean(R.styleable.ChipDrawable_chipIconEnabled, false);
+    chipIcon = MaterialResources.getDrawable(context, a, R.styleable.ChipDrawable_chipIcon);
+    chipIconSize = a.getDimension(R.styleable.ChipDrawable_chipIconSize, 0f);
+
+    closeIconEnabled = a.getBoolean(R.styleable.ChipDrawable_closeIconEnabled, false);
+    closeIcon = MaterialResources.getDrawable(context, a, R.styleable.ChipDrawable_closeIcon);
+    closeIconTint =
+        MaterialResources.getColorStateList(context, a, R.styleable.ChipDrawable_closeIconTint);
+    closeIconSize = a.getDimension(R.styleable.ChipDrawable_closeIconSize, 0f);
+
+    checkable = a.getBoolean(R.styleable.ChipDrawable_android_checkable, false);
+    checkedIconEnabled = a.getBoolean(R.styleable.ChipDrawable_checkedIconEnabled, false);
+    checkedIcon = MaterialResources.getDrawable(context, a, R.styleable.ChipDrawable_checkedIcon);
+
+    showMotionSpecId = a.getResourceId(R.styleable.ChipDrawable_showMotionSpec, 0);
+    hideMotionSpecId = a.getResourceId(R.styleable.ChipDrawable_hideMotionSpec, 0);
+
+    chipStartPadding = a.getDimension(R.styleable.ChipDrawable_chipStartPadding, 0f);
+    iconStartPadding = a.getDimension(R.styleable.ChipDrawable_iconStartPadding, 0f);
+    iconEndPadding = a.getDimension(R.styleable.ChipDrawable_iconEndPadding, 0f);
+    textStartPadding = a.getDimension(R.styleable.ChipDrawable_textStartPadding, 0f);
+    textEndPadding = a.getDimension(R.styleable.ChipDrawable_textEndPadding, 0f);
+    closeIconStartPadding = a.getDimension(R.styleable.ChipDrawable_closeIconStartPadding, 0f);
+    closeIconEndPadding = a.getDimension(R.styleable.ChipDrawable_closeIconEndPadding, 0f);
+    chipEndPadding = a.getDimension(R.styleable.ChipDrawable_chipEndPadding, 0f);
+
+    a.recycle();
+
+    // Icons can only be shared if each chip can create its own copy of them
+    shared =
+        shareable
+            && hasConstantState(chipIcon)
+            && hasConstantState(closeIcon)
+            && hasConstantState(checkedIcon);
+  }
+
+  /** Sets the attributes of this style on the given chip drawable. */
+  void applyTo(ChipDrawable chip, Context context) {
+    chip.setChipBackgroundColor(chipBackgroundColor);
+    chip.setChipMinHeight(chipMinHeight);
+    chip.setChipCornerRadius(chipCornerRadius);
+    chip.setChipStrokeColor(chipStrokeColor);
+    chip.setChipStrokeWidth(chipStrokeWidth);
+    chip.setRippleColor(rippleColor);
+    chip.setRippleAlpha(rippleAlpha);
+
+    chip.setChipText(chipText);
+    chip.setTextAppearance(textAppearance);
+
+    chip.setChipIconEnabled(chipIconEnabled);
+    chip.setChipIcon(newDrawable(context, chipIcon));
+    chip.setChipIconSize(chipIconSize);
+
+    chip.setCloseIconEnabled(closeIconEnabled);
+    chip.setCloseIcon(newDrawable(context, closeIcon));
+    chip.setCloseIconTint(closeIconTint);
+    chip.setCloseIconSize(closeIconSize);
+
+    chip.setCheckable(checkable);
+    chip.setCheckedIconEnabled(checkedIconEnabled);
+    chip.setCheckedIcon(newDrawable(context, checkedIcon));
+
+    chip.setShowMotionSpec(
+        showMotionSpecId != 0 ? MotionSpec.createFromResource(context, showMotionSpecId) : null);
+    chip.setHideMotionSpec(
+        hideMotionSpecId != 0 ? MotionSpec.createFromResource(context, hideMotionSpecId) : null);
+
+    chip.setChipStartPadding(chipStartPadding);
+    chip.setIconStartPadding(iconStartPadding);
+    chip.setIconEndPadding(iconEndPadding);
+    chip.setTextStartPadding(textStartPadding);
+    chip.setTextEndPadding(textEndPadding);
+    chip.setCloseIconStartPadding(closeIconStartPadding);
+    chip.setCloseIconEndPadding(closeIconEndPadding);
+    chip.setChipEndPadding(chipEndPadding);
+  }
+
+  /**
+   * Sets the text and checkable attributes which the given attributes set on the chip itself. These
+   * are left out when deciding whether a chip can share its style, so they're applied to each chip
+   * after {@link #applyTo(ChipDrawable, Context)}.
+   */
+  static void applyInstanceAttributes(
+      ChipDrawable chip, Context context, @Nullable AttributeSet attrs) {
+    if (!hasInstanceAttributes(attrs)) {
+      return;
+    }
+
+    TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.ChipDrawable);
+    if (a.hasValue(R.styleable.ChipDrawable_chipText)) {
+      chip.setChipText(a.getText(R.styleable.ChipDrawable_chipText));
+    }
+    if (a.hasValue(R.styleable.ChipDrawable_android_checkable)) {
+      chip.setCheckable(a.getBoolean(R.styleable.ChipDrawable_android_checkable, false));
+    }
+    a.recycle();
+  }
+
+  /** Returns the drawable to give a chip, which is a new instance if this style is shared. */
+  @Nullable
+  private Drawable newDrawable(Context context, @Nullable Drawable drawable) {
+    if (drawable == null || !shared) {
+      return drawable;
+    }
+    return drawable.getConstantState().newDrawable(context.getResources());
+  }
+
+  private static boolean hasConstantState(@Nullable Drawable drawable) {
+    return drawable == null || drawable.getConstantState() != null;
+  }
+
+  /**
+   * Returns whether any of the given attributes is a ChipDrawable attribute which overrides the
+   * style, rather than one applied to each chip.
+   */
+  private static boolean hasStyleOverrides(@Nullable AttributeSet attrs) {
+    if (attrs == null) {
+      return false;
+    }
+    for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+      final int attr = attrs.getAttributeNameResource(i);
+      if (isInstanceAttribute(attr)) {
+        continue;
+      }
+      for (int chipDrawableAttr : R.styleable.ChipDrawable) {
+        if (attr == chipDrawableAttr) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /** Returns whether any of the given attributes is applied to each chip on top of its style. */
+  private static boolean hasInstanceAttributes(@Nullable AttributeSet attrs) {
+    if (attrs == null) {
+      return false;
+    }
+    for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+      if (isInstanceAttribute(attrs.getAttributeNameResource(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isInstanceAttribute(int attr) {
+    return attr == R.attr.chipText || attr == android.R.attr.checkable;
+  }
+
+  /** Returns the number of chips which reused a shared style. */
+  @VisibleForTesting
+  static int getHitCount() {
+    return hitCount;
+  }
+
+  /** Returns the number of chips which needed to resolve their style. */
+  @VisibleForTesting
+  static int getMissCount() {
+    return missCount;
+  }
+
+  /** Returns the number of shared styles. */
+  @VisibleForTesting
+  static int getSharedStyleCount() {
+    return sharedStyles.size();
+  }
+
+  /** Clears the shared styles. */
+  @VisibleForTesting
+  static void clearSharedStyles() {
+    sharedStyles.clear();
+  }
+}
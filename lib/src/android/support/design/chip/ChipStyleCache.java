@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.chip;
+
+import android.content.res.Configuration;
+import android.support.annotation.AttrRes;
+import android.support.annotation.Nullable;
+import android.support.annotation.StyleRes;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+/**
+ * Styles shared between chips, keyed on the theme and configuration they were resolved in and the
+ * style attributes they were resolved from.
+ *
+ * <p>Themes are matched by identity. From API 23 a theme's {@code equals()} only compares the
+ * styles applied to it, so two themes over resources with different configurations, such as night
+ * mode or density, would otherwise share styles. The theme's hash code, which from API 23 changes
+ * when a style is applied to it, is recorded too, so that a style resolved before {@code
+ * Theme.applyStyle()} isn't reused after it. Themes are only weakly referenced, and the styles of
+ * themes which have gone are dropped on the next miss.
+ *
+ * @param <T> the type of the styles
+ */
+final class ChipStyleCache<T> {
+
+  private final ArrayList<Entry<T>> entries = new ArrayList<>();
+
+  /**
+   * Returns the style resolved in the given theme and configuration from the given attributes, or
+   * null if there isn't one.
+   */
+  @Nullable
+  synchronized T get(
+      Object theme,
+      Configuration configuration,
+      int styleAttribute,
+      @AttrRes int defStyleAttr,
+      @StyleRes int defStyleRes) {
+    final int themeHashCode = theme.hashCode();
+    for (int i = 0, count = entries.size(); i < count; i++) {
+      final Entry<T> entry = entries.get(i);
+      if (entry.theme.get() == theme
+          && entry.themeHashCode == themeHashCode
+          && entry.styleAttribute == styleAttribute
+          && entry.defStyleAttr == defStyleAttr
+          && entry.defStyleRes == defStyleRes
+          && entry.configuration.equals(configuration)) {
+        return entry.style;
+      }
+    }
+    return null;
+  }
+
+  /** Adds a style resolved in the given theme and configuration from the given attributes. */
+  synchronized void put(
+      Object theme,
+      Configuration configuration,
+      int styleAttribute,
+      @AttrRes int defStyleAttr,
+      @StyleRes int defStyleRes,
+      T style) {
+    for (int i = entries.size() - 1; i >= 0; i--) {
+      if (entries.get(i).theme.get() == null) {
+        entries.remove(i);
+      }
+    }
+    entries.add(
+        new Entry<>(theme, configuration, styleAttribute, defStyleAttr, defStyleRes, style));
+  }
+
+  /** Returns the number of styles in the cache. */
+  synchronized int size() {
+    return entries.size();
+  }
+
+  synchronized void clear() {
+    entries.clear();
+  }
+
+  private static final class Entry<T> {
+    final WeakReference<Object> theme;
+    final int themeHashCode;
+    // A copy, since the resources' configuration is updated in place
+    final Configuration configuration;
+    final int styleAttribute;
+    final int defStyleAttr;
+    final int defStyleRes;
+    final T style;
+
+    Entry(
+        Object theme,
+        Configuration configuration,
+        int styleAttribute,
+        int defStyleAttr,
+        int defStyleRes,
+        T style) {
+      this.theme = new WeakReference<>(theme);
+      this.themeHashCode = theme.hashCode();
+      this.configuration = new Configuration(configuration);
+      this.styleAttribute = styleAttribute;
+      this.defStyleAttr = defStyleAttr;
+      this.defStyleRes = defStyleRes;
+      this.style = style;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.chip;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.GradientDrawable;
+import android.support.design.resources.TextAppearance;
+import android.view.ContextThemeWrapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for the cached text measurements and recorded layers of a {@link ChipDrawable}. Layers are
+ * only recorded on API 23 and above.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ChipDrawableCacheTest {
+
+  private static final int WIDTH = 200;
+  private static final int HEIGHT = 32;
+
+  private static final int[] ENABLED_STATE = {android.R.attr.state_enabled};
+  private static final int[] PRESSED_STATE = {
+    android.R.attr.state_enabled, android.R.attr.state_pressed
+  };
+  private static final int[] SELECTED_STATE = {
+    android.R.attr.state_enabled, android.R.attr.state_selected
+  };
+
+  private Context context;
+  private ChipDrawable chip;
+  private final Canvas canvas = new Canvas();
+
+  @Before
+  public void setUp() {
+    context =
+        new ContextThemeWrapper(
+            RuntimeEnvironment.application, R.style.Theme_MaterialComponents_Light);
+    chip =
+        ChipDrawable.createFromAttributes(
+            context, null, 0, R.style.Widget_MaterialComponents_Chip_Entry);
+    chip.setChipText("Sunny");
+
+    // Only keep the parts of the chip which each test changes the state of
+    chip.setChipBackgroundColor(ColorStateList.valueOf(Color.WHITE));
+    chip.setChipStrokeColor(ColorStateList.valueOf(Color.BLACK));
+    chip.setChipStrokeWidth(1f);
+    chip.setChipIcon(null);
+    chip.setCheckedIcon(null);
+    chip.setCloseIcon(null);
+    chip.setUseCompatRipple(false);
+
+    chip.setUseStaticLayerCache(true);
+    chip.setState(ENABLED_STATE);
+    chip.setBounds(0, 0, WIDTH, HEIGHT);
+  }
+
+  @Test
+  public void testIntrinsicWidthOnlyMeasuresTheTextOnce() {
+    final int measurements = chip.getTextMeasurementCount();
+    final int width = chip.getIntrinsicWidth();
+    for (int i = 0; i < 10; i++) {
+      assertThat(chip.getIntrinsicWidth()).isEqualTo(width);
+    }
+    assertThat(chip.getTextMeasurementCount()).isEqualTo(measurements + 1);
+
+    chip.setChipText("Partly cloudy");
+    assertThat(chip.getIntrinsicWidth()).isGreaterThan(width);
+    chip.getIntrinsicWidth();
+    assertThat(chip.getTextMeasurementCount()).isEqualTo(measurements + 2);
+
+    chip.setTextAppearance(new TextAppearance(context, R.style.TextAppearance_AppCompat_Large));
+    chip.getIntrinsicWidth();
+    chip.getIntrinsicWidth();
+    assertThat(chip.getTextMeasurementCount()).isEqualTo(measurements + 3);
+  }
+
+  @Test
+  public void testLayersAreOnlyRecordedOnce() {
+    chip.draw(canvas);
+    final int records = chip.getStaticLayerRecordCount();
+
+    chip.draw(canvas);
+    chip.draw(canvas);
+
+    assertThat(records).isGreaterThan(0);
+    assertThat(chip.getStaticLayerRecordCount()).isEqualTo(records);
+  }
+
+  @Test
+  public void testBackgroundColorStateChangeRecordsTheLayersAgain() {
+    chip.setChipBackgroundColor(pressedColors(Color.WHITE, Color.LTGRAY));
+    assertStateChangeRecordsTheLayers(PRESSED_STATE, true);
+  }
+
+  @Test
+  public void testStrokeColorStateChangeRecordsTheLayersAgain() {
+    chip.setChipStrokeColor(pressedColors(Color.BLACK, Color.DKGRAY));
+    assertStateChangeRecordsTheLayers(PRESSED_STATE, true);
+  }
+
+  @Test
+  public void testIconColorStateChangeRecordsTheLayersAgain() {
+    final GradientDrawable icon = new GradientDrawable();
+    icon.setColor(pressedColors(Color.RED, Color.BLUE));
+    chip.setChipIconEnabled(true);
+    chip.setChipIcon(icon);
+    assertStateChangeRecordsTheLayers(PRESSED_STATE, true);
+  }
+
+  @Test
+  public void testRippleColorStateChangeKeepsTheLayers() {
+    // The composite ripple colors only differ between selected and unselected chips
+    chip.setUseCompatRipple(true);
+    chip.setRippleColor(
+        new ColorStateList(
+            new int[][] {{android.R.attr.state_selected}, {}},
+            new int[] {Color.BLACK, Color.TRANSPARENT}));
+    chip.setRippleAlpha(ColorStateList.valueOf(Color.WHITE));
+    assertStateChangeRecordsTheLayers(SELECTED_STATE, false);
+  }
+
+  @Test
+  public void testTextChangeKeepsTheLayers() {
+    chip.draw(canvas);
+    final int records = chip.getStaticLayerRecordCount();
+
+    chip.setChipText("Partly cloudy");
+    chip.draw(canvas);
+
+    assertThat(chip.getStaticLayerRecordCount()).isEqualTo(records);
+  }
+
+  /**
+   * Draws the chip, changes its state and draws it again, and checks that the state change changes
+   * how it's drawn and whether that records the layers again.
+   */
+  private void assertStateChangeRecordsTheLayers(int[] state, boolean recordsTheLayers) {
+    chip.draw(canvas);
+    final int records = chip.getStaticLayerRecordCount();
+
+    assertThat(chip.setState(state)).isTrue();
+    chip.draw(canvas);
+
+    assertThat(chip.getStaticLayerRecordCount())
+        .isEqualTo(recordsTheLayers ? records + 1 : records);
+  }
+
+  private static ColorStateList pressedColors(int defaultColor, int pressedColor) {
+    return new ColorStateList(
+        new int[][] {{android.R.attr.state_pressed}, {}}, new int[] {pressedColor, defaultColor});
+  }
+}
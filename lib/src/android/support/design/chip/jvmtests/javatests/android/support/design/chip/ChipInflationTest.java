@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.chip;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.AttributeSet;
+import android.view.ContextThemeWrapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/** Tests for the styles shared between {@link Chip}s inflated from XML. */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ChipInflationTest {
+
+  private static final int CHIP_COUNT = 500;
+
+  private Context context;
+
+  @Before
+  public void setUp() {
+    context =
+        new ContextThemeWrapper(
+            RuntimeEnvironment.application, R.style.Theme_MaterialComponents_Light);
+    ChipDrawableStyle.clearSharedStyles();
+  }
+
+  @Test
+  public void testChipsWithTheirOwnTextShareTheirStyle() {
+    final int hits = ChipDrawableStyle.getHitCount();
+    final int misses = ChipDrawableStyle.getMissCount();
+
+    final ChipDrawable first = inflateChip(chipAttributes("Sunny")).getButtonDrawable();
+    final ChipDrawable second = inflateChip(chipAttributes("Cloudy")).getButtonDrawable();
+
+    assertThat(ChipDrawableStyle.getHitCount()).isEqualTo(hits + 1);
+    assertThat(ChipDrawableStyle.getMissCount()).isEqualTo(misses + 1);
+    assertThat(first.getChipText().toString()).isEqualTo("Sunny");
+    assertThat(second.getChipText().toString()).isEqualTo("Cloudy");
+    assertThat(second.getChipBackgroundColor()).isSameAs(first.getChipBackgroundColor());
+    assertThat(second.getTextAppearance()).isSameAs(first.getTextAppearance());
+    // Each chip has its own icons, so that their state isn't shared
+    if (first.getCloseIcon() != null) {
+      assertThat(second.getCloseIcon()).isNotSameAs(first.getCloseIcon());
+    }
+  }
+
+  @Test
+  public void testCheckableIsSetOnEachChip() {
+    final ChipDrawable plain = inflateChip(chipAttributes("Sunny")).getButtonDrawable();
+    final int misses = ChipDrawableStyle.getMissCount();
+
+    final ChipDrawable checkable =
+        inflateChip(
+                Robolectric.buildAttributeSet()
+                    .addAttribute(R.attr.chipText, "Cloudy")
+                    .addAttribute(android.R.attr.checkable, "true")
+                    .build())
+            .getButtonDrawable();
+
+    assertThat(ChipDrawableStyle.getMissCount()).isEqualTo(misses);
+    assertThat(plain.isCheckable()).isFalse();
+    assertThat(checkable.isCheckable()).isTrue();
+  }
+
+  @Test
+  public void testChipsOverridingTheirStyleResolveTheirOwn() {
+    final ChipDrawable plain = inflateChip(chipAttributes("Sunny")).getButtonDrawable();
+    final int misses = ChipDrawableStyle.getMissCount();
+
+    final ChipDrawable outlined =
+        inflateChip(
+                Robolectric.buildAttributeSet()
+                    .addAttribute(R.attr.chipText, "Cloudy")
+                    .addAttribute(R.attr.chipStrokeWidth, "2px")
+                    .build())
+            .getButtonDrawable();
+
+    assertThat(ChipDrawableStyle.getMissCount()).isEqualTo(misses + 1);
+    assertThat(outlined.getChipStrokeWidth()).isEqualTo(2f);
+    assertThat(plain.getChipStrokeWidth()).isEqualTo(0f);
+
+    // The override doesn't leak into the shared style
+    final ChipDrawable next = inflateChip(chipAttributes("Windy")).getButtonDrawable();
+    assertThat(ChipDrawableStyle.getMissCount()).isEqualTo(misses + 1);
+    assertThat(next.getChipStrokeWidth()).isEqualTo(0f);
+  }
+
+  @Test
+  public void testManyChipsOnlyResolveTheirStyleOnce() {
+    final int hits = ChipDrawableStyle.getHitCount();
+    final int misses = ChipDrawableStyle.getMissCount();
+
+    for (int i = 0; i < CHIP_COUNT; i++) {
+      final Chip chip = inflateChip(chipAttributes("Chip " + i));
+      assertThat(chip.getButtonDrawable().getChipText().toString()).isEqualTo("Chip " + i);
+    }
+
+    assertThat(ChipDrawableStyle.getMissCount()).isEqualTo(misses + 1);
+    assertThat(ChipDrawableStyle.getHitCount()).isEqualTo(hits + CHIP_COUNT - 1);
+  }
+
+  @Test
+  @Config(sdk = 23)
+  public void testChipsInAnotherConfigurationResolveTheirOwnStyle() {
+    inflateChip(chipAttributes("Sunny"));
+    final int misses = ChipDrawableStyle.getMissCount();
+
+    // From API 23, a theme equals any other with the same styles applied, whatever its resources
+    final Configuration configuration =
+        new Configuration(context.getResources().getConfiguration());
+    configuration.densityDpi *= 2;
+    final Context otherContext =
+        new ContextThemeWrapper(
+            context.createConfigurationContext(configuration),
+            R.style.Theme_MaterialComponents_Light);
+    new Chip(otherContext, chipAttributes("Cloudy"));
+
+    assertThat(ChipDrawableStyle.getMissCount()).isEqualTo(misses + 1);
+  }
+
+  @Test
+  @Config(sdk = 23)
+  public void testApplyingAStyleToTheThemeResolvesTheStyleAgain() {
+    inflateChip(chipAttributes("Sunny"));
+    final int misses = ChipDrawableStyle.getMissCount();
+
+    context.getTheme().applyStyle(R.style.ThemeOverlay_AppCompat_Dark, true);
+    inflateChip(chipAttributes("Cloudy"));
+
+    assertThat(ChipDrawableStyle.getMissCount()).isEqualTo(misses + 1);
+  }
+
+  @Test
+  public void testStylesOfOtherThemesAreNotShared() {
+    inflateChip(chipAttributes("Sunny"));
+    final int misses = ChipDrawableStyle.getMissCount();
+
+    final Context otherContext =
+        new ContextThemeWrapper(
+            RuntimeEnvironment.application, R.style.Theme_MaterialComponents_Light);
+    new Chip(otherContext, chipAttributes("Cloudy"));
+
+    // Themes are matched by identity, even where they're equal
+    assertThat(ChipDrawableStyle.getMissCount()).isEqualTo(misses + 1);
+    assertThat(ChipDrawableStyle.getSharedStyleCount()).isEqualTo(2);
+  }
+
+  private static AttributeSet chipAttributes(String text) {
+    return Robolectric.buildAttributeSet().addAttribute(R.attr.chipText, text).build();
+  }
+
+  private Chip inflateChip(AttributeSet attrs) {
+    return new Chip(context, attrs);
+  }
+}
@@ -35,6 +35,7 @@ import android.support.annotation.VisibleForTesting;
 import android.support.design.R;
 import android.support.design.animation.AnimationUtils;
 import android.support.v4.os.BuildCompat;
+import android.support.v4.os.TraceCompat;
 import android.support.v4.view.AbsSavedState;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.view.WindowInsetsCompat;
@@ -105,6 +106,18 @@ import java.util.List;
 @CoordinatorLayout.DefaultBehavior(AppBarLayout.Behavior.class)
 public class AppBarLayout extends LinearLayout {
 
+  static {
+    // Allow the default behavior to be created without reflection
+    CoordinatorLayout.registerDefaultBehavior(
+        AppBarLayout.class,
+        new CoordinatorLayout.DefaultBehaviorFactory() {
+          @Override
+          public CoordinatorLayout.Behavior createBehavior() {
+            return new AppBarLayout.Behavior();
+          }
+        });
+  }
+
   static final int PENDING_ACTION_NONE = 0x0;
   static final int PENDING_ACTION_EXPANDED = 0x1;
   static final int PENDING_ACTION_COLLAPSED = 0x2;
@@ -127,6 +140,25 @@ public class AppBarLayout extends LinearLayout {
     void onOffsetChanged(AppBarLayout appBarLayout, int verticalOffset);
   }
 
+  /**
+   * Interface definition for a callback to be invoked when an {@link AppBarLayout}'s vertical
+   * offset changes, with details of how it changed.
+   *
+   * @see #setOffsetUpdatesCoalesced(boolean)
+   */
+  public interface OnOffsetChangedFrameListener {
+    /**
+     * Called when the {@link AppBarLayout}'s layout offset has been changed.
+     *
+     * @param appBarLayout the {@link AppBarLayout} which offset has changed
+     * @param verticalOffset the vertical offset for the parent {@link AppBarLayout}, in px
+     * @param offsetDelta the change in offset since this listener was last called, in px
+     * @param velocity the rate at which the offset is changing, in px per second
+     */
+    void onOffsetChanged(
+        AppBarLayout appBarLayout, int verticalOffset, int offsetDelta, float velocity);
+  }
+
   private static final int INVALID_SCROLL_RANGE = -1;
 
   private int mTotalScrollRange = INVALID_SCROLL_RANGE;
@@ -135,11 +167,30 @@ public class AppBarLayout extends LinearLayout {
 
   private boolean mHaveChildWithInterpolator;
 
+  private final ChildScrollTable mChildScrollTable = new ChildScrollTable();
+
   private int mPendingAction = PENDING_ACTION_NONE;
 
   private WindowInsetsCompat mLastInsets;
 
-  private List<OnOffsetChangedListener> mListeners;
+  private List<OffsetListenerRecord> mListeners;
+
+  private boolean mCoalesceOffsetUpdates;
+  private boolean mOffsetDispatchScheduled;
+  private int mPendingOffset;
+  private int mLastDispatchedOffset;
+  private long mLastDispatchTimeNanos = -1;
+  private final Runnable mDispatchOffsetRunnable =
+      new Runnable() {
+        @Override
+        public void run() {
+          mOffsetDispatchScheduled = false;
+          dispatchPendingOffset();
+        }
+      };
+
+  private int mOffsetDispatchCount;
+  private long mLastOffsetDispatchDurationNanos;
 
   private boolean mCollapsible;
   private boolean mCollapsed;
@@ -212,11 +263,21 @@ public class AppBarLayout extends LinearLayout {
    * @see #removeOnOffsetChangedListener(OnOffsetChangedListener)
    */
   public void addOnOffsetChangedListener(OnOffsetChangedListener listener) {
-    if (mListeners == null) {
-      mListeners = new ArrayList<>();
-    }
-    if (listener != null && !mListeners.contains(listener)) {
-      mListeners.add(listener);
+    addOnOffsetChangedListener(listener, 0);
+  }
+
+  /**
+   * Add a listener that will be called when the offset of this {@link AppBarLayout} changes by at
+   * least {@code threshold} pixels since the listener was last called. The listener is always
+   * called when the offset reaches either end of its range.
+   *
+   * @param listener The listener that will be called when the offset changes.
+   * @param threshold The minimum change in offset to call the listener for, in px.
+   * @see #removeOnOffsetChangedListener(OnOffsetChangedListener)
+   */
+  public void addOnOffsetChangedListener(OnOffsetChangedListener listener, int threshold) {
+    if (listener != null && indexOfListener(listener) < 0) {
+      addListenerRecord(new OffsetListenerRecord(listener, null, threshold));
     }
   }
 
@@ -226,8 +287,91 @@ public class AppBarLayout extends LinearLayout {
    * @param listener the listener to remove.
    */
   public void removeOnOffsetChangedListener(OnOffsetChangedListener listener) {
+    removeListenerRecord(listener);
+  }
+
+  /**
+   * Add a listener that will be called when the offset of this {@link AppBarLayout} changes by at
+   * least {@code threshold} pixels since the listener was last called, with the change in offset
+   * and its velocity. The listener is always called when the offset reaches either end of its
+   * range.
+   *
+   * @param listener The listener that will be called when the offset changes.
+   * @param threshold The minimum change in offset to call the listener for, in px.
+   * @see #removeOnOffsetChangedFrameListener(OnOffsetChangedFrameListener)
+   */
+  public void addOnOffsetChangedFrameListener(
+      OnOffsetChangedFrameListener listener, int threshold) {
+    if (listener != null && indexOfListener(listener) < 0) {
+      addListenerRecord(new OffsetListenerRecord(null, listener, threshold));
+    }
+  }
+
+  /**
+   * Remove the previously added {@link OnOffsetChangedFrameListener}.
+   *
+   * @param listener the listener to remove.
+   */
+  public void removeOnOffsetChangedFrameListener(OnOffsetChangedFrameListener listener) {
+    removeListenerRecord(listener);
+  }
+
+  private void addListenerRecord(OffsetListenerRecord record) {
+    if (mListeners == null) {
+      mListeners = new ArrayList<>();
+    }
+    mListeners.add(record);
+  }
+
+  private void removeListenerRecord(Object listener) {
+    final int index = indexOfListener(listener);
+    if (index >= 0) {
+      mListeners.remove(index);
+    }
+  }
+
+  private int indexOfListener(Object listener) {
     if (mListeners != null && listener != null) {
-      mListeners.remove(listener);
+      for (int i = 0, z = mListeners.size(); i < z; i++) {
+        if (listener.equals(mListeners.get(i).getListener())) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Sets whether offset changes should be coalesced, so that listeners are called at most once per
+   * animation frame with the latest offset, rather than on every change. This reduces the work
+   * done by listeners during flings, at the cost of them seeing the offset up to a frame late.
+   *
+   * <p>Defaults to false.
+   */
+  public void setOffsetUpdatesCoalesced(boolean coalesced) {
+    if (mCoalesceOffsetUpdates != coalesced) {
+      mCoalesceOffsetUpdates = coalesced;
+      if (!coalesced && mOffsetDispatchScheduled) {
+        // Deliver the pending update now, rather than waiting for the next frame
+        removeCallbacks(mDispatchOffsetRunnable);
+        mDispatchOffsetRunnable.run();
+      }
+    }
+  }
+
+  /** Returns whether offset changes are coalesced to at most one per animation frame. */
+  public boolean isOffsetUpdatesCoalesced() {
+    return mCoalesceOffsetUpdates;
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    super.onDetachedFromWindow();
+    if (mOffsetDispatchScheduled) {
+      // Don't drop the last offset, so that listeners don't keep a stale one
+      dispatchPendingOffset();
+      removeCallbacks(mDispatchOffsetRunnable);
+      mOffsetDispatchScheduled = false;
     }
   }
 
@@ -273,6 +417,19 @@ public class AppBarLayout extends LinearLayout {
     mTotalScrollRange = INVALID_SCROLL_RANGE;
     mDownPreScrollRange = INVALID_SCROLL_RANGE;
     mDownScrollRange = INVALID_SCROLL_RANGE;
+    mChildScrollTable.mValid = false;
+  }
+
+  /**
+   * Returns the scroll information of the children, building it if any of them have been measured
+   * or laid out since it was last built.
+   */
+  ChildScrollTable getChildScrollTable() {
+    final ChildScrollTable table = mChildScrollTable;
+    if (!table.mValid || table.mCount != getChildCount()) {
+      table.build(this);
+    }
+    return table;
   }
 
   @Override
@@ -361,22 +518,20 @@ public class AppBarLayout extends LinearLayout {
       return mTotalScrollRange;
     }
 
+    final ChildScrollTable table = getChildScrollTable();
     int range = 0;
-    for (int i = 0, z = getChildCount(); i < z; i++) {
-      final View child = getChildAt(i);
-      final LayoutParams lp = (LayoutParams) child.getLayoutParams();
-      final int childHeight = child.getMeasuredHeight();
-      final int flags = lp.mScrollFlags;
+    for (int i = 0, z = table.mCount; i < z; i++) {
+      final int flags = table.mFlags[i];
 
       if ((flags & LayoutParams.SCROLL_FLAG_SCROLL) != 0) {
         // We're set to scroll so add the child's height
-        range += childHeight + lp.topMargin + lp.bottomMargin;
+        range += table.mHeights[i];
 
         if ((flags & LayoutParams.SCROLL_FLAG_EXIT_UNTIL_COLLAPSED) != 0) {
           // For a collapsing scroll, we to take the collapsed height into account.
           // We also break straight away since later views can't scroll beneath
           // us
-          range -= ViewCompat.getMinimumHeight(child);
+          range -= table.mMinHeights[i];
           break;
         }
       } else {
@@ -404,26 +559,24 @@ public class AppBarLayout extends LinearLayout {
       return mDownPreScrollRange;
     }
 
+    final ChildScrollTable table = getChildScrollTable();
     int range = 0;
-    for (int i = getChildCount() - 1; i >= 0; i--) {
-      final View child = getChildAt(i);
-      final LayoutParams lp = (LayoutParams) child.getLayoutParams();
-      final int childHeight = child.getMeasuredHeight();
-      final int flags = lp.mScrollFlags;
+    for (int i = table.mCount - 1; i >= 0; i--) {
+      final int flags = table.mFlags[i];
 
       if ((flags & LayoutParams.FLAG_QUICK_RETURN) == LayoutParams.FLAG_QUICK_RETURN) {
         // First take the margin into account
-        range += lp.topMargin + lp.bottomMargin;
+        range += table.mMargins[i];
         // The view has the quick return flag combination...
         if ((flags & LayoutParams.SCROLL_FLAG_ENTER_ALWAYS_COLLAPSED) != 0) {
           // If they're set to enter collapsed, use the minimum height
-          range += ViewCompat.getMinimumHeight(child);
+          range += table.mMinHeights[i];
         } else if ((flags & LayoutParams.SCROLL_FLAG_EXIT_UNTIL_COLLAPSED) != 0) {
           // Only enter by the amount of the collapsed height
-          range += childHeight - ViewCompat.getMinimumHeight(child);
+          range += table.mHeights[i] - table.mMargins[i] - table.mMinHeights[i];
         } else {
           // Else use the full height (minus the top inset)
-          range += childHeight - getTopInset();
+          range += table.mHeights[i] - table.mMargins[i] - getTopInset();
         }
       } else if (range > 0) {
         // If we've hit an non-quick return scrollable view, and we've already hit a
@@ -441,24 +594,20 @@ public class AppBarLayout extends LinearLayout {
       return mDownScrollRange;
     }
 
+    final ChildScrollTable table = getChildScrollTable();
     int range = 0;
-    for (int i = 0, z = getChildCount(); i < z; i++) {
-      final View child = getChildAt(i);
-      final LayoutParams lp = (LayoutParams) child.getLayoutParams();
-      int childHeight = child.getMeasuredHeight();
-      childHeight += lp.topMargin + lp.bottomMargin;
-
-      final int flags = lp.mScrollFlags;
+    for (int i = 0, z = table.mCount; i < z; i++) {
+      final int flags = table.mFlags[i];
 
       if ((flags & LayoutParams.SCROLL_FLAG_SCROLL) != 0) {
         // We're set to scroll so add the child's height
-        range += childHeight;
+        range += table.mHeights[i];
 
         if ((flags & LayoutParams.SCROLL_FLAG_EXIT_UNTIL_COLLAPSED) != 0) {
           // For a collapsing exit scroll, we to take the collapsed height into account.
           // We also break the range straight away since later views can't scroll
           // beneath us
-          range -= ViewCompat.getMinimumHeight(child) + getTopInset();
+          range -= table.mMinHeights[i] + getTopInset();
           break;
         }
       } else {
@@ -471,14 +620,100 @@ public class AppBarLayout extends LinearLayout {
   }
 
   void dispatchOffsetUpdates(int offset) {
-    // Iterate backwards through the list so that most recently added listeners
-    // get the first chance to decide
+    mPendingOffset = offset;
+    if (!mCoalesceOffsetUpdates) {
+      dispatchPendingOffset();
+    } else if (!mOffsetDispatchScheduled) {
+      mOffsetDispatchScheduled = true;
+      ViewCompat.postOnAnimation(this, mDispatchOffsetRunnable);
+    }
+  }
+
+  private void dispatchPendingOffset() {
+    final int offset = mPendingOffset;
+    final long startTime = System.nanoTime();
+
+    // Work out how fast we're moving since the last dispatch
+    float velocity = 0f;
+    if (mLastDispatchTimeNanos >= 0 && startTime > mLastDispatchTimeNanos) {
+      velocity = (offset - mLastDispatchedOffset) * 1e9f / (startTime - mLastDispatchTimeNanos);
+    }
+    mLastDispatchedOffset = offset;
+    mLastDispatchTimeNanos = startTime;
+
     if (mListeners != null) {
-      for (int i = 0, z = mListeners.size(); i < z; i++) {
-        final OnOffsetChangedListener listener = mListeners.get(i);
-        if (listener != null) {
-          listener.onOffsetChanged(this, offset);
+      TraceCompat.beginSection("AppBarLayout.dispatchOffsetUpdates");
+      try {
+        final boolean atEnd = offset == 0 || offset == -getTotalScrollRange();
+        for (int i = 0, z = mListeners.size(); i < z; i++) {
+          final OffsetListenerRecord record = mListeners.get(i);
+          if (record.shouldDispatch(offset, atEnd)) {
+            record.dispatch(this, offset, velocity);
+          }
         }
+      } finally {
+        TraceCompat.endSection();
+      }
+    }
+
+    mOffsetDispatchCount++;
+    mLastOffsetDispatchDurationNanos = System.nanoTime() - startTime;
+  }
+
+  /** Returns the number of times that offset changes have been dispatched to listeners. */
+  @VisibleForTesting
+  int getOffsetDispatchCount() {
+    return mOffsetDispatchCount;
+  }
+
+  /**
+   * Returns how long the listeners took to handle the last offset change, in nanoseconds. When
+   * offset updates are coalesced, this is the listener time for the last frame.
+   *
+   * <p>Offset dispatches are also traced as {@code AppBarLayout.dispatchOffsetUpdates} sections,
+   * which show the listener time for each frame in systrace.
+   */
+  public long getLastOffsetDispatchDurationNanos() {
+    return mLastOffsetDispatchDurationNanos;
+  }
+
+  /** A registered offset listener, with the state needed to apply its threshold. */
+  private static final class OffsetListenerRecord {
+    @Nullable private final OnOffsetChangedListener mListener;
+    @Nullable private final OnOffsetChangedFrameListener mFrameListener;
+    private final int mThreshold;
+    private boolean mHasDispatched;
+    private int mLastOffset;
+
+    OffsetListenerRecord(
+        @Nullable OnOffsetChangedListener listener,
+        @Nullable OnOffsetChangedFrameListener frameListener,
+        int threshold) {
+      mListener = listener;
+      mFrameListener = frameListener;
+      mThreshold = threshold;
+    }
+
+    Object getListener() {
+      return mListener != null ? mListener : mFrameListener;
+    }
+
+    boolean shouldDispatch(int offset, boolean atEnd) {
+      if (mThreshold <= 0 || !mHasDispatched) {
+        return true;
+      }
+      final int delta = Math.abs(offset - mLastOffset);
+      return delta >= mThreshold || (atEnd && delta != 0);
+    }
+
+    void dispatch(AppBarLayout appBarLayout, int offset, float velocity) {
+      final int delta = mHasDispatched ? offset - mLastOffset : 0;
+      mHasDispatched = true;
+      mLastOffset = offset;
+      if (mListener != null) {
+        mListener.onOffsetChanged(appBarLayout, offset);
+      } else if (mFrameListener != null) {
+        mFrameListener.onOffsetChanged(appBarLayout, offset, delta, velocity);
       }
     }
   }
@@ -602,6 +837,121 @@ public class AppBarLayout extends LinearLayout {
     return insets;
   }
 
+  /**
+   * The scroll information of an {@link AppBarLayout}'s children, stored in arrays indexed by child
+   * so that it can be read on every scroll step without walking the children or casting their
+   * layout params. It is rebuilt on demand after each measure and layout.
+   */
+  static final class ChildScrollTable {
+    private static final int[] EMPTY = new int[0];
+
+    boolean mValid;
+    int mCount;
+
+    /** The top and bottom of each child. */
+    int[] mTops = EMPTY;
+    int[] mBottoms = EMPTY;
+    /** The measured height of each child, including its vertical margins. */
+    int[] mHeights = EMPTY;
+    /** The vertical margins of each child. */
+    int[] mMargins = EMPTY;
+    int[] mMinHeights = EMPTY;
+    int[] mFlags = EMPTY;
+    Interpolator[] mInterpolators = new Interpolator[0];
+    /** The height over which each child's scroll interpolator is applied, or 0 if it has none. */
+    int[] mInterpolatedRanges = EMPTY;
+
+    /** Whether the tops and bottoms are both in ascending order, so can be binary searched. */
+    private boolean mSorted;
+
+    void build(AppBarLayout layout) {
+      final int count = layout.getChildCount();
+      if (mTops.length < count) {
+        mTops = new int[count];
+        mBottoms = new int[count];
+        mHeights = new int[count];
+        mMargins = new int[count];
+        mMinHeights = new int[count];
+        mFlags = new int[count];
+        mInterpolators = new Interpolator[count];
+        mInterpolatedRanges = new int[count];
+      }
+
+      final int topInset = layout.getTopInset();
+      mSorted = true;
+      for (int i = 0; i < count; i++) {
+        final View child = layout.getChildAt(i);
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        final int flags = lp.mScrollFlags;
+
+        mTops[i] = child.getTop();
+        mBottoms[i] = child.getBottom();
+        mMargins[i] = lp.topMargin + lp.bottomMargin;
+        mHeights[i] = child.getMeasuredHeight() + mMargins[i];
+        mMinHeights[i] = ViewCompat.getMinimumHeight(child);
+        mFlags[i] = flags;
+        mInterpolators[i] = lp.getScrollInterpolator();
+
+        int interpolatedRange = 0;
+        if (mInterpolators[i] != null) {
+          if ((flags & LayoutParams.SCROLL_FLAG_SCROLL) != 0) {
+            // We're set to scroll so add the child's height plus margin
+            interpolatedRange += mHeights[i];
+
+            if ((flags & LayoutParams.SCROLL_FLAG_EXIT_UNTIL_COLLAPSED) != 0) {
+              // For a collapsing scroll, we to take the collapsed height into account.
+              interpolatedRange -= mMinHeights[i];
+            }
+          }
+          if (ViewCompat.getFitsSystemWindows(child)) {
+            interpolatedRange -= topInset;
+          }
+        }
+        mInterpolatedRanges[i] = interpolatedRange;
+
+        if (i > 0 && (mTops[i] < mTops[i - 1] || mBottoms[i] < mBottoms[i - 1])) {
+          mSorted = false;
+        }
+      }
+      // Drop references to any removed children's interpolators
+      for (int i = count; i < mCount; i++) {
+        mInterpolators[i] = null;
+      }
+
+      mCount = count;
+      mValid = true;
+    }
+
+    /**
+     * Returns the index of the first child whose top and bottom contain the given position, or -1
+     * if there isn't one.
+     */
+    int getChildIndexAt(int position) {
+      if (!mSorted) {
+        for (int i = 0; i < mCount; i++) {
+          if (mTops[i] <= position && mBottoms[i] >= position) {
+            return i;
+          }
+        }
+        return -1;
+      }
+
+      // Find the first child whose bottom is at or below the position. Since the tops are also
+      // in order, no later child can contain the position if that one doesn't.
+      int low = 0;
+      int high = mCount - 1;
+      while (low <= high) {
+        final int mid = (low + high) >>> 1;
+        if (mBottoms[mid] < position) {
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      return low < mCount && mTops[low] <= position ? low : -1;
+    }
+  }
+
   public static class LayoutParams extends LinearLayout.LayoutParams {
 
     /** @hide */
@@ -959,41 +1309,34 @@ public class AppBarLayout extends LinearLayout {
     }
 
     private int getChildIndexOnOffset(AppBarLayout abl, final int offset) {
-      for (int i = 0, count = abl.getChildCount(); i < count; i++) {
-        View child = abl.getChildAt(i);
-        if (child.getTop() <= -offset && child.getBottom() >= -offset) {
-          return i;
-        }
-      }
-      return -1;
+      return abl.getChildScrollTable().getChildIndexAt(-offset);
     }
 
     private void snapToChildIfNeeded(CoordinatorLayout coordinatorLayout, AppBarLayout abl) {
       final int offset = getTopBottomOffsetForScrollingSibling();
-      final int offsetChildIndex = getChildIndexOnOffset(abl, offset);
+      final ChildScrollTable table = abl.getChildScrollTable();
+      final int offsetChildIndex = table.getChildIndexAt(-offset);
       if (offsetChildIndex >= 0) {
-        final View offsetChild = abl.getChildAt(offsetChildIndex);
-        final LayoutParams lp = (LayoutParams) offsetChild.getLayoutParams();
-        final int flags = lp.getScrollFlags();
+        final int flags = table.mFlags[offsetChildIndex];
 
         if ((flags & LayoutParams.FLAG_SNAP) == LayoutParams.FLAG_SNAP) {
           // We're set the snap, so animate the offset to the nearest edge
-          int snapTop = -offsetChild.getTop();
-          int snapBottom = -offsetChild.getBottom();
+          int snapTop = -table.mTops[offsetChildIndex];
+          int snapBottom = -table.mBottoms[offsetChildIndex];
 
-          if (offsetChildIndex == abl.getChildCount() - 1) {
+          if (offsetChildIndex == table.mCount - 1) {
             // If this is the last child, we need to take the top inset into account
             snapBottom += abl.getTopInset();
           }
 
           if (checkFlag(flags, LayoutParams.SCROLL_FLAG_EXIT_UNTIL_COLLAPSED)) {
             // If the view is set only exit until it is collapsed, we'll abide by that
-            snapBottom += ViewCompat.getMinimumHeight(offsetChild);
+            snapBottom += table.mMinHeights[offsetChildIndex];
           } else if (checkFlag(
               flags, LayoutParams.FLAG_QUICK_RETURN | LayoutParams.SCROLL_FLAG_ENTER_ALWAYS)) {
             // If it's set to always enter collapsed, it actually has two states. We
             // select the state and then snap within the state
-            final int seam = snapBottom + ViewCompat.getMinimumHeight(offsetChild);
+            final int seam = snapBottom + table.mMinHeights[offsetChildIndex];
             if (offset < seam) {
               snapTop = seam;
             } else {
@@ -1198,47 +1541,20 @@ public class AppBarLayout extends LinearLayout {
 
     private int interpolateOffset(AppBarLayout layout, final int offset) {
       final int absOffset = Math.abs(offset);
-
-      for (int i = 0, z = layout.getChildCount(); i < z; i++) {
-        final View child = layout.getChildAt(i);
-        final AppBarLayout.LayoutParams childLp = (LayoutParams) child.getLayoutParams();
-        final Interpolator interpolator = childLp.getScrollInterpolator();
-
-        if (absOffset >= child.getTop() && absOffset <= child.getBottom()) {
-          if (interpolator != null) {
-            int childScrollableHeight = 0;
-            final int flags = childLp.getScrollFlags();
-            if ((flags & LayoutParams.SCROLL_FLAG_SCROLL) != 0) {
-              // We're set to scroll so add the child's height plus margin
-              childScrollableHeight += child.getHeight() + childLp.topMargin + childLp.bottomMargin;
-
-              if ((flags & LayoutParams.SCROLL_FLAG_EXIT_UNTIL_COLLAPSED) != 0) {
-                // For a collapsing scroll, we to take the collapsed height
-                // into account.
-                childScrollableHeight -= ViewCompat.getMinimumHeight(child);
-              }
-            }
-
-            if (ViewCompat.getFitsSystemWindows(child)) {
-              childScrollableHeight -= layout.getTopInset();
-            }
-
-            if (childScrollableHeight > 0) {
-              final int offsetForView = absOffset - child.getTop();
-              final int interpolatedDiff =
-                  Math.round(
-                      childScrollableHeight
-                          * interpolator.getInterpolation(
-                              offsetForView / (float) childScrollableHeight));
-
-              return Integer.signum(offset) * (child.getTop() + interpolatedDiff);
-            }
-          }
-
-          // If we get to here then the view on the offset isn't suitable for interpolated
-          // scrolling. So break out of the loop
-          break;
-        }
+      final ChildScrollTable table = layout.getChildScrollTable();
+      final int i = table.getChildIndexAt(absOffset);
+
+      // If the view on the offset isn't suitable for interpolated scrolling, its range is 0
+      if (i >= 0 && table.mInterpolatedRanges[i] > 0) {
+        final int childScrollableHeight = table.mInterpolatedRanges[i];
+        final int offsetForView = absOffset - table.mTops[i];
+        final int interpolatedDiff =
+            Math.round(
+                childScrollableHeight
+                    * table.mInterpolators[i].getInterpolation(
+                        offsetForView / (float) childScrollableHeight));
+
+        return Integer.signum(offset) * (table.mTops[i] + interpolatedDiff);
       }
 
       return offset;
@@ -1250,14 +1566,15 @@ public class AppBarLayout extends LinearLayout {
         final int offset,
         final int direction,
         final boolean forceJump) {
-      final View child = getAppBarChildOnOffset(layout, offset);
-      if (child != null) {
-        final AppBarLayout.LayoutParams childLp = (LayoutParams) child.getLayoutParams();
-        final int flags = childLp.getScrollFlags();
+      final ChildScrollTable table = layout.getChildScrollTable();
+      final int childIndex = table.getChildIndexAt(Math.abs(offset));
+      if (childIndex >= 0) {
+        final int flags = table.mFlags[childIndex];
+        final int childBottom = table.mBottoms[childIndex];
         boolean collapsed = false;
 
         if ((flags & LayoutParams.SCROLL_FLAG_SCROLL) != 0) {
-          final int minHeight = ViewCompat.getMinimumHeight(child);
+          final int minHeight = table.mMinHeights[childIndex];
 
           if (direction > 0
               && (flags
@@ -1266,11 +1583,11 @@ public class AppBarLayout extends LinearLayout {
                   != 0) {
             // We're set to enter always collapsed so we are only collapsed when
             // being scrolled down, and in a collapsed offset
-            collapsed = -offset >= child.getBottom() - minHeight - layout.getTopInset();
+            collapsed = -offset >= childBottom - minHeight - layout.getTopInset();
           } else if ((flags & LayoutParams.SCROLL_FLAG_EXIT_UNTIL_COLLAPSED) != 0) {
             // We're set to exit until collapsed, so any offset which results in
             // the minimum height (or less) being shown is collapsed
-            collapsed = -offset >= child.getBottom() - minHeight - layout.getTopInset();
+            collapsed = -offset >= childBottom - minHeight - layout.getTopInset();
           }
         }
 
@@ -1302,17 +1619,6 @@ public class AppBarLayout extends LinearLayout {
       return false;
     }
 
-    private static View getAppBarChildOnOffset(final AppBarLayout layout, final int offset) {
-      final int absOffset = Math.abs(offset);
-      for (int i = 0, z = layout.getChildCount(); i < z; i++) {
-        final View child = layout.getChildAt(i);
-        if (absOffset >= child.getTop() && absOffset <= child.getBottom()) {
-          return child;
-        }
-      }
-      return null;
-    }
-
     @Override
     int getTopBottomOffsetForScrollingSibling() {
       return getTopAndBottomOffset() + mOffsetDelta;
@@ -1439,10 +1745,12 @@ public class AppBarLayout extends LinearLayout {
         // Offset the rect by the child's left/top
         rectangle.offset(child.getLeft(), child.getTop());
 
-        final Rect parentRect = mTempRect1;
+        final Rect parentRect = GeometryPool.acquireRect();
         parentRect.set(0, 0, parent.getWidth(), parent.getHeight());
+        final boolean visible = parentRect.contains(rectangle);
+        GeometryPool.releaseRect(parentRect);
 
-        if (!parentRect.contains(rectangle)) {
+        if (!visible) {
           // If the rectangle can not be fully seen the visible bounds, collapse
           // the AppBarLayout
           header.setExpanded(false, !immediate);
@@ -32,8 +32,11 @@ import android.os.Message;
 import android.support.annotation.IntDef;
 import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.RestrictTo;
 import android.support.design.R;
+import android.support.design.animation.AnimationUtils;
+import android.support.v4.util.Pools;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.view.WindowInsetsCompat;
 import android.util.AttributeSet;
@@ -102,7 +105,9 @@ public abstract class BaseTransientBottomBar<B extends BaseTransientBottomBar<B>
     }
 
     /**
-     * Called when the given {@link BaseTransientBottomBar} is visible.
+     * Called when the given {@link BaseTransientBottomBar} is visible. If it's dismissed while it's
+     * still animating in, this is called as it starts animating out, before {@link
+     * #onDismissed(Object, int)}.
      *
      * @param transientBottomBar The transient bottom bar which is now visible.
      * @see BaseTransientBottomBar#show()
@@ -169,11 +174,15 @@ public abstract class BaseTransientBottomBar<B extends BaseTransientBottomBar<B>
 
   // On JB/KK versions of the platform sometimes View.setTranslationY does not result in
   // layout / draw pass, and CoordinatorLayout relies on a draw pass to happen to sync vertical
-  // positioning of all its child views
-  private static final boolean USE_OFFSET_API =
+  // positioning of all its child views. Invalidating the parent forces the draw pass, without
+  // moving the view with offsetTopAndBottom and laying it out again on every frame.
+  private static final boolean INVALIDATE_PARENT_ON_TRANSLATION =
       (Build.VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN)
           && (Build.VERSION.SDK_INT <= VERSION_CODES.KITKAT);
 
+  private static final Pools.Pool<SlideAnimation> sSlideAnimationPool =
+      new Pools.SynchronizedPool<>(2);
+
   static {
     sHandler =
         new Handler(
@@ -200,11 +209,18 @@ public abstract class BaseTransientBottomBar<B extends BaseTransientBottomBar<B>
   final SnackbarBaseLayout mView;
   private final ContentViewCallback mContentViewCallback;
   private int mDuration;
+  private int mPriority;
+  @Nullable private String mCoalescingKey;
 
   private List<BaseCallback<B>> mCallbacks;
 
   private final AccessibilityManager mAccessibilityManager;
 
+  @Nullable private SlideAnimation mSlideAnimation;
+
+  // The pool which the view is returned to once it's hidden, if it was made from one
+  @Nullable SnackbarViewPool mViewPool;
+
   /** @hide */
   @RestrictTo(LIBRARY_GROUP)
   interface OnLayoutChangeListener {
@@ -230,6 +246,18 @@ public abstract class BaseTransientBottomBar<B extends BaseTransientBottomBar<B>
       @NonNull ViewGroup parent,
       @NonNull View content,
       @NonNull ContentViewCallback contentViewCallback) {
+    this(parent, null, content, contentViewCallback);
+  }
+
+  /**
+   * Constructor for a transient bottom bar which reuses the given view, which already holds the
+   * content, or inflates a new view if it's null.
+   */
+  BaseTransientBottomBar(
+      @NonNull ViewGroup parent,
+      @Nullable SnackbarBaseLayout view,
+      @NonNull View content,
+      @NonNull ContentViewCallback contentViewCallback) {
     if (parent == null) {
       throw new IllegalArgumentException("Transient bottom bar must have non-null parent");
     }
@@ -246,14 +274,18 @@ public abstract class BaseTransientBottomBar<B extends BaseTransientBottomBar<B>
 
     ThemeUtils.checkAppCompatTheme(mContext);
 
-    LayoutInflater inflater = LayoutInflater.from(mContext);
-    // Note that for backwards compatibility reasons we inflate a layout that is defined
-    // in the extending Snackbar class. This is to prevent breakage of apps that have custom
-    // coordinator layout behaviors that depend on that layout.
-    mView =
-        (SnackbarBaseLayout)
-            inflater.inflate(R.layout.design_layout_snackbar, mTargetParent, false);
-    mView.addView(content);
+    if (view != null) {
+      mView = view;
+    } else {
+      LayoutInflater inflater = LayoutInflater.from(mContext);
+      // Note that for backwards compatibility reasons we inflate a layout that is defined
+      // in the extending Snackbar class. This is to prevent breakage of apps that have custom
+      // coordinator layout behaviors that depend on that layout.
+      mView =
+          (SnackbarBaseLayout)
+              inflater.inflate(R.layout.design_layout_snackbar, mTargetParent, false);
+      mView.addView(content);
+    }
 
     ViewCompat.setAccessibilityLiveRegion(mView, ViewCompat.ACCESSIBILITY_LIVE_REGION_POLITE);
     ViewCompat.setImportantForAccessibility(mView, ViewCompat.IMPORTANT_FOR_ACCESSIBILITY_YES);
@@ -302,6 +334,122 @@ public abstract class BaseTransientBottomBar<B extends BaseTransientBottomBar<B>
     return mDuration;
   }
 
+  /**
+   * Set the priority of this bar when bars are queued, where bars with a higher priority are shown
+   * first and interrupt a lower priority bar which is being shown. Bars with the same priority are
+   * shown in the order they were shown in. Defaults to 0.
+   *
+   * @see #setQueueCapacity(int)
+   */
+  @NonNull
+  public B setPriority(int priority) {
+    mPriority = priority;
+    return (B) this;
+  }
+
+  /**
+   * Return the priority.
+   *
+   * @see #setPriority(int)
+   */
+  public int getPriority() {
+    return mPriority;
+  }
+
+  /**
+   * Set the key under which this bar is coalesced with others when bars are queued. A bar shown
+   * while another with the same key is queued replaces it, and a bar shown while another with the
+   * same key is being shown just keeps that one shown for longer.
+   *
+   * @see #setQueueCapacity(int)
+   */
+  @NonNull
+  public B setCoalescingKey(@Nullable String key) {
+    mCoalescingKey = key;
+    return (B) this;
+  }
+
+  /**
+   * Return the coalescing key.
+   *
+   * @see #setCoalescingKey(String)
+   */
+  @Nullable
+  public String getCoalescingKey() {
+    return mCoalescingKey;
+  }
+
+  /**
+   * Set how many bars can wait to be shown while another one is being shown.
+   *
+   * <p>By default this is 0, where a newly shown bar dismisses the current one and replaces any bar
+   * which was waiting. Otherwise bars wait in a queue ordered by their priority, and when the queue
+   * is full the lowest priority bar which was shown last is dropped. In this mode bars can be shown
+   * from any thread without taking a lock, and are moved into the queue on the main thread.
+   *
+   * @see #setPriority(int)
+   * @see #setCoalescingKey(String)
+   */
+  public static void setQueueCapacity(@IntRange(from = 0) int capacity) {
+    SnackbarManager.getInstance().setQueueCapacity(capacity);
+  }
+
+  /**
+   * Return how many bars can wait to be shown.
+   *
+   * @see #setQueueCapacity(int)
+   */
+  public static int getQueueCapacity() {
+    return SnackbarManager.getInstance().getQueueCapacity();
+  }
+
+  /**
+   * Return the number of bars which are waiting in the queue to be shown.
+   *
+   * @see #setQueueCapacity(int)
+   */
+  public static int getQueueDepth() {
+    return SnackbarManager.getInstance().getQueueDepth();
+  }
+
+  /**
+   * Return the largest number of bars which have waited in the queue at once, since the queue
+   * metrics were last reset.
+   *
+   * @see #resetQueueMetrics()
+   */
+  public static int getPeakQueueDepth() {
+    return SnackbarManager.getInstance().getPeakQueueDepth();
+  }
+
+  /**
+   * Return the number of queued bars which were dropped because the queue was full, since the
+   * queue metrics were last reset.
+   *
+   * @see #resetQueueMetrics()
+   */
+  public static int getDroppedCount() {
+    return SnackbarManager.getInstance().getDroppedCount();
+  }
+
+  /**
+   * Return the number of bars which were coalesced with a queued or shown bar with the same key,
+   * since the queue metrics were last reset.
+   *
+   * @see #setCoalescingKey(String)
+   * @see #resetQueueMetrics()
+   */
+  public static int getCoalescedCount() {
+    return SnackbarManager.getInstance().getCoalescedCount();
+  }
+
+  /**
+   * Reset the peak queue depth to the current depth, and the dropped and coalesced counts to 0.
+   */
+  public static void resetQueueMetrics() {
+    SnackbarManager.getInstance().resetQueueMetrics();
+  }
+
   /** Returns the {@link BaseTransientBottomBar}'s context. */
   @NonNull
   public Context getContext() {
@@ -316,7 +464,7 @@ public abstract class BaseTransientBottomBar<B extends BaseTransientBottomBar<B>
 
   /** Show the {@link BaseTransientBottomBar}. */
   public void show() {
-    SnackbarManager.getInstance().show(mDuration, mManagerCallback);
+    SnackbarManager.getInstance().show(mDuration, mManagerCallback, mPriority, mCoalescingKey);
   }
 
   /** Dismiss the {@link BaseTransientBottomBar}. */
@@ -492,86 +640,28 @@ public abstract class BaseTransientBottomBar<B extends BaseTransientBottomBar<B>
 
   void animateViewIn() {
     final int viewHeight = mView.getHeight();
-    if (USE_OFFSET_API) {
-      ViewCompat.offsetTopAndBottom(mView, viewHeight);
-    } else {
-      mView.setTranslationY(viewHeight);
-    }
-
-    final ValueAnimator animator = new ValueAnimator();
-    animator.setIntValues(viewHeight, 0);
-    animator.setInterpolator(FAST_OUT_SLOW_IN_INTERPOLATOR);
-    animator.setDuration(ANIMATION_DURATION);
-    animator.addListener(
-        new AnimatorListenerAdapter() {
-          @Override
-          public void onAnimationStart(Animator animator) {
-            mContentViewCallback.animateContentIn(
-                ANIMATION_DURATION - ANIMATION_FADE_DURATION, ANIMATION_FADE_DURATION);
-          }
-
-          @Override
-          public void onAnimationEnd(Animator animator) {
-            onViewShown();
-          }
-        });
-    animator.addUpdateListener(
-        new ValueAnimator.AnimatorUpdateListener() {
-          private int previousAnimatedIntValue = viewHeight;
-
-          @Override
-          public void onAnimationUpdate(ValueAnimator animator) {
-            int currentAnimatedIntValue = (int) animator.getAnimatedValue();
-            if (USE_OFFSET_API) {
-              // On JB/KK versions of the platform sometimes View.setTranslationY does not
-              // result in layout / draw pass
-              ViewCompat.offsetTopAndBottom(
-                  mView, currentAnimatedIntValue - previousAnimatedIntValue);
-            } else {
-              mView.setTranslationY(currentAnimatedIntValue);
-            }
-            previousAnimatedIntValue = currentAnimatedIntValue;
-          }
-        });
-    animator.start();
+    mView.setTranslationY(viewHeight);
+    slideTo(true, 0, BaseCallback.DISMISS_EVENT_MANUAL);
   }
 
   private void animateViewOut(final int event) {
-      final ValueAnimator animator = new ValueAnimator();
-      animator.setIntValues(0, mView.getHeight());
-      animator.setInterpolator(FAST_OUT_SLOW_IN_INTERPOLATOR);
-      animator.setDuration(ANIMATION_DURATION);
-      animator.addListener(
-          new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationStart(Animator animator) {
-              mContentViewCallback.animateContentOut(0, ANIMATION_FADE_DURATION);
-            }
-
-            @Override
-            public void onAnimationEnd(Animator animator) {
-              onViewHidden(event);
-            }
-          });
-    animator.addUpdateListener(
-        new ValueAnimator.AnimatorUpdateListener() {
-          private int previousAnimatedIntValue = 0;
+    slideTo(false, mView.getHeight(), event);
+  }
 
-          @Override
-          public void onAnimationUpdate(ValueAnimator animator) {
-            int currentAnimatedIntValue = (int) animator.getAnimatedValue();
-            if (USE_OFFSET_API) {
-              // On JB/KK versions of the platform sometimes View.setTranslationY does not
-              // result in layout / draw pass
-              ViewCompat.offsetTopAndBottom(
-                  mView, currentAnimatedIntValue - previousAnimatedIntValue);
-            } else {
-              mView.setTranslationY(currentAnimatedIntValue);
-            }
-            previousAnimatedIntValue = currentAnimatedIntValue;
-          }
-        });
-      animator.start();
+  /**
+   * Slides the view to the given translation. If the view is already sliding, the running slide is
+   * retargeted from wherever the view is, rather than jumping back to the start of the new one.
+   */
+  private void slideTo(boolean in, int translationY, int event) {
+    SlideAnimation animation = mSlideAnimation;
+    if (animation == null) {
+      animation = sSlideAnimationPool.acquire();
+      if (animation == null) {
+        animation = new SlideAnimation();
+      }
+      mSlideAnimation = animation;
+    }
+    animation.start(this, in, translationY, event);
   }
 
   final void hideView(@BaseCallback.DismissEvent final int event) {
@@ -619,6 +709,10 @@ public abstract class BaseTransientBottomBar<B extends BaseTransientBottomBar<B>
     if (parent instanceof ViewGroup) {
       ((ViewGroup) parent).removeView(mView);
     }
+    if (mViewPool != null && mView.getParent() == null) {
+      mViewPool.release(mView);
+      mViewPool = null;
+    }
   }
 
   /** Returns true if we should animate the Snackbar view in/out. */
@@ -626,6 +720,116 @@ public abstract class BaseTransientBottomBar<B extends BaseTransientBottomBar<B>
     return !mAccessibilityManager.isEnabled();
   }
 
+  /**
+   * Slides a bar in or out. Its animator and listeners are created once and then pooled, since only
+   * one bar is usually shown at a time.
+   *
+   * <p>The view is only translated, and drawn from a hardware layer while it slides, so that every
+   * frame only moves the layer.
+   */
+  private static final class SlideAnimation extends AnimatorListenerAdapter
+      implements ValueAnimator.AnimatorUpdateListener {
+    private final ValueAnimator mAnimator;
+
+    @Nullable private BaseTransientBottomBar<?> mBar;
+    private boolean mIn;
+    private int mEvent;
+    private float mStartTranslationY;
+    private float mEndTranslationY;
+    private int mPreviousLayerType;
+    private boolean mRetargeting;
+
+    SlideAnimation() {
+      mAnimator = new ValueAnimator();
+      mAnimator.setFloatValues(0f, 1f);
+      mAnimator.setInterpolator(FAST_OUT_SLOW_IN_INTERPOLATOR);
+      mAnimator.addListener(this);
+      mAnimator.addUpdateListener(this);
+    }
+
+    void start(BaseTransientBottomBar<?> bar, boolean in, int translationY, int event) {
+      final View view = bar.mView;
+      final boolean running = mBar == bar && mAnimator.isStarted();
+      if (running && mIn && !in) {
+        // The slide in won't end now, but the bar still counts as shown before it's hidden
+        bar.onViewShown();
+      }
+      mBar = bar;
+      mIn = in;
+      mEvent = event;
+      mStartTranslationY = view.getTranslationY();
+      mEndTranslationY = translationY;
+
+      long duration = ANIMATION_DURATION;
+      if (running) {
+        // Retarget from where the view is, over the part of the slide which is left
+        final int height = view.getHeight();
+        if (height > 0) {
+          duration =
+              (long)
+                  (ANIMATION_DURATION
+                      * Math.min(1f, Math.abs(mEndTranslationY - mStartTranslationY) / height));
+        }
+        mRetargeting = true;
+        mAnimator.cancel();
+        mRetargeting = false;
+      } else {
+        mPreviousLayerType = view.getLayerType();
+        if (mPreviousLayerType == View.LAYER_TYPE_NONE && view.isHardwareAccelerated()) {
+          view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        }
+      }
+
+      mAnimator.setDuration(duration);
+      mAnimator.start();
+    }
+
+    @Override
+    public void onAnimationStart(Animator animator) {
+      if (mIn) {
+        mBar.mContentViewCallback.animateContentIn(
+            ANIMATION_DURATION - ANIMATION_FADE_DURATION, ANIMATION_FADE_DURATION);
+      } else {
+        mBar.mContentViewCallback.animateContentOut(
+            0, (int) Math.min(ANIMATION_FADE_DURATION, mAnimator.getDuration()));
+      }
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animator) {
+      final View view = mBar.mView;
+      view.setTranslationY(
+          AnimationUtils.lerp(
+              mStartTranslationY, mEndTranslationY, animator.getAnimatedFraction()));
+      if (INVALIDATE_PARENT_ON_TRANSLATION && view.getParent() instanceof View) {
+        ((View) view.getParent()).invalidate();
+      }
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animator) {
+      if (mRetargeting) {
+        // The slide carries on towards its new target
+        return;
+      }
+
+      final BaseTransientBottomBar<?> bar = mBar;
+      final View view = bar.mView;
+      if (view.getLayerType() != mPreviousLayerType) {
+        view.setLayerType(mPreviousLayerType, null);
+      }
+      bar.mSlideAnimation = null;
+      mBar = null;
+
+      if (mIn) {
+        bar.onViewShown();
+      } else {
+        bar.onViewHidden(mEvent);
+      }
+      sSlideAnimationPool.release(this);
+    }
+  }
+
   /** @hide */
   @RestrictTo(LIBRARY_GROUP)
   static class SnackbarBaseLayout extends FrameLayout {
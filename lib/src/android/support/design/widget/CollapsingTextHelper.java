@@ -30,6 +30,7 @@ import android.os.Build;
 import android.support.annotation.ColorInt;
 import android.support.annotation.VisibleForTesting;
 import android.support.design.animation.AnimationUtils;
+import android.support.design.animation.ColorRamp;
 import android.support.v4.text.TextDirectionHeuristicsCompat;
 import android.support.v4.view.GravityCompat;
 import android.support.v4.view.ViewCompat;
@@ -38,6 +39,7 @@ import android.text.TextPaint;
 import android.text.TextUtils;
 import android.view.Gravity;
 import android.view.View;
+import java.util.Arrays;
 
 final class CollapsingTextHelper {
 
@@ -45,6 +47,12 @@ final class CollapsingTextHelper {
   // by using our own texture
   private static final boolean USE_SCALING_TEXTURE = Build.VERSION.SDK_INT < 18;
 
+  /** The maximum number of released snapshot bitmaps kept around for reuse. */
+  private static final int SNAPSHOT_BITMAP_POOL_SIZE = 4;
+
+  // Only accessed from the UI thread
+  private static final Bitmap[] sSnapshotBitmapPool = new Bitmap[SNAPSHOT_BITMAP_POOL_SIZE];
+
   private static final boolean DEBUG_DRAW = false;
   private static final Paint DEBUG_DRAW_PAINT;
 
@@ -93,6 +101,14 @@ final class CollapsingTextHelper {
 
   private float mScale;
   private float mCurrentTextSize;
+  private float mAvailableWidth;
+
+  private boolean mUseSnapshots;
+  private TitleSnapshot mCollapsedSnapshot;
+  private TitleSnapshot mExpandedSnapshot;
+  private Paint mSnapshotPaint;
+  private float mSnapshotTextSize;
+  private int mSnapshotRenderCount;
 
   private int[] mState;
 
@@ -114,6 +130,10 @@ final class CollapsingTextHelper {
   private float mExpandedShadowDy;
   private int mExpandedShadowColor;
 
+  // Blends the colors of the current state, or null if they need to be resolved
+  private ColorRamp mTextColorRamp;
+  private ColorRamp mShadowColorRamp;
+
   public CollapsingTextHelper(View view) {
     mView = view;
 
@@ -163,6 +183,43 @@ final class CollapsingTextHelper {
     }
   }
 
+  /**
+   * Sets whether the title should be drawn from bitmap snapshots of its collapsed and expanded
+   * states. The snapshots are only rendered when the text, its size, typeface, color or available
+   * width change, and intermediate frames cross-fade and scale between them rather than measuring
+   * and ellipsizing the text again.
+   */
+  void setSnapshotsEnabled(boolean enabled) {
+    if (mUseSnapshots != enabled) {
+      mUseSnapshots = enabled;
+      if (!enabled) {
+        releaseSnapshots();
+      }
+      recalculate();
+    }
+  }
+
+  boolean isSnapshotsEnabled() {
+    return mUseSnapshots;
+  }
+
+  /** Returns the number of times that a snapshot of the title has been rendered. */
+  @VisibleForTesting
+  int getSnapshotRenderCount() {
+    return mSnapshotRenderCount;
+  }
+
+  @VisibleForTesting
+  Bitmap getCollapsedSnapshotBitmap() {
+    return mCollapsedSnapshot != null ? mCollapsedSnapshot.mBitmap : null;
+  }
+
+  /** Clears the pool of bitmaps which are reused for snapshots. */
+  @VisibleForTesting
+  static void clearSnapshotBitmapPool() {
+    Arrays.fill(sSnapshotBitmapPool, null);
+  }
+
   void setExpandedBounds(int left, int top, int right, int bottom) {
     if (!rectEquals(mExpandedBounds, left, top, right, bottom)) {
       mExpandedBounds.set(left, top, right, bottom);
@@ -398,20 +455,19 @@ final class CollapsingTextHelper {
     setInterpolatedTextSize(
         lerp(mExpandedTextSize, mCollapsedTextSize, fraction, mTextSizeInterpolator));
 
-    if (mCollapsedTextColor != mExpandedTextColor) {
-      // If the collapsed and expanded text colors are different, blend them based on the
+    if (mTextColorRamp == null) {
+      // If the collapsed and expanded text colors are different, they are blended based on the
       // fraction
-      mTextPaint.setColor(
-          blendColors(getCurrentExpandedTextColor(), getCurrentCollapsedTextColor(), fraction));
-    } else {
-      mTextPaint.setColor(getCurrentCollapsedTextColor());
+      mTextColorRamp = ColorRamp.get(getCurrentExpandedTextColor(), getCurrentCollapsedTextColor());
+      mShadowColorRamp = ColorRamp.get(mExpandedShadowColor, mCollapsedShadowColor);
     }
+    mTextPaint.setColor(mTextColorRamp.getColor(fraction));
 
     mTextPaint.setShadowLayer(
         lerp(mExpandedShadowRadius, mCollapsedShadowRadius, fraction, null),
         lerp(mExpandedShadowDx, mCollapsedShadowDx, fraction, null),
         lerp(mExpandedShadowDy, mCollapsedShadowDy, fraction, null),
-        blendColors(mExpandedShadowColor, mCollapsedShadowColor, fraction));
+        mShadowColorRamp.getColor(fraction));
 
     ViewCompat.postInvalidateOnAnimation(mView);
   }
@@ -472,6 +528,15 @@ final class CollapsingTextHelper {
         mCollapsedDrawX = mCollapsedBounds.left;
         break;
     }
+    mCollapsedSnapshot =
+        updateSnapshot(
+            mCollapsedSnapshot,
+            mCollapsedTextSize,
+            getCurrentCollapsedTextColor(),
+            mCollapsedShadowRadius,
+            mCollapsedShadowDx,
+            mCollapsedShadowDy,
+            mCollapsedShadowColor);
 
     calculateUsingTextSize(mExpandedTextSize);
     width = mTextToDraw != null ? mTextPaint.measureText(mTextToDraw, 0, mTextToDraw.length()) : 0;
@@ -505,6 +570,15 @@ final class CollapsingTextHelper {
         mExpandedDrawX = mExpandedBounds.left;
         break;
     }
+    mExpandedSnapshot =
+        updateSnapshot(
+            mExpandedSnapshot,
+            mExpandedTextSize,
+            getCurrentExpandedTextColor(),
+            mExpandedShadowRadius,
+            mExpandedShadowDx,
+            mExpandedShadowDy,
+            mExpandedShadowColor);
 
     // The bounds have changed so we need to clear the texture
     clearTexture();
@@ -525,7 +599,9 @@ final class CollapsingTextHelper {
   public void draw(Canvas canvas) {
     final int saveCount = canvas.save();
 
-    if (mTextToDraw != null && mDrawTitle) {
+    if (mDrawTitle && hasSnapshots()) {
+      drawSnapshots(canvas);
+    } else if (mTextToDraw != null && mDrawTitle) {
       float x = mCurrentDrawX;
       float y = mCurrentDrawY;
 
@@ -566,6 +642,148 @@ final class CollapsingTextHelper {
     canvas.restoreToCount(saveCount);
   }
 
+  private void drawSnapshots(Canvas canvas) {
+    final float x = mCurrentDrawX;
+    final float y = mCurrentDrawY;
+    // Cross-fade with the same fraction which is used to blend the text colors
+    final float fraction = mExpandedFraction;
+    drawSnapshot(
+        canvas, mExpandedSnapshot, mSnapshotTextSize / mExpandedTextSize, 1f - fraction, x, y);
+    drawSnapshot(
+        canvas, mCollapsedSnapshot, mSnapshotTextSize / mCollapsedTextSize, fraction, x, y);
+  }
+
+  private void drawSnapshot(
+      Canvas canvas, TitleSnapshot snapshot, float scale, float alpha, float x, float y) {
+    if (alpha <= 0f) {
+      return;
+    }
+    final int saveCount = canvas.save();
+    if (scale != 1f) {
+      canvas.scale(scale, scale, x, y);
+    }
+    mSnapshotPaint.setAlpha(Math.round(alpha * 255));
+    canvas.drawBitmap(
+        snapshot.mBitmap,
+        x - snapshot.mPadding,
+        y + snapshot.mAscent - snapshot.mPadding,
+        mSnapshotPaint);
+    canvas.restoreToCount(saveCount);
+  }
+
+  private boolean hasSnapshots() {
+    return mUseSnapshots && mCollapsedSnapshot != null && mExpandedSnapshot != null;
+  }
+
+  /**
+   * Returns a snapshot of {@link #mTextToDraw}, as laid out by the last call to {@link
+   * #calculateUsingTextSize(float)}, reusing {@code snapshot} if it is still up to date.
+   */
+  private TitleSnapshot updateSnapshot(
+      TitleSnapshot snapshot,
+      float textSize,
+      int color,
+      float shadowRadius,
+      float shadowDx,
+      float shadowDy,
+      int shadowColor) {
+    if (!mUseSnapshots || TextUtils.isEmpty(mTextToDraw)) {
+      releaseSnapshot(snapshot);
+      return null;
+    }
+    if (snapshot != null
+        && snapshot.matches(
+            mText,
+            textSize,
+            mCurrentTypeface,
+            mAvailableWidth,
+            color,
+            shadowRadius,
+            shadowDx,
+            shadowDy,
+            shadowColor)) {
+      return snapshot;
+    }
+    releaseSnapshot(snapshot);
+
+    mTmpPaint.set(mTextPaint);
+    mTmpPaint.setTextSize(textSize);
+    mTmpPaint.setTypeface(mCurrentTypeface);
+    mTmpPaint.setLinearText(false);
+    mTmpPaint.setColor(color);
+    mTmpPaint.setShadowLayer(shadowRadius, shadowDx, shadowDy, shadowColor);
+
+    final float ascent = mTmpPaint.ascent();
+    final float descent = mTmpPaint.descent();
+    // Leave enough room around the text for its shadow
+    final int padding =
+        (int) Math.ceil(shadowRadius + Math.max(Math.abs(shadowDx), Math.abs(shadowDy)));
+    final int w =
+        Math.round(mTmpPaint.measureText(mTextToDraw, 0, mTextToDraw.length())) + 2 * padding;
+    final int h = Math.round(descent - ascent) + 2 * padding;
+    if (w <= 0 || h <= 0) {
+      return null;
+    }
+
+    final Bitmap bitmap = acquireSnapshotBitmap(w, h);
+    final Canvas c = new Canvas(bitmap);
+    c.drawText(mTextToDraw, 0, mTextToDraw.length(), padding, padding - ascent, mTmpPaint);
+    mSnapshotRenderCount++;
+
+    if (mSnapshotPaint == null) {
+      mSnapshotPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    }
+    return new TitleSnapshot(
+        mText,
+        textSize,
+        mCurrentTypeface,
+        mAvailableWidth,
+        color,
+        shadowRadius,
+        shadowDx,
+        shadowDy,
+        shadowColor,
+        bitmap,
+        padding,
+        ascent);
+  }
+
+  private void releaseSnapshots() {
+    releaseSnapshot(mCollapsedSnapshot);
+    mCollapsedSnapshot = null;
+    releaseSnapshot(mExpandedSnapshot);
+    mExpandedSnapshot = null;
+  }
+
+  private static void releaseSnapshot(TitleSnapshot snapshot) {
+    if (snapshot != null) {
+      releaseSnapshotBitmap(snapshot.mBitmap);
+    }
+  }
+
+  private static Bitmap acquireSnapshotBitmap(int width, int height) {
+    for (int i = 0; i < SNAPSHOT_BITMAP_POOL_SIZE; i++) {
+      final Bitmap bitmap = sSnapshotBitmapPool[i];
+      if (bitmap != null && bitmap.getWidth() >= width && bitmap.getHeight() >= height) {
+        // The snapshot is drawn from the top-left, so a larger bitmap works as long as it's clear
+        sSnapshotBitmapPool[i] = null;
+        bitmap.eraseColor(Color.TRANSPARENT);
+        return bitmap;
+      }
+    }
+    return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+  }
+
+  private static void releaseSnapshotBitmap(Bitmap bitmap) {
+    for (int i = 0; i < SNAPSHOT_BITMAP_POOL_SIZE; i++) {
+      if (sSnapshotBitmapPool[i] == null) {
+        sSnapshotBitmapPool[i] = bitmap;
+        return;
+      }
+    }
+    bitmap.recycle();
+  }
+
   private boolean calculateIsRtl(CharSequence text) {
     final boolean defaultIsRtl =
         ViewCompat.getLayoutDirection(mView) == ViewCompat.LAYOUT_DIRECTION_RTL;
@@ -576,6 +794,13 @@ final class CollapsingTextHelper {
   }
 
   private void setInterpolatedTextSize(float textSize) {
+    if (hasSnapshots()) {
+      // The snapshots are scaled to the text size when drawn, so there is nothing to lay out
+      mSnapshotTextSize = textSize;
+      ViewCompat.postInvalidateOnAnimation(mView);
+      return;
+    }
+
     calculateUsingTextSize(textSize);
 
     // Use our texture if the scale isn't 1.0
@@ -638,6 +863,7 @@ final class CollapsingTextHelper {
       }
     }
 
+    mAvailableWidth = availableWidth;
     if (availableWidth > 0) {
       updateDrawText = (mCurrentTextSize != newTextSize) || mBoundsChanged || updateDrawText;
       mCurrentTextSize = newTextSize;
@@ -690,6 +916,9 @@ final class CollapsingTextHelper {
   }
 
   public void recalculate() {
+    // The colors may have changed, so resolve them again on the next frame
+    mTextColorRamp = null;
+    mShadowColorRamp = null;
     if (mView.getHeight() > 0 && mView.getWidth() > 0) {
       // If we've already been laid out, calculate everything now otherwise we'll wait
       // until a layout
@@ -739,21 +968,6 @@ final class CollapsingTextHelper {
     return mCollapsedTextColor;
   }
 
-  /**
-   * Blend {@code color1} and {@code color2} using the given ratio.
-   *
-   * @param ratio of which to blend. 0.0 will return {@code color1}, 0.5 will give an even blend,
-   *     1.0 will return {@code color2}.
-   */
-  private static int blendColors(int color1, int color2, float ratio) {
-    final float inverseRatio = 1f - ratio;
-    float a = (Color.alpha(color1) * inverseRatio) + (Color.alpha(color2) * ratio);
-    float r = (Color.red(color1) * inverseRatio) + (Color.red(color2) * ratio);
-    float g = (Color.green(color1) * inverseRatio) + (Color.green(color2) * ratio);
-    float b = (Color.blue(color1) * inverseRatio) + (Color.blue(color2) * ratio);
-    return Color.argb((int) a, (int) r, (int) g, (int) b);
-  }
-
   private static float lerp(
       float startValue, float endValue, float fraction, TimeInterpolator interpolator) {
     if (interpolator != null) {
@@ -765,4 +979,72 @@ final class CollapsingTextHelper {
   private static boolean rectEquals(Rect r, int left, int top, int right, int bottom) {
     return !(r.left != left || r.top != top || r.right != right || r.bottom != bottom);
   }
+
+  /** A bitmap of the title rendered at either its collapsed or expanded text size. */
+  private static final class TitleSnapshot {
+    final CharSequence mText;
+    final float mTextSize;
+    final Typeface mTypeface;
+    final float mAvailableWidth;
+    final int mColor;
+    final float mShadowRadius;
+    final float mShadowDx;
+    final float mShadowDy;
+    final int mShadowColor;
+
+    final Bitmap mBitmap;
+    /** The space left around the text for its shadow, in pixels. */
+    final int mPadding;
+    /** The ascent of the text, so that it can be drawn relative to its baseline. */
+    final float mAscent;
+
+    TitleSnapshot(
+        CharSequence text,
+        float textSize,
+        Typeface typeface,
+        float availableWidth,
+        int color,
+        float shadowRadius,
+        float shadowDx,
+        float shadowDy,
+        int shadowColor,
+        Bitmap bitmap,
+        int padding,
+        float ascent) {
+      mText = text;
+      mTextSize = textSize;
+      mTypeface = typeface;
+      mAvailableWidth = availableWidth;
+      mColor = color;
+      mShadowRadius = shadowRadius;
+      mShadowDx = shadowDx;
+      mShadowDy = shadowDy;
+      mShadowColor = shadowColor;
+      mBitmap = bitmap;
+      mPadding = padding;
+      mAscent = ascent;
+    }
+
+    @SuppressWarnings("ReferenceEquality") // Matches the Typeface comparison in TextView
+    boolean matches(
+        CharSequence text,
+        float textSize,
+        Typeface typeface,
+        float availableWidth,
+        int color,
+        float shadowRadius,
+        float shadowDx,
+        float shadowDy,
+        int shadowColor) {
+      return TextUtils.equals(mText, text)
+          && mTextSize == textSize
+          && mTypeface == typeface
+          && mAvailableWidth == availableWidth
+          && mColor == color
+          && mShadowRadius == shadowRadius
+          && mShadowDx == shadowDx
+          && mShadowDy == shadowDy
+          && mShadowColor == shadowColor;
+    }
+  }
 }
@@ -568,6 +568,27 @@ public class CollapsingToolbarLayout extends FrameLayout {
     return mCollapsingTitleEnabled;
   }
 
+  /**
+   * Sets whether the title should be drawn from cached snapshots of its collapsed and expanded
+   * states. When enabled, the title is only measured and rendered when its text, appearance or
+   * bounds change, and scrolling cross-fades and scales between the two snapshots. This trades a
+   * small amount of memory for cheaper frames while the layout collapses.
+   *
+   * @see #isTitleSnapshotsEnabled()
+   */
+  public void setTitleSnapshotsEnabled(boolean enabled) {
+    mCollapsingTextHelper.setSnapshotsEnabled(enabled);
+  }
+
+  /**
+   * Returns whether the title is drawn from cached snapshots of its collapsed and expanded states.
+   *
+   * @see #setTitleSnapshotsEnabled(boolean)
+   */
+  public boolean isTitleSnapshotsEnabled() {
+    return mCollapsingTextHelper.isSnapshotsEnabled();
+  }
+
   /**
    * Set whether the content scrim and/or status bar scrim should be shown or not. Any change in the
    * vertical scroll may overwrite this value. Any visibility change will be animated if this view
@@ -24,6 +24,7 @@ import android.content.res.Resources;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.Region;
@@ -45,7 +46,6 @@ import android.support.annotation.VisibleForTesting;
 import android.support.design.R;
 import android.support.v4.content.ContextCompat;
 import android.support.v4.graphics.drawable.DrawableCompat;
-import android.support.v4.util.Pools;
 import android.support.v4.view.AbsSavedState;
 import android.support.v4.view.GravityCompat;
 import android.support.v4.view.NestedScrollingParent;
@@ -70,10 +70,9 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * CoordinatorLayout is a super-powered {@link android.widget.FrameLayout FrameLayout}.
@@ -118,17 +117,28 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
   private static final int TYPE_ON_INTERCEPT = 0;
   private static final int TYPE_ON_TOUCH = 1;
 
-  static {
-    if (Build.VERSION.SDK_INT >= 21) {
-      TOP_SORTED_CHILDREN_COMPARATOR = new ViewElevationComparator();
-    } else {
-      TOP_SORTED_CHILDREN_COMPARATOR = null;
-    }
-  }
-
   static final Class<?>[] CONSTRUCTOR_PARAMS = new Class<?>[] {Context.class, AttributeSet.class};
 
-  static final ThreadLocal<Map<String, Constructor<Behavior>>> sConstructors = new ThreadLocal<>();
+  static final Map<String, Constructor<Behavior>> sConstructors = new ConcurrentHashMap<>();
+
+  /** Factories registered through {@link #registerDefaultBehavior}, keyed by view class. */
+  static final Map<Class<?>, DefaultBehaviorFactory> sRegisteredBehaviorFactories =
+      new ConcurrentHashMap<>();
+
+  /**
+   * The resolved default behavior factory for each view class seen so far, including {@link
+   * #NO_DEFAULT_BEHAVIOR} for classes which do not have one.
+   */
+  static final Map<Class<?>, DefaultBehaviorFactory> sResolvedBehaviorFactories =
+      new ConcurrentHashMap<>();
+
+  static final DefaultBehaviorFactory NO_DEFAULT_BEHAVIOR =
+      new DefaultBehaviorFactory() {
+        @Override
+        public Behavior createBehavior() {
+          return null;
+        }
+      };
 
   static final int EVENT_PRE_DRAW = 0;
   static final int EVENT_NESTED_SCROLL = 1;
@@ -140,26 +150,36 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
   @IntDef({EVENT_PRE_DRAW, EVENT_NESTED_SCROLL, EVENT_VIEW_REMOVED})
   public @interface DispatchChangeEvent {}
 
-  static final Comparator<View> TOP_SORTED_CHILDREN_COMPARATOR;
-  private static final Pools.Pool<Rect> sRectPool = new Pools.SynchronizedPool<>(12);
-
   @NonNull
   private static Rect acquireTempRect() {
-    Rect rect = sRectPool.acquire();
-    if (rect == null) {
-      rect = new Rect();
-    }
-    return rect;
+    return GeometryPool.acquireRect();
   }
 
   private static void releaseTempRect(@NonNull Rect rect) {
-    rect.setEmpty();
-    sRectPool.release(rect);
+    GeometryPool.releaseRect(rect);
   }
 
   private final List<View> mDependencySortedChildren = new ArrayList<>();
   private final DirectedAcyclicGraph<View> mChildDag = new DirectedAcyclicGraph<>();
 
+  private final List<View> mRemovedDependencyChildren = new ArrayList<>();
+  private final List<View> mDirtyDependencyChildren = new ArrayList<>();
+  private boolean mIncrementalDependencyUpdates;
+  private boolean mChildDagValid;
+  private int mChildDagLayoutDirection;
+  private int mFullDependencyRebuildCount;
+  private int mIncrementalDependencyRebuildCount;
+  // Whether every child needs its position checked on the next change, such as after a layout
+  private boolean mChildPositionsInvalid = true;
+  private int mCheckedChildCount;
+
+  // Children in reverse drawing order, and their Z values, as of the last z-order sort
+  private final List<View> mDrawOrderedChildren = new ArrayList<>();
+  private float[] mDrawOrderedChildrenZ = new float[0];
+  // The same children, sorted such that the topmost views in z-order are at the front
+  private final ZSortedList<View> mTopSortedChildren = new ZSortedList<>();
+  private int mTopSortedChildrenSortCount;
+
   private final List<View> mTempList1 = new ArrayList<>();
   private final List<View> mTempDependenciesList = new ArrayList<>();
   private final int[] mTempIntPair = new int[2];
@@ -406,17 +426,64 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
   private void getTopSortedChildren(List<View> out) {
     out.clear();
 
-    final boolean useCustomOrder = isChildrenDrawingOrderEnabled();
+    if (!isTopSortedChildrenValid()) {
+      sortChildrenByZ();
+    }
+    for (int i = 0, size = mTopSortedChildren.size(); i < size; i++) {
+      out.add(mTopSortedChildren.get(i));
+    }
+  }
+
+  /**
+   * Returns true if the children, their drawing order and their Z values are all unchanged since
+   * the last time they were sorted.
+   */
+  private boolean isTopSortedChildrenValid() {
     final int childCount = getChildCount();
-    for (int i = childCount - 1; i >= 0; i--) {
+    if (childCount != mDrawOrderedChildren.size()) {
+      return false;
+    }
+    final boolean useCustomOrder = isChildrenDrawingOrderEnabled();
+    final boolean useZ = Build.VERSION.SDK_INT >= 21;
+    for (int i = childCount - 1, j = 0; i >= 0; i--, j++) {
       final int childIndex = useCustomOrder ? getChildDrawingOrder(childCount, i) : i;
       final View child = getChildAt(childIndex);
-      out.add(child);
+      if (child != mDrawOrderedChildren.get(j)
+          || (useZ && ViewCompat.getZ(child) != mDrawOrderedChildrenZ[j])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sorts the children such that the topmost views in z-order are at the front. Views with equal Z
+   * values are kept in reverse drawing order.
+   */
+  private void sortChildrenByZ() {
+    final boolean useCustomOrder = isChildrenDrawingOrderEnabled();
+    final boolean useZ = Build.VERSION.SDK_INT >= 21;
+    final int childCount = getChildCount();
+    if (mDrawOrderedChildrenZ.length < childCount) {
+      mDrawOrderedChildrenZ = new float[childCount];
     }
+    mDrawOrderedChildren.clear();
+    mTopSortedChildren.clear();
 
-    if (TOP_SORTED_CHILDREN_COMPARATOR != null) {
-      Collections.sort(out, TOP_SORTED_CHILDREN_COMPARATOR);
+    for (int i = childCount - 1, j = 0; i >= 0; i--, j++) {
+      final int childIndex = useCustomOrder ? getChildDrawingOrder(childCount, i) : i;
+      final View child = getChildAt(childIndex);
+      final float z = useZ ? ViewCompat.getZ(child) : 0f;
+      mDrawOrderedChildren.add(child);
+      mDrawOrderedChildrenZ[j] = z;
+      mTopSortedChildren.add(child, z);
     }
+    mTopSortedChildrenSortCount++;
+  }
+
+  @VisibleForTesting
+  final int getTopSortedChildrenSortCount() {
+    return mTopSortedChildrenSortCount;
   }
 
   private boolean performIntercept(MotionEvent ev, final int type) {
@@ -596,18 +663,13 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
     }
 
     try {
-      Map<String, Constructor<Behavior>> constructors = sConstructors.get();
-      if (constructors == null) {
-        constructors = new HashMap<>();
-        sConstructors.set(constructors);
-      }
-      Constructor<Behavior> c = constructors.get(fullName);
+      Constructor<Behavior> c = sConstructors.get(fullName);
       if (c == null) {
         final Class<Behavior> clazz =
             (Class<Behavior>) context.getClassLoader().loadClass(fullName);
         c = clazz.getConstructor(CONSTRUCTOR_PARAMS);
         c.setAccessible(true);
-        constructors.put(fullName, c);
+        sConstructors.put(fullName, c);
       }
       return c.newInstance(context, attrs);
     } catch (Exception e) {
@@ -615,23 +677,62 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
     }
   }
 
+  /**
+   * Registers a factory for the default {@link Behavior} of the given view class and its
+   * subclasses. This takes the place of any {@link DefaultBehavior} annotation on the class,
+   * allowing the default behavior to be created without reflection.
+   *
+   * <p>A {@link DefaultBehavior} annotation or registered factory on a subclass still takes
+   * precedence over one registered for the given class.
+   *
+   * @param viewClass the view class to register the factory for
+   * @param factory the factory which creates the default behavior for {@code viewClass}
+   */
+  public static void registerDefaultBehavior(
+      @NonNull Class<? extends View> viewClass, @NonNull DefaultBehaviorFactory factory) {
+    sRegisteredBehaviorFactories.put(viewClass, factory);
+    // Classes which have already been resolved may now resolve to the new factory
+    sResolvedBehaviorFactories.clear();
+  }
+
+  /**
+   * Returns the factory for the default behavior of the given view class, or null if it does not
+   * have one. The result is cached for the lifetime of the process.
+   */
+  @Nullable
+  static DefaultBehaviorFactory getDefaultBehaviorFactory(@NonNull Class<?> viewClass) {
+    DefaultBehaviorFactory factory = sResolvedBehaviorFactories.get(viewClass);
+    if (factory == null) {
+      factory = NO_DEFAULT_BEHAVIOR;
+      for (Class<?> c = viewClass; c != null; c = c.getSuperclass()) {
+        final DefaultBehaviorFactory registered = sRegisteredBehaviorFactories.get(c);
+        if (registered != null) {
+          factory = registered;
+          break;
+        }
+        final DefaultBehavior defaultBehavior = c.getAnnotation(DefaultBehavior.class);
+        if (defaultBehavior != null) {
+          factory = new ReflectiveBehaviorFactory(defaultBehavior.value());
+          break;
+        }
+      }
+      sResolvedBehaviorFactories.put(viewClass, factory);
+    }
+    return factory != NO_DEFAULT_BEHAVIOR ? factory : null;
+  }
+
   LayoutParams getResolvedLayoutParams(View child) {
     final LayoutParams result = (LayoutParams) child.getLayoutParams();
     if (!result.mBehaviorResolved) {
-      Class<?> childClass = child.getClass();
-      DefaultBehavior defaultBehavior = null;
-      while (childClass != null
-          && (defaultBehavior = childClass.getAnnotation(DefaultBehavior.class)) == null) {
-        childClass = childClass.getSuperclass();
-      }
-      if (defaultBehavior != null) {
+      final DefaultBehaviorFactory factory = getDefaultBehaviorFactory(child.getClass());
+      if (factory != null) {
         try {
-          result.setBehavior(defaultBehavior.value().newInstance());
+          result.setBehavior(factory.createBehavior());
         } catch (Exception e) {
           Log.e(
               TAG,
-              "Default behavior class "
-                  + defaultBehavior.value().getName()
+              "Default behavior for "
+                  + child.getClass().getName()
                   + " could not be instantiated. Did you forget a default constructor?",
               e);
         }
@@ -641,8 +742,153 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
     return result;
   }
 
+  /**
+   * Sets whether child dependencies should be updated incrementally.
+   *
+   * <p>By default every measure pass re-evaluates the dependencies between every pair of children.
+   * When incremental updates are enabled, only children which have been added since the last pass,
+   * or whose {@link Behavior}, anchor or inset edges have changed, are re-evaluated and the
+   * dependency sorted order is kept between passes otherwise.
+   *
+   * <p>This relies on {@link Behavior#layoutDependsOn(CoordinatorLayout, View, View)} returning a
+   * stable result for a given pair of views. If a Behavior's dependencies change for any other
+   * reason, {@link #invalidateChildDependencies(View)} must be called for the affected child.
+   *
+   * @param enabled true to update child dependencies incrementally
+   */
+  public void setIncrementalDependencyUpdatesEnabled(boolean enabled) {
+    if (mIncrementalDependencyUpdates != enabled) {
+      mIncrementalDependencyUpdates = enabled;
+      mChildDagValid = false;
+      requestLayout();
+    }
+  }
+
+  /**
+   * Returns whether child dependencies are updated incrementally.
+   *
+   * @see #setIncrementalDependencyUpdatesEnabled(boolean)
+   */
+  public boolean isIncrementalDependencyUpdatesEnabled() {
+    return mIncrementalDependencyUpdates;
+  }
+
+  /**
+   * Marks the dependencies of the given child as stale, so that they are re-evaluated on the next
+   * layout pass. Only needed when {@link #setIncrementalDependencyUpdatesEnabled(boolean)
+   * incremental dependency updates} are enabled.
+   *
+   * @param child the direct child view whose dependencies have changed
+   */
+  public void invalidateChildDependencies(@NonNull View child) {
+    final ViewGroup.LayoutParams lp = child.getLayoutParams();
+    if (lp instanceof LayoutParams) {
+      ((LayoutParams) lp).mDependenciesDirty = true;
+      requestLayout();
+    }
+  }
+
+  @VisibleForTesting
+  final int getFullDependencyRebuildCount() {
+    return mFullDependencyRebuildCount;
+  }
+
+  @VisibleForTesting
+  final int getIncrementalDependencyRebuildCount() {
+    return mIncrementalDependencyRebuildCount;
+  }
+
   private void prepareChildren() {
-    mDependencySortedChildren.clear();
+    if (mIncrementalDependencyUpdates
+        && mChildDagValid
+        && mChildDagLayoutDirection == ViewCompat.getLayoutDirection(this)
+        && updateChildDependencies()) {
+      return;
+    }
+    rebuildChildDependencies();
+  }
+
+  /**
+   * Re-evaluates the dependencies of any children which have changed since the last pass.
+   *
+   * @return false if too many children have changed and a full rebuild should be done instead
+   */
+  private boolean updateChildDependencies() {
+    boolean changed = false;
+
+    // First drop any children which have been removed since the last pass
+    for (int i = 0, size = mRemovedDependencyChildren.size(); i < size; i++) {
+      final View removed = mRemovedDependencyChildren.get(i);
+      if (removed.getParent() != this && mChildDag.contains(removed)) {
+        mChildDag.removeNode(removed);
+        changed = true;
+      }
+    }
+    mRemovedDependencyChildren.clear();
+
+    // Now find any children which need their dependencies re-evaluating
+    final List<View> dirty = mDirtyDependencyChildren;
+    final int count = getChildCount();
+    for (int i = 0; i < count; i++) {
+      final View view = getChildAt(i);
+      final LayoutParams lp = getResolvedLayoutParams(view);
+      final View previousAnchor = lp.mAnchorDirectChild;
+      lp.findAnchorView(this, view);
+
+      if (lp.mAnchorDirectChild != previousAnchor
+          || lp.haveDependenciesChanged()
+          || !mChildDag.contains(view)) {
+        dirty.add(view);
+      }
+    }
+
+    if (dirty.size() * 2 > count) {
+      // Re-evaluating this many children costs about as much as a full rebuild
+      dirty.clear();
+      return false;
+    }
+
+    for (int i = 0, size = dirty.size(); i < size; i++) {
+      final View view = dirty.get(i);
+      final LayoutParams lp = (LayoutParams) view.getLayoutParams();
+      if (mChildDag.contains(view)) {
+        mChildDag.removeEdges(view);
+      } else {
+        mChildDag.addNode(view);
+      }
+
+      for (int j = 0; j < count; j++) {
+        final View other = getChildAt(j);
+        if (other == view) {
+          continue;
+        }
+        final LayoutParams otherLp = (LayoutParams) other.getLayoutParams();
+        final boolean otherDependsOnView = otherLp.dependsOn(this, other, view);
+        final boolean viewDependsOnOther = lp.dependsOn(this, view, other);
+        if ((otherDependsOnView || viewDependsOnOther) && !mChildDag.contains(other)) {
+          // Make sure that the other node is added
+          mChildDag.addNode(other);
+        }
+        if (otherDependsOnView) {
+          mChildDag.addEdge(view, other);
+        }
+        if (viewDependsOnOther) {
+          mChildDag.addEdge(other, view);
+        }
+      }
+      lp.onDependenciesResolved();
+      changed = true;
+    }
+    dirty.clear();
+
+    if (changed) {
+      updateDependencySortedChildren();
+      mIncrementalDependencyRebuildCount++;
+    }
+    return true;
+  }
+
+  private void rebuildChildDependencies() {
     mChildDag.clear();
 
     for (int i = 0, count = getChildCount(); i < count; i++) {
@@ -669,9 +915,20 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
           mChildDag.addEdge(view, other);
         }
       }
+      lp.onDependenciesResolved();
     }
 
-    // Finally add the sorted graph list to our list
+    mRemovedDependencyChildren.clear();
+    mChildDagLayoutDirection = ViewCompat.getLayoutDirection(this);
+    mChildDagValid = true;
+    mFullDependencyRebuildCount++;
+
+    updateDependencySortedChildren();
+  }
+
+  private void updateDependencySortedChildren() {
+    mDependencySortedChildren.clear();
+    // Add the sorted graph list to our list
     mDependencySortedChildren.addAll(mChildDag.getSortedList());
     // We also need to reverse the result since we want the start of the list to contain
     // Views which have no dependencies, then dependent views after that
@@ -862,6 +1119,8 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
 
   @Override
   protected void onLayout(boolean changed, int l, int t, int r, int b) {
+    // Anchors and insets are applied again from scratch after a layout
+    mChildPositionsInvalid = true;
     final int layoutDirection = ViewCompat.getLayoutDirection(this);
     final int childCount = mDependencySortedChildren.size();
     for (int i = 0; i < childCount; i++) {
@@ -1290,38 +1549,43 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
         continue;
       }
 
-      // Check child views before for anchor
-      for (int j = 0; j < i; j++) {
-        final View checkChild = mDependencySortedChildren.get(j);
+      final List<View> dependents = mChildDag.getIncomingEdges(child);
+      final boolean hasDependents = dependents != null && !dependents.isEmpty();
+      if (type != EVENT_VIEW_REMOVED
+          && !hasDependents
+          && lp.mAnchorDirectChild == null
+          && lp.insetEdge == Gravity.NO_GRAVITY
+          && lp.dodgeInsetEdges == Gravity.NO_GRAVITY) {
+        // Nothing is affected by this child moving, and it is not affected by any other child
+        // moving, so there is no need to check its position.
+        continue;
+      }
 
-        if (lp.mAnchorDirectChild == checkChild) {
-          offsetChildToAnchor(child, layoutDirection);
-        }
+      // Only children which have moved since they were last checked, or which depend on a child
+      // which has, need their positions working out again. Any others are where they were drawn.
+      final boolean dirty =
+          type == EVENT_VIEW_REMOVED
+              || mChildPositionsInvalid
+              || lp.mDependencyMoved
+              || lp.hasMovedSinceLastCheck(child);
+      lp.mDependencyMoved = false;
+      if (!dirty) {
+        getLastChildRect(child, drawRect);
+        accumulateInset(lp, drawRect, inset, layoutDirection);
+        continue;
+      }
+      mCheckedChildCount++;
+
+      // The anchor is a dependency, so it will always have been visited before this child
+      if (lp.mAnchorDirectChild != null) {
+        offsetChildToAnchor(child, layoutDirection);
       }
 
       // Get the current draw rect of the view
       getChildRect(child, true, drawRect);
 
       // Accumulate inset sizes
-      if (lp.insetEdge != Gravity.NO_GRAVITY && !drawRect.isEmpty()) {
-        final int absInsetEdge = GravityCompat.getAbsoluteGravity(lp.insetEdge, layoutDirection);
-        switch (absInsetEdge & Gravity.VERTICAL_GRAVITY_MASK) {
-          case Gravity.TOP:
-            inset.top = Math.max(inset.top, drawRect.bottom);
-            break;
-          case Gravity.BOTTOM:
-            inset.bottom = Math.max(inset.bottom, getHeight() - drawRect.top);
-            break;
-        }
-        switch (absInsetEdge & Gravity.HORIZONTAL_GRAVITY_MASK) {
-          case Gravity.LEFT:
-            inset.left = Math.max(inset.left, drawRect.right);
-            break;
-          case Gravity.RIGHT:
-            inset.right = Math.max(inset.right, getWidth() - drawRect.left);
-            break;
-        }
-      }
+      accumulateInset(lp, drawRect, inset, layoutDirection);
 
       // Dodge inset edges if necessary
       if (lp.dodgeInsetEdges != Gravity.NO_GRAVITY && child.getVisibility() == View.VISIBLE) {
@@ -1329,6 +1593,7 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
       }
 
       if (type != EVENT_VIEW_REMOVED) {
+        lp.recordCheckedPosition(child);
         // Did it change? if not continue
         getLastChildRect(child, lastDrawRect);
         if (lastDrawRect.equals(drawRect)) {
@@ -1337,11 +1602,18 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
         recordLastChildRect(child, drawRect);
       }
 
-      // Update any behavior-dependent views for the change
-      for (int j = i + 1; j < childCount; j++) {
-        final View checkChild = mDependencySortedChildren.get(j);
+      if (!hasDependents) {
+        continue;
+      }
+
+      // Update any behavior-dependent views for the change. These are the views with an incoming
+      // edge to the child, which may also include views which are anchored or dodging.
+      for (int j = 0, dependentCount = dependents.size(); j < dependentCount; j++) {
+        final View checkChild = dependents.get(j);
         final LayoutParams checkLp = (LayoutParams) checkChild.getLayoutParams();
         final Behavior b = checkLp.getBehavior();
+        // The dependent comes later in the walk, so it will be checked again when it's reached
+        checkLp.mDependencyMoved = true;
 
         if (b != null && b.layoutDependsOn(this, checkChild, child)) {
           if (type == EVENT_PRE_DRAW && checkLp.getChangedAfterNestedScroll()) {
@@ -1374,11 +1646,46 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
       }
     }
 
+    if (type != EVENT_VIEW_REMOVED) {
+      mChildPositionsInvalid = false;
+    }
+
     releaseTempRect(inset);
     releaseTempRect(drawRect);
     releaseTempRect(lastDrawRect);
   }
 
+  /** Adds the draw rect of a child to the insets, if the child insets the others. */
+  private void accumulateInset(
+      final LayoutParams lp, final Rect drawRect, final Rect inset, final int layoutDirection) {
+    if (lp.insetEdge == Gravity.NO_GRAVITY || drawRect.isEmpty()) {
+      return;
+    }
+    final int absInsetEdge = GravityCompat.getAbsoluteGravity(lp.insetEdge, layoutDirection);
+    switch (absInsetEdge & Gravity.VERTICAL_GRAVITY_MASK) {
+      case Gravity.TOP:
+        inset.top = Math.max(inset.top, drawRect.bottom);
+        break;
+      case Gravity.BOTTOM:
+        inset.bottom = Math.max(inset.bottom, getHeight() - drawRect.top);
+        break;
+    }
+    switch (absInsetEdge & Gravity.HORIZONTAL_GRAVITY_MASK) {
+      case Gravity.LEFT:
+        inset.left = Math.max(inset.left, drawRect.right);
+        break;
+      case Gravity.RIGHT:
+        inset.right = Math.max(inset.right, getWidth() - drawRect.left);
+        break;
+    }
+  }
+
+  /** Returns the number of children whose positions have been checked after a change. */
+  @VisibleForTesting
+  int getCheckedChildCount() {
+    return mCheckedChildCount;
+  }
+
   private void offsetChildByInset(final View child, final Rect inset, final int layoutDirection) {
     if (!ViewCompat.isLaidOut(child)) {
       // The view has not been laid out yet, so we can't obtain its bounds.
@@ -1515,11 +1822,7 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
    */
   @NonNull
   public List<View> getDependencies(@NonNull View child) {
-    final List<View> dependencies = mChildDag.getOutgoingEdges(child);
-    mTempDependenciesList.clear();
-    if (dependencies != null) {
-      mTempDependenciesList.addAll(dependencies);
-    }
+    mChildDag.getOutgoingEdges(child, mTempDependenciesList);
     return mTempDependenciesList;
   }
 
@@ -1960,21 +2263,6 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
     }
   }
 
-  /** Sorts child views with higher Z values to the beginning of a collection. */
-  static class ViewElevationComparator implements Comparator<View> {
-    @Override
-    public int compare(View lhs, View rhs) {
-      final float lz = ViewCompat.getZ(lhs);
-      final float rz = ViewCompat.getZ(rhs);
-      if (lz > rz) {
-        return -1;
-      } else if (lz < rz) {
-        return 1;
-      }
-      return 0;
-    }
-  }
-
   /**
    * Defines the default {@link Behavior} of a {@link View} class.
    *
@@ -1989,6 +2277,43 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
     Class<? extends Behavior> value();
   }
 
+  /**
+   * Creates the default {@link Behavior} for a {@link View} class, without the reflection needed
+   * by the {@link DefaultBehavior} annotation.
+   *
+   * @see #registerDefaultBehavior(Class, DefaultBehaviorFactory)
+   */
+  public interface DefaultBehaviorFactory {
+    /** Returns a new instance of the default behavior. */
+    Behavior createBehavior();
+  }
+
+  /** Creates the behavior named by a {@link DefaultBehavior} annotation through its constructor. */
+  private static final class ReflectiveBehaviorFactory implements DefaultBehaviorFactory {
+    private final Class<? extends Behavior> mBehaviorClass;
+    private volatile Constructor<? extends Behavior> mConstructor;
+
+    ReflectiveBehaviorFactory(Class<? extends Behavior> behaviorClass) {
+      mBehaviorClass = behaviorClass;
+    }
+
+    @Override
+    public Behavior createBehavior() {
+      try {
+        Constructor<? extends Behavior> c = mConstructor;
+        if (c == null) {
+          c = mBehaviorClass.getConstructor();
+          mConstructor = c;
+        }
+        return c.newInstance();
+      } catch (Exception e) {
+        throw new RuntimeException(
+            "Default behavior class " + mBehaviorClass.getName() + " could not be instantiated",
+            e);
+      }
+    }
+  }
+
   /**
    * Interaction behavior plugin for child views of {@link CoordinatorLayout}.
    *
@@ -2736,9 +3061,19 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
     private boolean mDidChangeAfterNestedScroll;
 
     final Rect mLastChildRect = new Rect();
+    /** Whether a child which this one depends on has moved since this child was last checked. */
+    boolean mDependencyMoved;
+    private boolean mHasCheckedPosition;
+    private int mCheckedVisibility;
+    private final Rect mCheckedBounds = new Rect();
+    private Matrix mCheckedMatrix;
 
     Object mBehaviorTag;
 
+    boolean mDependenciesDirty = true;
+    private int mResolvedInsetEdge;
+    private int mResolvedDodgeInsetEdges;
+
     public LayoutParams(int width, int height) {
       super(width, height);
     }
@@ -2810,6 +3145,7 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
     public void setAnchorId(@IdRes int id) {
       invalidateAnchor();
       mAnchorId = id;
+      mDependenciesDirty = true;
     }
 
     /**
@@ -2842,6 +3178,7 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
         mBehavior = behavior;
         mBehaviorTag = null;
         mBehaviorResolved = true;
+        mDependenciesDirty = true;
 
         if (behavior != null) {
           // Now dispatch that the Behavior has been attached
@@ -2867,6 +3204,35 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
       return mLastChildRect;
     }
 
+    /**
+     * Records where the child is, so that {@link #hasMovedSinceLastCheck(View)} can tell whether it
+     * has been moved since.
+     */
+    void recordCheckedPosition(View child) {
+      mHasCheckedPosition = true;
+      mCheckedVisibility = child.getVisibility();
+      mCheckedBounds.set(child.getLeft(), child.getTop(), child.getRight(), child.getBottom());
+      if (mCheckedMatrix == null) {
+        mCheckedMatrix = new Matrix();
+      }
+      mCheckedMatrix.set(child.getMatrix());
+    }
+
+    /**
+     * Returns whether the child's bounds, transformation or visibility have changed since its
+     * position was last {@link #recordCheckedPosition(View) recorded}.
+     */
+    boolean hasMovedSinceLastCheck(View child) {
+      return !mHasCheckedPosition
+          || child.isLayoutRequested()
+          || mCheckedVisibility != child.getVisibility()
+          || mCheckedBounds.left != child.getLeft()
+          || mCheckedBounds.top != child.getTop()
+          || mCheckedBounds.right != child.getRight()
+          || mCheckedBounds.bottom != child.getBottom()
+          || !mCheckedMatrix.equals(child.getMatrix());
+    }
+
     /**
      * Returns true if the anchor id changed to another valid view id since the anchor view was
      * resolved.
@@ -2970,6 +3336,23 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
           || (mBehavior != null && mBehavior.layoutDependsOn(parent, child, dependency));
     }
 
+    /**
+     * Returns true if anything which affects this child's dependencies, other than its anchor, has
+     * changed since they were last {@link #onDependenciesResolved() resolved}.
+     */
+    boolean haveDependenciesChanged() {
+      return mDependenciesDirty
+          || mResolvedInsetEdge != insetEdge
+          || mResolvedDodgeInsetEdges != dodgeInsetEdges;
+    }
+
+    /** Records that this child's dependencies have been evaluated by the parent. */
+    void onDependenciesResolved() {
+      mDependenciesDirty = false;
+      mResolvedInsetEdge = insetEdge;
+      mResolvedDodgeInsetEdges = dodgeInsetEdges;
+    }
+
     /**
      * Invalidate the cached anchor view and direct child ancestor of that anchor. The anchor will
      * need to be {@link #findAnchorView(CoordinatorLayout, android.view.View) found} before being
@@ -3082,6 +3465,12 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
 
     @Override
     public void onChildViewAdded(View parent, View child) {
+      final ViewGroup.LayoutParams lp = child.getLayoutParams();
+      if (lp instanceof LayoutParams) {
+        // The child may have been removed and re-added, so make sure it is re-evaluated
+        ((LayoutParams) lp).mDependenciesDirty = true;
+      }
+
       if (mOnHierarchyChangeListener != null) {
         mOnHierarchyChangeListener.onChildViewAdded(parent, child);
       }
@@ -3090,6 +3479,12 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
     @Override
     public void onChildViewRemoved(View parent, View child) {
       onChildViewsChanged(EVENT_VIEW_REMOVED);
+      // Drop the z-order caches so that they don't hold onto the removed child
+      mDrawOrderedChildren.clear();
+      mTopSortedChildren.clear();
+      if (mIncrementalDependencyUpdates) {
+        mRemovedDependencyChildren.add(child);
+      }
 
       if (mOnHierarchyChangeListener != null) {
         mOnHierarchyChangeListener.onChildViewRemoved(parent, child);
@@ -21,16 +21,20 @@ import android.support.annotation.Nullable;
 import android.support.v4.util.Pools;
 import android.support.v4.util.SimpleArrayMap;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 /** A class which represents a simple directed acyclic graph. */
 final class DirectedAcyclicGraph<T> {
   private final Pools.Pool<ArrayList<T>> mListPool = new Pools.SimplePool<>(10);
   private final SimpleArrayMap<T, ArrayList<T>> mGraph = new SimpleArrayMap<>();
+  // Reverse index of mGraph: for each node, the nodes which have it as an incoming edge
+  private final SimpleArrayMap<T, ArrayList<T>> mOutgoingEdges = new SimpleArrayMap<>();
 
   private final ArrayList<T> mSortResult = new ArrayList<>();
-  private final HashSet<T> mSortTmpMarked = new HashSet<>();
+  private final IdentityHashMap<T, Boolean> mSortMarked = new IdentityHashMap<>();
+  private final ArrayList<T> mSortStack = new ArrayList<>();
+  private int[] mSortStackEdgeIndex = new int[16];
 
   /**
    * Add a node to the graph.
@@ -42,6 +46,7 @@ final class DirectedAcyclicGraph<T> {
   void addNode(@NonNull T node) {
     if (!mGraph.containsKey(node)) {
       mGraph.put(node, null);
+      mOutgoingEdges.put(node, null);
     }
   }
 
@@ -73,6 +78,14 @@ final class DirectedAcyclicGraph<T> {
     }
     // Finally add the edge to the list
     edges.add(incomingEdge);
+
+    // ...and keep the reverse index up to date
+    ArrayList<T> outgoing = mOutgoingEdges.get(incomingEdge);
+    if (outgoing == null) {
+      outgoing = getEmptyList();
+      mOutgoingEdges.put(incomingEdge, outgoing);
+    }
+    outgoing.add(node);
   }
 
   /**
@@ -93,27 +106,75 @@ final class DirectedAcyclicGraph<T> {
    */
   @Nullable
   List<T> getOutgoingEdges(@NonNull T node) {
-    ArrayList<T> result = null;
-    for (int i = 0, size = mGraph.size(); i < size; i++) {
-      ArrayList<T> edges = mGraph.valueAt(i);
-      if (edges != null && edges.contains(node)) {
-        if (result == null) {
-          result = new ArrayList<>();
-        }
-        result.add(mGraph.keyAt(i));
+    final ArrayList<T> outgoing = mOutgoingEdges.get(node);
+    return outgoing == null || outgoing.isEmpty() ? null : new ArrayList<>(outgoing);
+  }
+
+  /**
+   * Get any outgoing edges for the given node (i.e. nodes which have an incoming edge from the
+   * given node), without allocating.
+   *
+   * @param out the list to fill with any outgoing edges. It is cleared first.
+   */
+  void getOutgoingEdges(@NonNull T node, @NonNull List<T> out) {
+    out.clear();
+    final ArrayList<T> outgoing = mOutgoingEdges.get(node);
+    if (outgoing != null) {
+      // Not addAll(), which copies the source list into a new array
+      for (int i = 0, size = outgoing.size(); i < size; i++) {
+        out.add(outgoing.get(i));
       }
     }
-    return result;
   }
 
   boolean hasOutgoingEdges(@NonNull T node) {
-    for (int i = 0, size = mGraph.size(); i < size; i++) {
-      ArrayList<T> edges = mGraph.valueAt(i);
-      if (edges != null && edges.contains(node)) {
-        return true;
+    final ArrayList<T> outgoing = mOutgoingEdges.get(node);
+    return outgoing != null && !outgoing.isEmpty();
+  }
+
+  /**
+   * Remove any edges to or from the given node. The node itself is kept in the graph.
+   *
+   * @param node the node to detach from the rest of the graph
+   */
+  void removeEdges(@NonNull T node) {
+    final ArrayList<T> incoming = mGraph.get(node);
+    if (incoming != null) {
+      for (int i = 0, size = incoming.size(); i < size; i++) {
+        final ArrayList<T> outgoing = mOutgoingEdges.get(incoming.get(i));
+        if (outgoing != null) {
+          outgoing.remove(node);
+        }
+      }
+      poolList(incoming);
+      mGraph.put(node, null);
+    }
+    final ArrayList<T> outgoing = mOutgoingEdges.get(node);
+    if (outgoing != null) {
+      for (int i = 0, size = outgoing.size(); i < size; i++) {
+        final ArrayList<T> edges = mGraph.get(outgoing.get(i));
+        if (edges != null) {
+          edges.remove(node);
+        }
       }
+      poolList(outgoing);
+      mOutgoingEdges.put(node, null);
+    }
+  }
+
+  /**
+   * Remove a node, and any edges to or from it, from the graph.
+   *
+   * <p>If the node is not present in the graph then this method is a no-op.
+   *
+   * @param node the node to remove
+   */
+  void removeNode(@NonNull T node) {
+    if (mGraph.containsKey(node)) {
+      removeEdges(node);
+      mGraph.remove(node);
+      mOutgoingEdges.remove(node);
     }
-    return false;
   }
 
   /** Clears the internal graph, and releases resources to pools. */
@@ -124,7 +185,14 @@ final class DirectedAcyclicGraph<T> {
         poolList(edges);
       }
     }
+    for (int i = 0, size = mOutgoingEdges.size(); i < size; i++) {
+      ArrayList<T> edges = mOutgoingEdges.valueAt(i);
+      if (edges != null) {
+        poolList(edges);
+      }
+    }
     mGraph.clear();
+    mOutgoingEdges.clear();
   }
 
   /**
@@ -138,37 +206,66 @@ final class DirectedAcyclicGraph<T> {
   @NonNull
   ArrayList<T> getSortedList() {
     mSortResult.clear();
-    mSortTmpMarked.clear();
+    mSortMarked.clear();
 
     // Start a DFS from each node in the graph
     for (int i = 0, size = mGraph.size(); i < size; i++) {
-      dfs(mGraph.keyAt(i), mSortResult, mSortTmpMarked);
+      dfs(mGraph.keyAt(i));
     }
 
+    mSortMarked.clear();
     return mSortResult;
   }
 
-  private void dfs(final T node, final ArrayList<T> result, final HashSet<T> tmpMarked) {
-    if (result.contains(node)) {
+  /**
+   * Iterative DFS from the given node. Each node is marked {@link Boolean#FALSE} while it is on the
+   * stack and {@link Boolean#TRUE} once it has been added to the result, so that each node and edge
+   * is only visited once.
+   */
+  private void dfs(final T root) {
+    if (mSortMarked.containsKey(root)) {
       // We've already seen and added the node to the result list, skip...
       return;
     }
-    if (tmpMarked.contains(node)) {
-      throw new RuntimeException("This graph contains cyclic dependencies");
-    }
-    // Temporarily mark the node
-    tmpMarked.add(node);
-    // Recursively dfs all of the node's edges
-    final ArrayList<T> edges = mGraph.get(node);
-    if (edges != null) {
-      for (int i = 0, size = edges.size(); i < size; i++) {
-        dfs(edges.get(i), result, tmpMarked);
+    push(root);
+
+    while (!mSortStack.isEmpty()) {
+      final int top = mSortStack.size() - 1;
+      final T node = mSortStack.get(top);
+      final ArrayList<T> edges = mGraph.get(node);
+      final int edgeIndex = mSortStackEdgeIndex[top];
+
+      if (edges != null && edgeIndex < edges.size()) {
+        // Move on to the node's next edge
+        mSortStackEdgeIndex[top] = edgeIndex + 1;
+        final T edge = edges.get(edgeIndex);
+        final Boolean marked = mSortMarked.get(edge);
+        if (marked == null) {
+          push(edge);
+        } else if (!marked) {
+          mSortStack.clear();
+          throw new RuntimeException("This graph contains cyclic dependencies");
+        }
+      } else {
+        // All of the node's edges have been visited, so add it to the result list
+        mSortStack.remove(top);
+        mSortMarked.put(node, Boolean.TRUE);
+        mSortResult.add(node);
       }
     }
-    // Unmark the node from the temporary list
-    tmpMarked.remove(node);
-    // Finally add it to the result list
-    result.add(node);
+  }
+
+  private void push(final T node) {
+    final int index = mSortStack.size();
+    if (index == mSortStackEdgeIndex.length) {
+      final int[] newIndices = new int[index * 2];
+      System.arraycopy(mSortStackEdgeIndex, 0, newIndices, 0, index);
+      mSortStackEdgeIndex = newIndices;
+    }
+    mSortStack.add(node);
+    mSortStackEdgeIndex[index] = 0;
+    // Temporarily mark the node
+    mSortMarked.put(node, Boolean.FALSE);
   }
 
   /** Returns the size of the graph */
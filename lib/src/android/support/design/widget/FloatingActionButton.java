@@ -58,6 +58,7 @@ import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewPropertyAnimator;
 import android.widget.ImageView;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -82,6 +83,18 @@ import java.util.List;
 public class FloatingActionButton extends VisibilityAwareImageButton
     implements TintableBackgroundView, TintableImageSourceView, ExpandableTransformationWidget {
 
+  static {
+    // Allow the default behavior to be created without reflection
+    CoordinatorLayout.registerDefaultBehavior(
+        FloatingActionButton.class,
+        new CoordinatorLayout.DefaultBehaviorFactory() {
+          @Override
+          public CoordinatorLayout.Behavior createBehavior() {
+            return new FloatingActionButton.Behavior();
+          }
+        });
+  }
+
   private static final String LOG_TAG = "FloatingActionButton";
   private static final String EXPANDABLE_WIDGET_HELPER_KEY = "expandableWidgetHelper";
 
@@ -646,6 +659,28 @@ public class FloatingActionButton extends VisibilityAwareImageButton
     getImpl().onDetachedFromWindow();
   }
 
+  @Override
+  public void setRotation(float rotation) {
+    super.setRotation(rotation);
+    // This may be called by the View constructor, before the impl is created
+    if (mImpl != null) {
+      mImpl.onRotationChanged();
+    }
+  }
+
+  @Override
+  public ViewPropertyAnimator animate() {
+    final ViewPropertyAnimator animator = super.animate();
+    getImpl().onViewPropertyAnimatorRequested(animator);
+    return animator;
+  }
+
+  /** Returns the number of times the rotation was checked before a frame. */
+  @VisibleForTesting
+  int getPreDrawInvocationCount() {
+    return getImpl().getPreDrawInvocationCount();
+  }
+
   @Override
   protected void drawableStateChanged() {
     super.drawableStateChanged();
@@ -18,7 +18,6 @@ package android.support.design.widget;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
-import android.animation.AnimatorSet;
 import android.animation.ObjectAnimator;
 import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
@@ -34,23 +33,22 @@ import android.graphics.drawable.Drawable;
 import android.graphics.drawable.GradientDrawable;
 import android.graphics.drawable.LayerDrawable;
 import android.os.Build;
+import android.os.SystemClock;
 import android.support.annotation.ColorInt;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
 import android.support.design.R;
 import android.support.design.animation.AnimationUtils;
-import android.support.design.animation.AnimatorSetCompat;
-import android.support.design.animation.ImageMatrixProperty;
-import android.support.design.animation.MatrixEvaluator;
 import android.support.design.animation.MotionSpec;
+import android.support.design.animation.MotionTiming;
 import android.support.design.ripple.RippleUtils;
 import android.support.v4.content.ContextCompat;
 import android.support.v4.graphics.drawable.DrawableCompat;
 import android.support.v4.view.ViewCompat;
 import android.view.View;
+import android.view.ViewPropertyAnimator;
 import android.view.ViewTreeObserver;
-import java.util.ArrayList;
-import java.util.List;
 
 class FloatingActionButtonImpl {
   static final TimeInterpolator ELEVATION_ANIM_INTERPOLATOR =
@@ -69,6 +67,16 @@ class FloatingActionButtonImpl {
   private static final float SHOW_SCALE = 1f;
   private static final float SHOW_ICON_SCALE = 1f;
 
+  /**
+   * How long to keep checking the rotation before each frame after a {@link ViewPropertyAnimator}
+   * should have ended, since it only starts on the frame after it's requested.
+   */
+  private static final long ROTATION_TRACKING_SLOP_MS = 100;
+
+  private static final int TIMING_OPACITY = MotionSpec.getTimingKey("opacity");
+  private static final int TIMING_SCALE = MotionSpec.getTimingKey("scale");
+  private static final int TIMING_ICON_SCALE = MotionSpec.getTimingKey("iconScale");
+
   int mAnimState = ANIM_STATE_NONE;
   @Nullable Animator currentAnimator;
   @Nullable MotionSpec showMotionSpec;
@@ -77,6 +85,9 @@ class FloatingActionButtonImpl {
   @Nullable private MotionSpec defaultShowMotionSpec;
   @Nullable private MotionSpec defaultHideMotionSpec;
 
+  @Nullable private VisibilityAnimation mShowAnimation;
+  @Nullable private VisibilityAnimation mHideAnimation;
+
   private final StateListAnimator mStateListAnimator;
 
   ShadowDrawableWrapper mShadowDrawable;
@@ -119,12 +130,14 @@ class FloatingActionButtonImpl {
   final VisibilityAwareImageButton mView;
   final ShadowViewDelegate mShadowViewDelegate;
 
-  private final Rect mTmpRect = new Rect();
-  private final RectF mTmpRectF1 = new RectF();
-  private final RectF mTmpRectF2 = new RectF();
-  private final Matrix tmpMatrix = new Matrix();
-
+  // The rotation is only checked before each frame while a ViewPropertyAnimator may be rotating
+  // the view, since those don't go through View.setRotation()
   private ViewTreeObserver.OnPreDrawListener mPreDrawListener;
+  private boolean mPreDrawListenerRegistered;
+  @Nullable private ViewPropertyAnimator mTrackedAnimator;
+  private long mTrackedAnimatorRequestTime;
+  private long mRotationTrackingEndTime;
+  private int mPreDrawInvocationCount;
 
   FloatingActionButtonImpl(VisibilityAwareImageButton view, ShadowViewDelegate shadowViewDelegate) {
     mView = view;
@@ -277,9 +290,11 @@ class FloatingActionButtonImpl {
   final void setImageMatrixScale(float scale) {
     this.imageMatrixScale = scale;
 
-    Matrix matrix = tmpMatrix;
+    Matrix matrix = GeometryPool.acquireMatrix();
     calculateImageMatrixFromScale(scale, matrix);
+    // ImageView copies the matrix, so it is safe to release straight away
     mView.setImageMatrix(matrix);
+    GeometryPool.releaseMatrix(matrix);
   }
 
   private void calculateImageMatrixFromScale(float scale, Matrix matrix) {
@@ -288,11 +303,13 @@ class FloatingActionButtonImpl {
     Drawable drawable = mView.getDrawable();
     if (drawable != null && maxImageSize != 0) {
       // First make sure our image respects mMaxImageSize.
-      RectF drawableBounds = mTmpRectF1;
-      RectF imageBounds = mTmpRectF2;
+      RectF drawableBounds = GeometryPool.acquireRectF();
+      RectF imageBounds = GeometryPool.acquireRectF();
       drawableBounds.set(0, 0, drawable.getIntrinsicWidth(), drawable.getIntrinsicHeight());
       imageBounds.set(0, 0, maxImageSize, maxImageSize);
       matrix.setRectToRect(drawableBounds, imageBounds, ScaleToFit.CENTER);
+      GeometryPool.releaseRectF(drawableBounds);
+      GeometryPool.releaseRectF(imageBounds);
 
       // Then scale it as requested.
       matrix.postScale(scale, scale, maxImageSize / 2f, maxImageSize / 2f);
@@ -344,44 +361,13 @@ class FloatingActionButtonImpl {
     }
 
     if (shouldAnimateVisibilityChange()) {
-      AnimatorSet set =
-          createAnimator(
-              hideMotionSpec != null ? hideMotionSpec : getDefaultHideMotionSpec(),
-              HIDE_OPACITY,
-              HIDE_SCALE,
-              HIDE_ICON_SCALE);
-      set.addListener(
-          new AnimatorListenerAdapter() {
-            private boolean mCancelled;
-
-            @Override
-            public void onAnimationStart(Animator animation) {
-              mView.internalSetVisibility(View.VISIBLE, fromUser);
-
-              mAnimState = ANIM_STATE_HIDING;
-              currentAnimator = animation;
-              mCancelled = false;
-            }
-
-            @Override
-            public void onAnimationCancel(Animator animation) {
-              mCancelled = true;
-            }
-
-            @Override
-            public void onAnimationEnd(Animator animation) {
-              mAnimState = ANIM_STATE_NONE;
-              currentAnimator = null;
-
-              if (!mCancelled) {
-                mView.internalSetVisibility(fromUser ? View.GONE : View.INVISIBLE, fromUser);
-                if (listener != null) {
-                  listener.onHidden();
-                }
-              }
-            }
-          });
-      set.start();
+      if (mHideAnimation == null) {
+        mHideAnimation = new VisibilityAnimation(false);
+      }
+      mHideAnimation.start(
+          hideMotionSpec != null ? hideMotionSpec : getDefaultHideMotionSpec(),
+          listener,
+          fromUser);
     } else {
       // If the view isn't laid out, or we're in the editor, don't run the animation
       mView.internalSetVisibility(fromUser ? View.GONE : View.INVISIBLE, fromUser);
@@ -410,33 +396,13 @@ class FloatingActionButtonImpl {
         setImageMatrixScale(0f);
       }
 
-      AnimatorSet set =
-          createAnimator(
-              showMotionSpec != null ? showMotionSpec : getDefaultShowMotionSpec(),
-              SHOW_OPACITY,
-              SHOW_SCALE,
-              SHOW_ICON_SCALE);
-      set.addListener(
-          new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-              mView.internalSetVisibility(View.VISIBLE, fromUser);
-
-              mAnimState = ANIM_STATE_SHOWING;
-              currentAnimator = animation;
-            }
-
-            @Override
-            public void onAnimationEnd(Animator animation) {
-              mAnimState = ANIM_STATE_NONE;
-              currentAnimator = null;
-
-              if (listener != null) {
-                listener.onShown();
-              }
-            }
-          });
-      set.start();
+      if (mShowAnimation == null) {
+        mShowAnimation = new VisibilityAnimation(true);
+      }
+      mShowAnimation.start(
+          showMotionSpec != null ? showMotionSpec : getDefaultShowMotionSpec(),
+          listener,
+          fromUser);
     } else {
       mView.internalSetVisibility(View.VISIBLE, fromUser);
       mView.setAlpha(1f);
@@ -452,7 +418,8 @@ class FloatingActionButtonImpl {
   private MotionSpec getDefaultShowMotionSpec() {
     if (defaultShowMotionSpec == null) {
       defaultShowMotionSpec =
-          MotionSpec.createFromResource(mView.getContext(), R.animator.design_fab_show_motion_spec);
+          MotionSpec.getSharedFromResource(
+              mView.getContext(), R.animator.design_fab_show_motion_spec);
     }
     return defaultShowMotionSpec;
   }
@@ -460,39 +427,133 @@ class FloatingActionButtonImpl {
   private MotionSpec getDefaultHideMotionSpec() {
     if (defaultHideMotionSpec == null) {
       defaultHideMotionSpec =
-          MotionSpec.createFromResource(mView.getContext(), R.animator.design_fab_hide_motion_spec);
+          MotionSpec.getSharedFromResource(
+              mView.getContext(), R.animator.design_fab_hide_motion_spec);
     }
     return defaultHideMotionSpec;
   }
 
-  @NonNull
-  private AnimatorSet createAnimator(
-      @NonNull MotionSpec spec, float opacity, float scale, float iconScale) {
-    List<Animator> animators = new ArrayList<>();
-    Animator animator;
+  /**
+   * The animation of the view being shown or hidden, which is created once and restarted from the
+   * current values of the view for every change of visibility.
+   *
+   * <p>A single {@link ValueAnimator} runs for the whole {@link MotionSpec}, and each property is
+   * set from its own {@link MotionTiming} on every frame, so that showing and hiding the view
+   * doesn't need to build a new set of animators and listeners.
+   */
+  private class VisibilityAnimation extends AnimatorListenerAdapter
+      implements ValueAnimator.AnimatorUpdateListener {
+    private final boolean mShow;
+    private final ValueAnimator mAnimator;
+
+    private MotionSpec mSpec;
+    private long mDuration;
+    @Nullable private InternalVisibilityChangedListener mListener;
+    private boolean mFromUser;
+    private boolean mCancelled;
+
+    private float mStartOpacity;
+    private float mStartScaleX;
+    private float mStartScaleY;
+    private float mStartIconScale;
+
+    VisibilityAnimation(boolean show) {
+      mShow = show;
+      mAnimator = new ValueAnimator();
+      mAnimator.setFloatValues(0, 1);
+      mAnimator.setInterpolator(AnimationUtils.LINEAR_INTERPOLATOR);
+      mAnimator.addListener(this);
+      mAnimator.addUpdateListener(this);
+    }
+
+    void start(
+        @NonNull MotionSpec spec,
+        @Nullable InternalVisibilityChangedListener listener,
+        boolean fromUser) {
+      mSpec = spec;
+      mDuration = spec.getTotalDuration();
+      mListener = listener;
+      mFromUser = fromUser;
+
+      // Animate from wherever the view is, which may be part way through the other animation
+      mStartOpacity = mView.getAlpha();
+      mStartScaleX = mView.getScaleX();
+      mStartScaleY = mView.getScaleY();
+      mStartIconScale = imageMatrixScale;
+
+      mAnimator.setDuration(mDuration);
+      mAnimator.start();
+    }
 
-    animator = ObjectAnimator.ofFloat(mView, View.ALPHA, opacity);
-    spec.getTiming("opacity").apply(animator);
-    animators.add(animator);
+    @Override
+    public void onAnimationStart(Animator animation) {
+      mView.internalSetVisibility(View.VISIBLE, mFromUser);
 
-    animator = ObjectAnimator.ofFloat(mView, View.SCALE_X, scale);
-    spec.getTiming("scale").apply(animator);
-    animators.add(animator);
+      mAnimState = mShow ? ANIM_STATE_SHOWING : ANIM_STATE_HIDING;
+      currentAnimator = animation;
+      mCancelled = false;
+    }
 
-    animator = ObjectAnimator.ofFloat(mView, View.SCALE_Y, scale);
-    spec.getTiming("scale").apply(animator);
-    animators.add(animator);
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+      setValuesAt((long) (animation.getAnimatedFraction() * mDuration));
+    }
 
-    calculateImageMatrixFromScale(iconScale, tmpMatrix);
-    animator =
-        ObjectAnimator.ofObject(
-            mView, new ImageMatrixProperty(), new MatrixEvaluator(), new Matrix(tmpMatrix));
-    spec.getTiming("iconScale").apply(animator);
-    animators.add(animator);
+    @Override
+    public void onAnimationCancel(Animator animation) {
+      mCancelled = true;
+    }
 
-    AnimatorSet set = new AnimatorSet();
-    AnimatorSetCompat.playTogether(set, animators);
-    return set;
+    @Override
+    public void onAnimationEnd(Animator animation) {
+      mAnimState = ANIM_STATE_NONE;
+      currentAnimator = null;
+
+      final InternalVisibilityChangedListener listener = mListener;
+      mListener = null;
+      if (!mCancelled) {
+        // Land exactly on the end values, which the interpolated fractions may be a little off
+        mView.setAlpha(mShow ? SHOW_OPACITY : HIDE_OPACITY);
+        mView.setScaleX(mShow ? SHOW_SCALE : HIDE_SCALE);
+        mView.setScaleY(mShow ? SHOW_SCALE : HIDE_SCALE);
+        setImageMatrixScale(mShow ? SHOW_ICON_SCALE : HIDE_ICON_SCALE);
+      }
+      if (mShow) {
+        if (listener != null) {
+          listener.onShown();
+        }
+      } else if (!mCancelled) {
+        mView.internalSetVisibility(mFromUser ? View.GONE : View.INVISIBLE, mFromUser);
+        if (listener != null) {
+          listener.onHidden();
+        }
+      }
+    }
+
+    private void setValuesAt(long time) {
+      final float scaleFraction = getFraction(mSpec.getTiming(TIMING_SCALE), time);
+      mView.setAlpha(
+          AnimationUtils.lerp(
+              mStartOpacity,
+              mShow ? SHOW_OPACITY : HIDE_OPACITY,
+              getFraction(mSpec.getTiming(TIMING_OPACITY), time)));
+      mView.setScaleX(
+          AnimationUtils.lerp(mStartScaleX, mShow ? SHOW_SCALE : HIDE_SCALE, scaleFraction));
+      mView.setScaleY(
+          AnimationUtils.lerp(mStartScaleY, mShow ? SHOW_SCALE : HIDE_SCALE, scaleFraction));
+      setImageMatrixScale(
+          AnimationUtils.lerp(
+              mStartIconScale,
+              mShow ? SHOW_ICON_SCALE : HIDE_ICON_SCALE,
+              getFraction(mSpec.getTiming(TIMING_ICON_SCALE), time)));
+    }
+
+    private float getFraction(MotionTiming timing, long time) {
+      // Hold the start and end values outside of the timing, like a delayed animator would
+      final long delay = timing.getDelay();
+      return timing.getInterpolatedFraction(
+          Math.max(delay, Math.min(time, delay + timing.getDuration())));
+    }
   }
 
   final Drawable getContentBackground() {
@@ -504,10 +565,11 @@ class FloatingActionButtonImpl {
   }
 
   final void updatePadding() {
-    Rect rect = mTmpRect;
+    Rect rect = GeometryPool.acquireRect();
     getPadding(rect);
     onPaddingUpdated(rect);
     mShadowViewDelegate.setShadowPadding(rect.left, rect.top, rect.right, rect.bottom);
+    GeometryPool.releaseRect(rect);
   }
 
   void getPadding(Rect rect) {
@@ -518,22 +580,51 @@ class FloatingActionButtonImpl {
 
   void onAttachedToWindow() {
     if (requirePreDrawListener()) {
-      ensurePreDrawListener();
-      mView.getViewTreeObserver().addOnPreDrawListener(mPreDrawListener);
+      // Catch up with any rotation set while detached
+      onRotationChanged();
+      if (SystemClock.uptimeMillis() < mRotationTrackingEndTime || mTrackedAnimator != null) {
+        registerPreDrawListener();
+      }
     }
   }
 
   void onDetachedFromWindow() {
-    if (mPreDrawListener != null) {
-      mView.getViewTreeObserver().removeOnPreDrawListener(mPreDrawListener);
-      mPreDrawListener = null;
-    }
+    unregisterPreDrawListener();
   }
 
+  /** Returns whether the shadow and border need to be updated when the view is rotated. */
   boolean requirePreDrawListener() {
     return true;
   }
 
+  /** Called when the rotation of the view is set, directly or by an {@link ObjectAnimator}. */
+  void onRotationChanged() {
+    if (requirePreDrawListener()) {
+      updateRotation();
+    }
+  }
+
+  /**
+   * Called when a {@link ViewPropertyAnimator} is requested for the view. It doesn't go through
+   * {@link View#setRotation(float)}, so the rotation is checked before every frame until the
+   * animation has ended.
+   */
+  void onViewPropertyAnimatorRequested(ViewPropertyAnimator animator) {
+    if (requirePreDrawListener()) {
+      mTrackedAnimator = animator;
+      mTrackedAnimatorRequestTime = SystemClock.uptimeMillis();
+      if (ViewCompat.isAttachedToWindow(mView)) {
+        registerPreDrawListener();
+      }
+    }
+  }
+
+  /** Returns the number of times the rotation was checked before a frame. */
+  @VisibleForTesting
+  int getPreDrawInvocationCount() {
+    return mPreDrawInvocationCount;
+  }
+
   CircularBorderDrawable createBorderDrawable(int borderWidth, ColorStateList backgroundTint) {
     final Context context = mView.getContext();
     CircularBorderDrawable borderDrawable = newCircularDrawable();
@@ -552,10 +643,48 @@ class FloatingActionButtonImpl {
   }
 
   void onPreDraw() {
+    mPreDrawInvocationCount++;
+    final boolean rotationChanged = updateRotation();
+
+    if (mTrackedAnimator != null) {
+      // The animator is configured after it's requested, so read its timing on the first frame
+      mRotationTrackingEndTime =
+          Math.max(
+              mRotationTrackingEndTime,
+              mTrackedAnimatorRequestTime
+                  + mTrackedAnimator.getStartDelay()
+                  + mTrackedAnimator.getDuration()
+                  + ROTATION_TRACKING_SLOP_MS);
+      mTrackedAnimator = null;
+    }
+    if (!rotationChanged && SystemClock.uptimeMillis() >= mRotationTrackingEndTime) {
+      unregisterPreDrawListener();
+    }
+  }
+
+  /** Updates the shadow and border if the rotation of the view has changed. */
+  private boolean updateRotation() {
     final float rotation = mView.getRotation();
     if (mRotation != rotation) {
       mRotation = rotation;
       updateFromViewRotation();
+      return true;
+    }
+    return false;
+  }
+
+  private void registerPreDrawListener() {
+    if (!mPreDrawListenerRegistered) {
+      ensurePreDrawListener();
+      mView.getViewTreeObserver().addOnPreDrawListener(mPreDrawListener);
+      mPreDrawListenerRegistered = true;
+    }
+  }
+
+  private void unregisterPreDrawListener() {
+    if (mPreDrawListenerRegistered) {
+      mView.getViewTreeObserver().removeOnPreDrawListener(mPreDrawListener);
+      mPreDrawListenerRegistered = false;
     }
   }
 
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import android.graphics.Matrix;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+/**
+ * Pools of scratch {@link Rect}, {@link RectF}, {@link PointF} and {@link Matrix} instances for
+ * temporary use during measure, layout, draw and event dispatch.
+ *
+ * <p>Each thread has its own set of pools, so acquiring and releasing never takes a lock. A pool
+ * starts small and grows, up to a fixed limit, when more instances are released to it than it
+ * can currently hold, so that it settles on the peak number of instances in use at once.
+ *
+ * <p>Instances are reset before being returned to the pool and must not be used after being
+ * released.
+ */
+final class GeometryPool {
+  private static final int INITIAL_POOL_SIZE = 4;
+  private static final int MAX_POOL_SIZE = 32;
+
+  private static final ThreadLocal<GeometryPool> sPools =
+      new ThreadLocal<GeometryPool>() {
+        @Override
+        protected GeometryPool initialValue() {
+          return new GeometryPool();
+        }
+      };
+
+  private final Pool<Rect> mRects = new Pool<>();
+  private final Pool<RectF> mRectFs = new Pool<>();
+  private final Pool<PointF> mPointFs = new Pool<>();
+  private final Pool<Matrix> mMatrices = new Pool<>();
+
+  private GeometryPool() {}
+
+  /** Returns an empty {@link Rect} from the current thread's pool. */
+  @NonNull
+  static Rect acquireRect() {
+    final Rect rect = sPools.get().mRects.acquire();
+    return rect != null ? rect : new Rect();
+  }
+
+  /** Resets the given {@link Rect} and returns it to the current thread's pool. */
+  static void releaseRect(@NonNull Rect rect) {
+    rect.setEmpty();
+    sPools.get().mRects.release(rect);
+  }
+
+  /** Returns an empty {@link RectF} from the current thread's pool. */
+  @NonNull
+  static RectF acquireRectF() {
+    final RectF rect = sPools.get().mRectFs.acquire();
+    return rect != null ? rect : new RectF();
+  }
+
+  /** Resets the given {@link RectF} and returns it to the current thread's pool. */
+  static void releaseRectF(@NonNull RectF rect) {
+    rect.setEmpty();
+    sPools.get().mRectFs.release(rect);
+  }
+
+  /** Returns a {@link PointF} at the origin from the current thread's pool. */
+  @NonNull
+  static PointF acquirePointF() {
+    final PointF point = sPools.get().mPointFs.acquire();
+    return point != null ? point : new PointF();
+  }
+
+  /** Resets the given {@link PointF} and returns it to the current thread's pool. */
+  static void releasePointF(@NonNull PointF point) {
+    point.set(0f, 0f);
+    sPools.get().mPointFs.release(point);
+  }
+
+  /** Returns an identity {@link Matrix} from the current thread's pool. */
+  @NonNull
+  static Matrix acquireMatrix() {
+    final Matrix matrix = sPools.get().mMatrices.acquire();
+    return matrix != null ? matrix : new Matrix();
+  }
+
+  /** Resets the given {@link Matrix} and returns it to the current thread's pool. */
+  static void releaseMatrix(@NonNull Matrix matrix) {
+    matrix.reset();
+    sPools.get().mMatrices.release(matrix);
+  }
+
+  /** Returns the number of acquires on the current thread which were served from a pool. */
+  @VisibleForTesting
+  static int getHitCount() {
+    final GeometryPool pools = sPools.get();
+    return pools.mRects.mHits + pools.mRectFs.mHits + pools.mPointFs.mHits + pools.mMatrices.mHits;
+  }
+
+  /** Returns the number of acquires on the current thread which needed a new instance. */
+  @VisibleForTesting
+  static int getMissCount() {
+    final GeometryPool pools = sPools.get();
+    return pools.mRects.mMisses
+        + pools.mRectFs.mMisses
+        + pools.mPointFs.mMisses
+        + pools.mMatrices.mMisses;
+  }
+
+  /** Resets the hit and miss counts for the current thread. */
+  @VisibleForTesting
+  static void resetCounts() {
+    final GeometryPool pools = sPools.get();
+    pools.mRects.resetCounts();
+    pools.mRectFs.resetCounts();
+    pools.mPointFs.resetCounts();
+    pools.mMatrices.resetCounts();
+  }
+
+  /** A simple, unsynchronized, growable stack of instances. */
+  private static final class Pool<T> {
+    private Object[] mInstances = new Object[INITIAL_POOL_SIZE];
+    private int mSize;
+
+    int mHits;
+    int mMisses;
+
+    Pool() {}
+
+    @SuppressWarnings("unchecked")
+    T acquire() {
+      if (mSize > 0) {
+        mHits++;
+        final T instance = (T) mInstances[--mSize];
+        mInstances[mSize] = null;
+        return instance;
+      }
+      mMisses++;
+      return null;
+    }
+
+    void release(@NonNull T instance) {
+      if (mSize == mInstances.length) {
+        if (mInstances.length >= MAX_POOL_SIZE) {
+          // The pool is as big as we'll let it get, so let this instance be collected
+          return;
+        }
+        final Object[] instances = new Object[mInstances.length * 2];
+        System.arraycopy(mInstances, 0, instances, 0, mSize);
+        mInstances = instances;
+      }
+      mInstances[mSize++] = instance;
+    }
+
+    void resetCounts() {
+      mHits = 0;
+      mMisses = 0;
+    }
+  }
+}
@@ -34,9 +34,6 @@ import java.util.List;
  */
 abstract class HeaderScrollingViewBehavior extends ViewOffsetBehavior<View> {
 
-  final Rect mTempRect1 = new Rect();
-  final Rect mTempRect2 = new Rect();
-
   private int mVerticalLayoutGap = 0;
   private int mOverlayTop;
 
@@ -108,7 +105,7 @@ abstract class HeaderScrollingViewBehavior extends ViewOffsetBehavior<View> {
     if (header != null) {
       final CoordinatorLayout.LayoutParams lp =
           (CoordinatorLayout.LayoutParams) child.getLayoutParams();
-      final Rect available = mTempRect1;
+      final Rect available = GeometryPool.acquireRect();
       available.set(
           parent.getPaddingLeft() + lp.leftMargin,
           header.getBottom() + lp.topMargin,
@@ -126,7 +123,7 @@ abstract class HeaderScrollingViewBehavior extends ViewOffsetBehavior<View> {
         available.right -= parentInsets.getSystemWindowInsetRight();
       }
 
-      final Rect out = mTempRect2;
+      final Rect out = GeometryPool.acquireRect();
       GravityCompat.apply(
           resolveGravity(lp.gravity),
           child.getMeasuredWidth(),
@@ -139,6 +136,9 @@ abstract class HeaderScrollingViewBehavior extends ViewOffsetBehavior<View> {
 
       child.layout(out.left, out.top - overlap, out.right, out.bottom - overlap);
       mVerticalLayoutGap = out.top - header.getBottom();
+
+      GeometryPool.releaseRect(available);
+      GeometryPool.releaseRect(out);
     } else {
       // If we don't have a dependency, let super handle it
       super.layoutChild(parent, child, layoutDirection);
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RadialGradient;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.util.LruCache;
+
+/**
+ * A process-wide cache of the rasterized shadow pieces drawn by {@link ShadowDrawableWrapper}.
+ *
+ * <p>A shadow is made of a corner, drawn four times with different rotations, and an edge which
+ * is stretched along each side. Both only depend on the corner radius, the shadow size and the
+ * shadow colors, so they are rendered once into bitmaps and shared by every shadow with the same
+ * parameters. The radius and size are quantized to whole pixels, which is how the wrapper already
+ * rounds them. Least recently used bitmaps are evicted once the cache goes over its memory budget.
+ */
+final class ShadowBitmapCache {
+  /** Memory budget for the cached bitmaps, in bytes. */
+  private static final int MAX_CACHE_SIZE = 2 * 1024 * 1024;
+
+  private static final LruCache<Key, Entry> sCache =
+      new LruCache<Key, Entry>(MAX_CACHE_SIZE) {
+        @Override
+        protected int sizeOf(Key key, Entry entry) {
+          return entry.mCorner.getByteCount() + entry.mEdge.getByteCount();
+        }
+      };
+
+  /** The rasterized pieces of a shadow. */
+  static final class Entry {
+    /**
+     * The top-left corner, a square of {@code cornerRadius + shadowSize} pixels whose bottom-right
+     * pixel is at the corner's center.
+     */
+    final Bitmap mCorner;
+
+    /**
+     * A single column of the top edge, {@code 2 * shadowSize} pixels high. The top half fades out
+     * away from the content, while the bottom half is the extra space used under the bottom edge.
+     */
+    final Bitmap mEdge;
+
+    Entry(Bitmap corner, Bitmap edge) {
+      mCorner = corner;
+      mEdge = edge;
+    }
+  }
+
+  private ShadowBitmapCache() {}
+
+  /**
+   * Returns the rasterized shadow pieces for the given parameters, rendering them if needed.
+   *
+   * @param cornerRadius the corner radius, in whole pixels
+   * @param shadowSize the shadow size, in whole pixels. Must be greater than 0.
+   */
+  @NonNull
+  static Entry get(
+      int cornerRadius, int shadowSize, int startColor, int middleColor, int endColor) {
+    final Key key = new Key(cornerRadius, shadowSize, startColor, middleColor, endColor);
+    Entry entry = sCache.get(key);
+    if (entry == null) {
+      entry = createEntry(key);
+      sCache.put(key, entry);
+    }
+    return entry;
+  }
+
+  /** Returns the number of lookups which were served from the cache. */
+  @VisibleForTesting
+  static int getHitCount() {
+    return sCache.hitCount();
+  }
+
+  /** Returns the number of lookups which needed to render new bitmaps. */
+  @VisibleForTesting
+  static int getMissCount() {
+    return sCache.missCount();
+  }
+
+  /** Evicts all of the cached bitmaps. */
+  @VisibleForTesting
+  static void clear() {
+    sCache.evictAll();
+  }
+
+  private static Entry createEntry(Key key) {
+    final float radius = key.mCornerRadius;
+    final float shadowSize = key.mShadowSize;
+    final int cornerSize = key.mCornerRadius + key.mShadowSize;
+
+    final RectF innerBounds = new RectF(-radius, -radius, radius, radius);
+    final RectF outerBounds = new RectF(innerBounds);
+    outerBounds.inset(-shadowSize, -shadowSize);
+
+    // Render the corner, with its center at the bottom-right of the bitmap
+    final Path cornerPath = new Path();
+    cornerPath.setFillType(Path.FillType.EVEN_ODD);
+    cornerPath.moveTo(-radius, 0);
+    cornerPath.rLineTo(-shadowSize, 0);
+    // outer arc
+    cornerPath.arcTo(outerBounds, 180f, 90f, false);
+    // inner arc
+    cornerPath.arcTo(innerBounds, 270f, -90f, false);
+    cornerPath.close();
+
+    final float shadowRadius = -outerBounds.top;
+    final float startRatio = radius / shadowRadius;
+    final float midRatio = startRatio + ((1f - startRatio) / 2f);
+    final Paint cornerPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.DITHER_FLAG);
+    cornerPaint.setStyle(Paint.Style.FILL);
+    cornerPaint.setShader(
+        new RadialGradient(
+            0,
+            0,
+            shadowRadius,
+            new int[] {0, key.mStartColor, key.mMiddleColor, key.mEndColor},
+            new float[] {0f, startRatio, midRatio, 1f},
+            Shader.TileMode.CLAMP));
+
+    final Bitmap corner = Bitmap.createBitmap(cornerSize, cornerSize, Bitmap.Config.ARGB_8888);
+    final Canvas canvas = new Canvas(corner);
+    canvas.translate(cornerSize, cornerSize);
+    canvas.drawPath(cornerPath, cornerPaint);
+
+    // Render the edge, with the top of the bitmap at the outside of the shadow
+    final Paint edgePaint = new Paint(Paint.DITHER_FLAG);
+    edgePaint.setStyle(Paint.Style.FILL);
+    edgePaint.setShader(
+        new LinearGradient(
+            0,
+            innerBounds.top,
+            0,
+            outerBounds.top,
+            new int[] {key.mStartColor, key.mMiddleColor, key.mEndColor},
+            new float[] {0f, .5f, 1f},
+            Shader.TileMode.CLAMP));
+
+    final Bitmap edge = Bitmap.createBitmap(1, 2 * key.mShadowSize, Bitmap.Config.ARGB_8888);
+    final Canvas edgeCanvas = new Canvas(edge);
+    edgeCanvas.translate(0, -outerBounds.top);
+    edgeCanvas.drawRect(0, outerBounds.top, 1, -radius + shadowSize, edgePaint);
+
+    return new Entry(corner, edge);
+  }
+
+  private static final class Key {
+    final int mCornerRadius;
+    final int mShadowSize;
+    final int mStartColor;
+    final int mMiddleColor;
+    final int mEndColor;
+
+    Key(int cornerRadius, int shadowSize, int startColor, int middleColor, int endColor) {
+      mCornerRadius = cornerRadius;
+      mShadowSize = shadowSize;
+      mStartColor = startColor;
+      mMiddleColor = middleColor;
+      mEndColor = endColor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key that = (Key) o;
+      return mCornerRadius == that.mCornerRadius
+          && mShadowSize == that.mShadowSize
+          && mStartColor == that.mStartColor
+          && mMiddleColor == that.mMiddleColor
+          && mEndColor == that.mEndColor;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = mCornerRadius;
+      result = 31 * result + mShadowSize;
+      result = 31 * result + mStartColor;
+      result = 31 * result + mMiddleColor;
+      result = 31 * result + mEndColor;
+      return result;
+    }
+  }
+}
@@ -18,14 +18,10 @@ package android.support.design.widget;
 
 import android.content.Context;
 import android.graphics.Canvas;
-import android.graphics.LinearGradient;
 import android.graphics.Paint;
-import android.graphics.Path;
 import android.graphics.PixelFormat;
-import android.graphics.RadialGradient;
 import android.graphics.Rect;
 import android.graphics.RectF;
-import android.graphics.Shader;
 import android.graphics.drawable.Drawable;
 import android.support.design.R;
 import android.support.v4.content.ContextCompat;
@@ -34,6 +30,9 @@ import android.support.v7.graphics.drawable.DrawableWrapper;
 /**
  * A {@link android.graphics.drawable.Drawable} which wraps another drawable and draws a shadow
  * around it.
+ *
+ * <p>The shadow's corners and edges are drawn from bitmaps in the {@link ShadowBitmapCache}, so
+ * animating the shadow size only renders the shadow once per distinct size.
  */
 class ShadowDrawableWrapper extends DrawableWrapper {
   // used to calculate content padding
@@ -52,7 +51,11 @@ class ShadowDrawableWrapper extends DrawableWrapper {
 
   float mCornerRadius;
 
-  Path mCornerShadowPath;
+  /** The rasterized corner and edge, or null if the shadow has no size. */
+  ShadowBitmapCache.Entry mShadowBitmaps;
+
+  private final Rect mEdgeShadowSrc = new Rect();
+  private final RectF mEdgeShadowDst = new RectF();
 
   // updated value with inset
   float mMaxShadowSize;
@@ -85,12 +88,10 @@ class ShadowDrawableWrapper extends DrawableWrapper {
     mShadowMiddleColor = ContextCompat.getColor(context, R.color.design_fab_shadow_mid_color);
     mShadowEndColor = ContextCompat.getColor(context, R.color.design_fab_shadow_end_color);
 
-    mCornerShadowPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.DITHER_FLAG);
-    mCornerShadowPaint.setStyle(Paint.Style.FILL);
+    mCornerShadowPaint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.DITHER_FLAG);
     mCornerRadius = Math.round(radius);
     mContentBounds = new RectF();
     mEdgeShadowPaint = new Paint(mCornerShadowPaint);
-    mEdgeShadowPaint.setAntiAlias(false);
     setShadowSize(shadowSize, maxShadowSize);
   }
 
@@ -207,6 +208,9 @@ class ShadowDrawableWrapper extends DrawableWrapper {
   }
 
   private void drawShadow(Canvas canvas) {
+    if (mShadowBitmaps == null) {
+      return;
+    }
     final int rotateSaved = canvas.save();
     canvas.rotate(mRotation, mContentBounds.centerX(), mContentBounds.centerY());
 
@@ -227,16 +231,12 @@ class ShadowDrawableWrapper extends DrawableWrapper {
     int saved = canvas.save();
     canvas.translate(mContentBounds.left + shadowOffset, mContentBounds.top + shadowOffset);
     canvas.scale(shadowScaleHorizontal, shadowScaleTop);
-    canvas.drawPath(mCornerShadowPath, mCornerShadowPaint);
+    drawCornerShadow(canvas);
     if (drawHorizontalEdges) {
       // TE
       canvas.scale(1f / shadowScaleHorizontal, 1f);
-      canvas.drawRect(
-          0,
-          edgeShadowTop,
-          mContentBounds.width() - 2 * shadowOffset,
-          -mCornerRadius,
-          mEdgeShadowPaint);
+      drawEdgeShadow(
+          canvas, mContentBounds.width() - 2 * shadowOffset, edgeShadowTop, -mCornerRadius);
     }
     canvas.restoreToCount(saved);
     // RB
@@ -244,16 +244,15 @@ class ShadowDrawableWrapper extends DrawableWrapper {
     canvas.translate(mContentBounds.right - shadowOffset, mContentBounds.bottom - shadowOffset);
     canvas.scale(shadowScaleHorizontal, shadowScaleBottom);
     canvas.rotate(180f);
-    canvas.drawPath(mCornerShadowPath, mCornerShadowPaint);
+    drawCornerShadow(canvas);
     if (drawHorizontalEdges) {
       // BE
       canvas.scale(1f / shadowScaleHorizontal, 1f);
-      canvas.drawRect(
-          0,
-          edgeShadowTop,
+      drawEdgeShadow(
+          canvas,
           mContentBounds.width() - 2 * shadowOffset,
-          -mCornerRadius + mShadowSize,
-          mEdgeShadowPaint);
+          edgeShadowTop,
+          -mCornerRadius + mShadowSize);
     }
     canvas.restoreToCount(saved);
     // LB
@@ -261,16 +260,12 @@ class ShadowDrawableWrapper extends DrawableWrapper {
     canvas.translate(mContentBounds.left + shadowOffset, mContentBounds.bottom - shadowOffset);
     canvas.scale(shadowScaleHorizontal, shadowScaleBottom);
     canvas.rotate(270f);
-    canvas.drawPath(mCornerShadowPath, mCornerShadowPaint);
+    drawCornerShadow(canvas);
     if (drawVerticalEdges) {
       // LE
       canvas.scale(1f / shadowScaleBottom, 1f);
-      canvas.drawRect(
-          0,
-          edgeShadowTop,
-          mContentBounds.height() - 2 * shadowOffset,
-          -mCornerRadius,
-          mEdgeShadowPaint);
+      drawEdgeShadow(
+          canvas, mContentBounds.height() - 2 * shadowOffset, edgeShadowTop, -mCornerRadius);
     }
     canvas.restoreToCount(saved);
     // RT
@@ -278,68 +273,45 @@ class ShadowDrawableWrapper extends DrawableWrapper {
     canvas.translate(mContentBounds.right - shadowOffset, mContentBounds.top + shadowOffset);
     canvas.scale(shadowScaleHorizontal, shadowScaleTop);
     canvas.rotate(90f);
-    canvas.drawPath(mCornerShadowPath, mCornerShadowPaint);
+    drawCornerShadow(canvas);
     if (drawVerticalEdges) {
       // RE
       canvas.scale(1f / shadowScaleTop, 1f);
-      canvas.drawRect(
-          0,
-          edgeShadowTop,
-          mContentBounds.height() - 2 * shadowOffset,
-          -mCornerRadius,
-          mEdgeShadowPaint);
+      drawEdgeShadow(
+          canvas, mContentBounds.height() - 2 * shadowOffset, edgeShadowTop, -mCornerRadius);
     }
     canvas.restoreToCount(saved);
 
     canvas.restoreToCount(rotateSaved);
   }
 
-  private void buildShadowCorners() {
-    RectF innerBounds = new RectF(-mCornerRadius, -mCornerRadius, mCornerRadius, mCornerRadius);
-    RectF outerBounds = new RectF(innerBounds);
-    outerBounds.inset(-mShadowSize, -mShadowSize);
+  /** Draws the top-left corner shadow, centered on the origin. */
+  private void drawCornerShadow(Canvas canvas) {
+    final float cornerSize = mCornerRadius + mShadowSize;
+    canvas.drawBitmap(mShadowBitmaps.mCorner, -cornerSize, -cornerSize, mCornerShadowPaint);
+  }
+
+  /** Draws the top edge shadow between the origin and {@code length}, from top to bottom. */
+  private void drawEdgeShadow(Canvas canvas, float length, float top, float bottom) {
+    // The edge bitmap starts at the top of the shadow, so only the part above the bottom is used
+    mEdgeShadowSrc.set(0, 0, 1, Math.round(bottom - top));
+    mEdgeShadowDst.set(0, top, length, bottom);
+    canvas.drawBitmap(mShadowBitmaps.mEdge, mEdgeShadowSrc, mEdgeShadowDst, mEdgeShadowPaint);
+  }
 
-    if (mCornerShadowPath == null) {
-      mCornerShadowPath = new Path();
+  private void buildShadowCorners() {
+    if (mShadowSize > 0) {
+      mShadowBitmaps =
+          ShadowBitmapCache.get(
+              (int) mCornerRadius,
+              (int) mShadowSize,
+              mShadowStartColor,
+              mShadowMiddleColor,
+              mShadowEndColor);
     } else {
-      mCornerShadowPath.reset();
+      // There's nothing to draw
+      mShadowBitmaps = null;
     }
-    mCornerShadowPath.setFillType(Path.FillType.EVEN_ODD);
-    mCornerShadowPath.moveTo(-mCornerRadius, 0);
-    mCornerShadowPath.rLineTo(-mShadowSize, 0);
-    // outer arc
-    mCornerShadowPath.arcTo(outerBounds, 180f, 90f, false);
-    // inner arc
-    mCornerShadowPath.arcTo(innerBounds, 270f, -90f, false);
-    mCornerShadowPath.close();
-
-    float shadowRadius = -outerBounds.top;
-    if (shadowRadius > 0f) {
-      float startRatio = mCornerRadius / shadowRadius;
-      float midRatio = startRatio + ((1f - startRatio) / 2f);
-      mCornerShadowPaint.setShader(
-          new RadialGradient(
-              0,
-              0,
-              shadowRadius,
-              new int[] {0, mShadowStartColor, mShadowMiddleColor, mShadowEndColor},
-              new float[] {0f, startRatio, midRatio, 1f},
-              Shader.TileMode.CLAMP));
-    }
-
-    // we offset the content shadowSize/2 pixels up to make it more realistic.
-    // this is why edge shadow shader has some extra space
-    // When drawing bottom edge shadow, we use that extra space.
-    mEdgeShadowPaint.setShader(
-        new LinearGradient(
-            0,
-            innerBounds.top,
-            0,
-            outerBounds.top,
-            new int[] {mShadowStartColor, mShadowMiddleColor, mShadowEndColor},
-            new float[] {0f, .5f, 1f},
-            Shader.TileMode.CLAMP));
-    mEdgeShadowPaint.setAntiAlias(false);
   }
 
   private void buildComponents(Rect bounds) {
@@ -21,6 +21,7 @@ import static android.support.annotation.RestrictTo.Scope.LIBRARY_GROUP;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.support.annotation.ColorInt;
+import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.RestrictTo;
@@ -112,6 +113,14 @@ public final class Snackbar extends BaseTransientBottomBar<Snackbar> {
     super(parent, content, contentViewCallback);
   }
 
+  private Snackbar(
+      ViewGroup parent,
+      SnackbarBaseLayout view,
+      View content,
+      ContentViewCallback contentViewCallback) {
+    super(parent, view, content, contentViewCallback);
+  }
+
   // TODO: Delete this once custom Robolectric shadows no longer depend on this method being present
   // (and instead properly utilize BaseTransientBottomBar hierarchy).
   @Override
@@ -159,11 +168,21 @@ public final class Snackbar extends BaseTransientBottomBar<Snackbar> {
           "No suitable parent found from the given view. Please provide a valid view.");
     }
 
-    final LayoutInflater inflater = LayoutInflater.from(parent.getContext());
-    final SnackbarContentLayout content =
-        (SnackbarContentLayout)
-            inflater.inflate(R.layout.design_layout_snackbar_include, parent, false);
-    final Snackbar snackbar = new Snackbar(parent, content, content);
+    final SnackbarViewPool pool = SnackbarViewPool.get(parent);
+    final Snackbar snackbar;
+    if (pool != null) {
+      // Bind a prepared view, which is returned to the pool once the Snackbar is hidden
+      final SnackbarBaseLayout view = pool.obtain();
+      final SnackbarContentLayout content = (SnackbarContentLayout) view.getChildAt(0);
+      snackbar = new Snackbar(parent, view, content, content);
+      snackbar.mViewPool = pool;
+    } else {
+      final LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+      final SnackbarContentLayout content =
+          (SnackbarContentLayout)
+              inflater.inflate(R.layout.design_layout_snackbar_include, parent, false);
+      snackbar = new Snackbar(parent, content, content);
+    }
     snackbar.setText(text);
     snackbar.setDuration(duration);
     return snackbar;
@@ -191,6 +210,28 @@ public final class Snackbar extends BaseTransientBottomBar<Snackbar> {
     return make(view, view.getResources().getText(resId), duration);
   }
 
+  /**
+   * Prepare the views of up to {@code count} Snackbars for the parent which Snackbars made from
+   * {@code view} are shown in, so that making one of them doesn't need to inflate its views.
+   *
+   * <p>The views are inflated one at a time while the main thread is idle. Once a Snackbar made
+   * for that parent has been dismissed its views are returned to the pool, so the Snackbar must not
+   * be used again. Call this with a count of 0 to release the views.
+   *
+   * <p>This must be called on the main thread.
+   *
+   * @param view The view to find a parent from, as in {@link #make(View, CharSequence, int)}.
+   * @param count How many Snackbar views to keep for the parent.
+   */
+  public static void prepareViews(@NonNull View view, @IntRange(from = 0) int count) {
+    final ViewGroup parent = findSuitableParent(view);
+    if (parent == null) {
+      throw new IllegalArgumentException(
+          "No suitable parent found from the given view. Please provide a valid view.");
+    }
+    SnackbarViewPool.prepare(parent, count);
+  }
+
   private static ViewGroup findSuitableParent(View view) {
     ViewGroup fallback = null;
     do {
@@ -19,22 +19,34 @@ package android.support.design.widget;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
+import android.support.annotation.Nullable;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-/** Manages {@link Snackbar}s. */
+/**
+ * Manages {@link Snackbar}s.
+ *
+ * <p>By default a newly shown Snackbar replaces the one waiting to be shown next. When a queue
+ * capacity is set, Snackbars instead wait in a bounded queue, ordered by priority and then by when
+ * they were shown. Snackbars with the same coalescing key are only queued once, and when the queue
+ * is full the lowest priority one is dropped. Snackbars shown from any thread are added to the
+ * queue without taking a lock, and moved into it on the main thread.
+ */
 class SnackbarManager {
 
   static final int MSG_TIMEOUT = 0;
+  static final int MSG_DRAIN = 1;
 
   private static final int SHORT_DURATION_MS = 1500;
   private static final int LONG_DURATION_MS = 2750;
 
-  private static SnackbarManager sSnackbarManager;
+  // Created eagerly, since Snackbars may be shown from any thread
+  private static final SnackbarManager sSnackbarManager = new SnackbarManager();
 
   static SnackbarManager getInstance() {
-    if (sSnackbarManager == null) {
-      sSnackbarManager = new SnackbarManager();
-    }
     return sSnackbarManager;
   }
 
@@ -44,6 +56,17 @@ class SnackbarManager {
   private SnackbarRecord mCurrentSnackbar;
   private SnackbarRecord mNextSnackbar;
 
+  // Queue mode, which is used when mQueueCapacity > 0. Shown Snackbars are added to mIncoming,
+  // then moved to mQueue while holding the lock, in priority order.
+  private volatile int mQueueCapacity;
+  private final ConcurrentLinkedQueue<SnackbarRecord> mIncoming = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean mDrainScheduled = new AtomicBoolean();
+  private final List<SnackbarRecord> mQueue = new ArrayList<>();
+
+  private int mPeakQueueDepth;
+  private int mDroppedCount;
+  private int mCoalescedCount;
+
   private SnackbarManager() {
     mLock = new Object();
     mHandler =
@@ -56,6 +79,9 @@ class SnackbarManager {
                   case MSG_TIMEOUT:
                     handleTimeout((SnackbarRecord) message.obj);
                     return true;
+                  case MSG_DRAIN:
+                    handleDrain();
+                    return true;
                 }
                 return false;
               }
@@ -69,6 +95,24 @@ class SnackbarManager {
   }
 
   public void show(int duration, Callback callback) {
+    show(duration, callback, 0, null);
+  }
+
+  /**
+   * Shows the Snackbar with the given callback. The priority and coalescing key are only used when
+   * a queue capacity is set.
+   */
+  public void show(int duration, Callback callback, int priority, @Nullable String coalescingKey) {
+    if (mQueueCapacity > 0) {
+      mIncoming.add(new SnackbarRecord(duration, callback, priority, coalescingKey));
+      if (Looper.myLooper() == Looper.getMainLooper()) {
+        handleDrain();
+      } else if (mDrainScheduled.compareAndSet(false, true)) {
+        mHandler.sendEmptyMessage(MSG_DRAIN);
+      }
+      return;
+    }
+
     synchronized (mLock) {
       if (isCurrentSnackbarLocked(callback)) {
         // Means that the callback is already in the queue. We'll just update the duration
@@ -102,10 +146,16 @@ class SnackbarManager {
 
   public void dismiss(Callback callback, int event) {
     synchronized (mLock) {
+      drainLocked();
       if (isCurrentSnackbarLocked(callback)) {
         cancelSnackbarLocked(mCurrentSnackbar, event);
       } else if (isNextSnackbarLocked(callback)) {
         cancelSnackbarLocked(mNextSnackbar, event);
+      } else {
+        final int index = indexOfQueuedLocked(callback);
+        if (index >= 0) {
+          cancelSnackbarLocked(mQueue.remove(index), event);
+        }
       }
     }
   }
@@ -121,6 +171,8 @@ class SnackbarManager {
         mCurrentSnackbar = null;
         if (mNextSnackbar != null) {
           showNextSnackbarLocked();
+        } else {
+          showNextQueuedSnackbarLocked();
         }
       }
     }
@@ -158,13 +210,89 @@ class SnackbarManager {
 
   public boolean isCurrent(Callback callback) {
     synchronized (mLock) {
+      drainLocked();
       return isCurrentSnackbarLocked(callback);
     }
   }
 
   public boolean isCurrentOrNext(Callback callback) {
     synchronized (mLock) {
-      return isCurrentSnackbarLocked(callback) || isNextSnackbarLocked(callback);
+      drainLocked();
+      return isCurrentSnackbarLocked(callback)
+          || isNextSnackbarLocked(callback)
+          || indexOfQueuedLocked(callback) >= 0;
+    }
+  }
+
+  /**
+   * Sets the number of Snackbars which can wait to be shown, or 0 for only the next one to wait,
+   * replacing any earlier one. Queued Snackbars beyond the new capacity are dropped.
+   */
+  void setQueueCapacity(int capacity) {
+    synchronized (mLock) {
+      drainLocked();
+      mQueueCapacity = Math.max(0, capacity);
+      if (mQueueCapacity > 0) {
+        if (mNextSnackbar != null) {
+          enqueueLocked(mNextSnackbar);
+          mNextSnackbar = null;
+        }
+        while (mQueue.size() > mQueueCapacity) {
+          mQueue.remove(mQueue.size() - 1);
+          mDroppedCount++;
+        }
+      } else if (!mQueue.isEmpty()) {
+        // Only the highest priority Snackbar carries on waiting
+        mNextSnackbar = mQueue.remove(0);
+        mDroppedCount += mQueue.size();
+        mQueue.clear();
+      }
+    }
+  }
+
+  int getQueueCapacity() {
+    return mQueueCapacity;
+  }
+
+  /** Returns the number of Snackbars waiting in the queue. */
+  int getQueueDepth() {
+    synchronized (mLock) {
+      drainLocked();
+      return mQueue.size();
+    }
+  }
+
+  /** Returns the largest number of Snackbars which have waited in the queue at once. */
+  int getPeakQueueDepth() {
+    synchronized (mLock) {
+      drainLocked();
+      return mPeakQueueDepth;
+    }
+  }
+
+  /** Returns the number of queued Snackbars which were dropped because the queue was full. */
+  int getDroppedCount() {
+    synchronized (mLock) {
+      drainLocked();
+      return mDroppedCount;
+    }
+  }
+
+  /** Returns the number of Snackbars coalesced with a queued or shown one with the same key. */
+  int getCoalescedCount() {
+    synchronized (mLock) {
+      drainLocked();
+      return mCoalescedCount;
+    }
+  }
+
+  /** Resets the queue metrics. */
+  void resetQueueMetrics() {
+    synchronized (mLock) {
+      drainLocked();
+      mPeakQueueDepth = mQueue.size();
+      mDroppedCount = 0;
+      mCoalescedCount = 0;
     }
   }
 
@@ -172,10 +300,19 @@ class SnackbarManager {
     final WeakReference<Callback> callback;
     int duration;
     boolean paused;
+    final int priority;
+    @Nullable final String coalescingKey;
 
     SnackbarRecord(int duration, Callback callback) {
+      this(duration, callback, 0, null);
+    }
+
+    SnackbarRecord(
+        int duration, Callback callback, int priority, @Nullable String coalescingKey) {
       this.callback = new WeakReference<>(callback);
       this.duration = duration;
+      this.priority = priority;
+      this.coalescingKey = coalescingKey;
     }
 
     boolean isSnackbar(Callback callback) {
@@ -198,6 +335,102 @@ class SnackbarManager {
     }
   }
 
+  private void handleDrain() {
+    // Cleared before draining, so that any Snackbar shown from now on schedules another drain
+    mDrainScheduled.set(false);
+    synchronized (mLock) {
+      drainLocked();
+    }
+  }
+
+  /** Moves the Snackbars shown since the last drain into the queue, and shows the next one. */
+  private void drainLocked() {
+    SnackbarRecord record;
+    boolean drained = false;
+    while ((record = mIncoming.poll()) != null) {
+      final Callback callback = record.callback.get();
+      if (isCurrentSnackbarLocked(callback)) {
+        // Already being shown, so just update the duration and re-schedule the timeout
+        mCurrentSnackbar.duration = record.duration;
+        mHandler.removeCallbacksAndMessages(mCurrentSnackbar);
+        scheduleTimeoutLocked(mCurrentSnackbar);
+        continue;
+      }
+      if (mCurrentSnackbar != null
+          && record.coalescingKey != null
+          && record.coalescingKey.equals(mCurrentSnackbar.coalescingKey)) {
+        // The same message is already being shown, so just keep it shown for longer
+        mCoalescedCount++;
+        if (!mCurrentSnackbar.paused) {
+          scheduleTimeoutLocked(mCurrentSnackbar);
+        }
+        continue;
+      }
+      enqueueLocked(record);
+      drained = true;
+    }
+    if (!drained) {
+      return;
+    }
+
+    if (mCurrentSnackbar == null) {
+      showNextQueuedSnackbarLocked();
+    } else if (!mQueue.isEmpty() && mQueue.get(0).priority > mCurrentSnackbar.priority) {
+      // A higher priority Snackbar doesn't wait for the current one to time out
+      if (!cancelSnackbarLocked(mCurrentSnackbar, Snackbar.Callback.DISMISS_EVENT_CONSECUTIVE)) {
+        mCurrentSnackbar = null;
+        showNextQueuedSnackbarLocked();
+      }
+    }
+  }
+
+  /**
+   * Adds the given record to the queue after any others of at least the same priority, in place of
+   * any queued record for the same Snackbar or with the same coalescing key.
+   */
+  private void enqueueLocked(SnackbarRecord record) {
+    final Callback callback = record.callback.get();
+    for (int i = mQueue.size() - 1; i >= 0; i--) {
+      final SnackbarRecord queued = mQueue.get(i);
+      if (queued.isSnackbar(callback)) {
+        mQueue.remove(i);
+      } else if (record.coalescingKey != null
+          && record.coalescingKey.equals(queued.coalescingKey)) {
+        mQueue.remove(i);
+        mCoalescedCount++;
+      }
+    }
+
+    int index = mQueue.size();
+    while (index > 0 && mQueue.get(index - 1).priority < record.priority) {
+      index--;
+    }
+    mQueue.add(index, record);
+
+    if (mQueue.size() > mQueueCapacity) {
+      // Drop the lowest priority Snackbar which was shown last, which may be this one
+      mQueue.remove(mQueue.size() - 1);
+      mDroppedCount++;
+    }
+    mPeakQueueDepth = Math.max(mPeakQueueDepth, mQueue.size());
+  }
+
+  private void showNextQueuedSnackbarLocked() {
+    while (mCurrentSnackbar == null && !mQueue.isEmpty()) {
+      mNextSnackbar = mQueue.remove(0);
+      showNextSnackbarLocked();
+    }
+  }
+
+  private int indexOfQueuedLocked(Callback callback) {
+    for (int i = 0, count = mQueue.size(); i < count; i++) {
+      if (mQueue.get(i).isSnackbar(callback)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   private boolean cancelSnackbarLocked(SnackbarRecord record, int event) {
     final Callback callback = record.callback.get();
     if (callback != null) {
@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import android.content.res.ColorStateList;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.design.R;
+import android.support.design.internal.SnackbarContentLayout;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.widget.TextViewCompat;
+import android.view.Gravity;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+import java.util.ArrayList;
+
+/**
+ * A pool of {@link Snackbar} views for one parent, so that making a Snackbar only needs to bind the
+ * views of a pooled one instead of inflating them.
+ *
+ * <p>Views are inflated one at a time while the main thread is idle, with the same inflater as
+ * {@link Snackbar#make(View, CharSequence, int)}, and returned to the pool once their Snackbar is
+ * hidden. The pool is kept in a tag of its parent, so it goes away with the parent.
+ *
+ * <p>A returned view has the customizations apps commonly make through {@link
+ * BaseTransientBottomBar#getView()} undone, such as its background, elevation, padding, margins and
+ * message text color.
+ */
+final class SnackbarViewPool implements MessageQueue.IdleHandler {
+
+  private final ViewGroup mParent;
+  private final ArrayList<BaseTransientBottomBar.SnackbarBaseLayout> mViews = new ArrayList<>();
+  private int mCapacity;
+  private boolean mIdleHandlerAdded;
+  // The state of a freshly inflated view, which apps may customize through a Snackbar's view
+  @Nullable private DefaultViewState mDefaultViewState;
+
+  private SnackbarViewPool(ViewGroup parent) {
+    mParent = parent;
+  }
+
+  /** Returns the pool of the given parent, or null if it doesn't have one. */
+  @Nullable
+  static SnackbarViewPool get(ViewGroup parent) {
+    return (SnackbarViewPool) parent.getTag(R.id.snackbar_view_pool);
+  }
+
+  /**
+   * Sets how many views to keep for the given parent, and starts inflating them once the main
+   * thread is idle. Must be called on the main thread.
+   */
+  static void prepare(ViewGroup parent, int capacity) {
+    SnackbarViewPool pool = get(parent);
+    if (pool == null) {
+      if (capacity <= 0) {
+        return;
+      }
+      pool = new SnackbarViewPool(parent);
+      parent.setTag(R.id.snackbar_view_pool, pool);
+    }
+    pool.setCapacity(capacity);
+  }
+
+  private void setCapacity(int capacity) {
+    mCapacity = Math.max(0, capacity);
+    while (mViews.size() > mCapacity) {
+      mViews.remove(mViews.size() - 1);
+    }
+    if (mCapacity == 0) {
+      mParent.setTag(R.id.snackbar_view_pool, null);
+    } else if (!mIdleHandlerAdded && mViews.size() < mCapacity) {
+      Looper.myQueue().addIdleHandler(this);
+      mIdleHandlerAdded = true;
+    }
+  }
+
+  /**
+   * Returns a pooled view, holding its {@link SnackbarContentLayout}, or inflates a new one if none
+   * is left.
+   */
+  @NonNull
+  BaseTransientBottomBar.SnackbarBaseLayout obtain() {
+    final int count = mViews.size();
+    return count > 0 ? mViews.remove(count - 1) : inflateView();
+  }
+
+  /** Resets the given view, once removed from its parent, and keeps it if there's room. */
+  void release(@NonNull BaseTransientBottomBar.SnackbarBaseLayout view) {
+    if (mViews.size() >= mCapacity || get(mParent) != this) {
+      return;
+    }
+
+    view.setOnLayoutChangeListener(null);
+    view.setOnAttachStateChangeListener(null);
+    view.setVisibility(View.VISIBLE);
+    view.setAlpha(1f);
+    view.setTranslationX(0f);
+    view.setTranslationY(0f);
+
+    final SnackbarContentLayout content = (SnackbarContentLayout) view.getChildAt(0);
+    final TextView message = content.getMessageView();
+    message.animate().cancel();
+    message.setAlpha(1f);
+    message.setText(null);
+    final Button action = content.getActionView();
+    action.animate().cancel();
+    action.setAlpha(1f);
+    action.setText(null);
+    action.setOnClickListener(null);
+    action.setVisibility(View.GONE);
+    if (mDefaultViewState != null) {
+      mDefaultViewState.restore(view, message, action);
+    }
+
+    mViews.add(view);
+  }
+
+  /** Returns the number of views in the pool. */
+  @VisibleForTesting
+  int getPooledViewCount() {
+    return mViews.size();
+  }
+
+  /** Inflates one more view, and returns whether more are needed. */
+  @Override
+  public boolean queueIdle() {
+    if (mViews.size() < mCapacity && get(mParent) == this) {
+      mViews.add(inflateView());
+    }
+    mIdleHandlerAdded = mViews.size() < mCapacity && get(mParent) == this;
+    return mIdleHandlerAdded;
+  }
+
+  /** Inflates a Snackbar view, holding its content, as when a Snackbar is made. */
+  private BaseTransientBottomBar.SnackbarBaseLayout inflateView() {
+    final LayoutInflater inflater = LayoutInflater.from(mParent.getContext());
+    final BaseTransientBottomBar.SnackbarBaseLayout view =
+        (BaseTransientBottomBar.SnackbarBaseLayout)
+            inflater.inflate(R.layout.design_layout_snackbar, mParent, false);
+    final SnackbarContentLayout content =
+        (SnackbarContentLayout)
+            inflater.inflate(R.layout.design_layout_snackbar_include, mParent, false);
+    view.addView(content);
+
+    if (mDefaultViewState == null) {
+      mDefaultViewState =
+          new DefaultViewState(view, content.getMessageView(), content.getActionView());
+    }
+    return view;
+  }
+
+  /**
+   * The parts of a Snackbar's view which apps commonly customize, as they are once inflated, so
+   * that a customization doesn't carry over to the next Snackbar which gets the view.
+   */
+  private static final class DefaultViewState {
+    @Nullable private final Drawable.ConstantState mBackground;
+    @Nullable private final ColorStateList mBackgroundTint;
+    private final float mElevation;
+    private final int mPaddingLeft;
+    private final int mPaddingTop;
+    private final int mPaddingRight;
+    private final int mPaddingBottom;
+
+    private final int mWidth;
+    private final int mHeight;
+    private final int mGravity;
+    private final Rect mMargins = new Rect();
+
+    private final ColorStateList mMessageTextColors;
+    private final int mMessageMaxLines;
+    private final ColorStateList mActionTextColors;
+
+    DefaultViewState(View view, TextView message, Button action) {
+      final Drawable background = view.getBackground();
+      mBackground = background != null ? background.getConstantState() : null;
+      mBackgroundTint = ViewCompat.getBackgroundTintList(view);
+      mElevation = ViewCompat.getElevation(view);
+      mPaddingLeft = view.getPaddingLeft();
+      mPaddingTop = view.getPaddingTop();
+      mPaddingRight = view.getPaddingRight();
+      mPaddingBottom = view.getPaddingBottom();
+
+      final ViewGroup.LayoutParams lp = view.getLayoutParams();
+      mWidth = lp.width;
+      mHeight = lp.height;
+      mGravity = getGravity(lp);
+      if (lp instanceof ViewGroup.MarginLayoutParams) {
+        final ViewGroup.MarginLayoutParams mlp = (ViewGroup.MarginLayoutParams) lp;
+        mMargins.set(mlp.leftMargin, mlp.topMargin, mlp.rightMargin, mlp.bottomMargin);
+      }
+
+      mMessageTextColors = message.getTextColors();
+      mMessageMaxLines = TextViewCompat.getMaxLines(message);
+      mActionTextColors = action.getTextColors();
+    }
+
+    void restore(View view, TextView message, Button action) {
+      if (mBackground != null) {
+        ViewCompat.setBackground(view, mBackground.newDrawable(view.getResources()));
+      } else {
+        ViewCompat.setBackground(view, null);
+      }
+      ViewCompat.setBackgroundTintList(view, mBackgroundTint);
+      ViewCompat.setElevation(view, mElevation);
+      view.setPadding(mPaddingLeft, mPaddingTop, mPaddingRight, mPaddingBottom);
+
+      final ViewGroup.LayoutParams lp = view.getLayoutParams();
+      lp.width = mWidth;
+      lp.height = mHeight;
+      if (lp instanceof CoordinatorLayout.LayoutParams) {
+        ((CoordinatorLayout.LayoutParams) lp).gravity = mGravity;
+      } else if (lp instanceof FrameLayout.LayoutParams) {
+        ((FrameLayout.LayoutParams) lp).gravity = mGravity;
+      }
+      if (lp instanceof ViewGroup.MarginLayoutParams) {
+        ((ViewGroup.MarginLayoutParams) lp)
+            .setMargins(mMargins.left, mMargins.top, mMargins.right, mMargins.bottom);
+      }
+      view.setLayoutParams(lp);
+
+      message.setTextColor(mMessageTextColors);
+      if (mMessageMaxLines != -1) {
+        message.setMaxLines(mMessageMaxLines);
+      }
+      action.setTextColor(mActionTextColors);
+    }
+
+    private static int getGravity(ViewGroup.LayoutParams lp) {
+      if (lp instanceof CoordinatorLayout.LayoutParams) {
+        return ((CoordinatorLayout.LayoutParams) lp).gravity;
+      } else if (lp instanceof FrameLayout.LayoutParams) {
+        return ((FrameLayout.LayoutParams) lp).gravity;
+      }
+      return Gravity.NO_GRAVITY;
+    }
+  }
+}
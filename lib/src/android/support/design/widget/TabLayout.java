@@ -41,6 +41,8 @@ import android.graphics.drawable.RippleDrawable;
 import android.os.Build;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.BoolRes;
 import android.support.annotation.ColorInt;
 import android.support.annotation.ColorRes;
@@ -51,6 +53,7 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.RestrictTo;
 import android.support.annotation.StringRes;
+import android.support.annotation.VisibleForTesting;
 import android.support.design.R;
 import android.support.design.animation.AnimationUtils;
 import android.support.design.resources.MaterialResources;
@@ -67,7 +70,9 @@ import android.support.v4.widget.TextViewCompat;
 import android.support.v7.app.ActionBar;
 import android.support.v7.content.res.AppCompatResources;
 import android.text.Layout;
+import android.text.TextPaint;
 import android.text.TextUtils;
+import android.text.method.TransformationMethod;
 import android.util.AttributeSet;
 import android.util.TypedValue;
 import android.view.Gravity;
@@ -88,6 +93,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.concurrent.Executor;
 
 /**
  * TabLayout provides a horizontal layout to display tabs.
@@ -171,6 +177,9 @@ public class TabLayout extends HorizontalScrollView {
 
   private static final int ANIMATION_DURATION = 300;
 
+  /** Number of tabs on either side of the visible ones which keep their views when virtualized. */
+  private static final int VIRTUALIZED_TAB_VIEW_MARGIN = 3;
+
   private static final Pools.Pool<Tab> sTabPool = new Pools.SynchronizedPool<>(16);
 
   /**
@@ -296,9 +305,14 @@ public class TabLayout extends HorizontalScrollView {
   private TabLayoutOnPageChangeListener mPageChangeListener;
   private AdapterChangeListener mAdapterChangeListener;
   private boolean mSetupViewPagerImplicitly;
+  private boolean mTabReconciliationEnabled;
+  private boolean mTabVirtualizationEnabled;
 
   // Pool we use as a simple RecyclerBin
   private final Pools.Pool<TabView> mTabViewPool = new Pools.SimplePool<>(12);
+  private int mCreatedTabViewCount;
+  // Used to measure the tabs which don't have a view when tabs are virtualized
+  private TabView mMeasuringTabView;
 
   public TabLayout(Context context) {
     this(context, null);
@@ -448,7 +462,7 @@ public class TabLayout extends HorizontalScrollView {
       boolean updateSelectedText,
       boolean updateIndicatorPosition) {
     final int roundedPosition = Math.round(position + positionOffset);
-    if (roundedPosition < 0 || roundedPosition >= mTabStrip.getChildCount()) {
+    if (roundedPosition < 0 || roundedPosition >= mTabStrip.getTabCount()) {
       return;
     }
 
@@ -598,7 +612,10 @@ public class TabLayout extends HorizontalScrollView {
       tab = new Tab();
     }
     tab.mParent = this;
-    tab.mView = createTabView(tab);
+    if (!isVirtualizingTabs()) {
+      // Virtualized tabs are only given a view once they are scrolled into view
+      tab.mView = createTabView(tab);
+    }
     return tab;
   }
 
@@ -666,11 +683,82 @@ public class TabLayout extends HorizontalScrollView {
     }
   }
 
+  /**
+   * Measures the text of every tab on {@code executor}, so that each tab can pick its text size
+   * up front and only needs to be measured once when it is first laid out.
+   *
+   * <p>This is useful for layouts with a large number of tabs, such as the ones populated from a
+   * {@link PagerAdapter}, and should be called once the tabs have been added but before this
+   * layout is attached. Tabs whose text changes in the meantime are measured as normal. This
+   * method must be called from the main thread.
+   *
+   * @param executor The executor to measure the text on
+   */
+  public void precomputeTabText(@NonNull Executor executor) {
+    // Resolve the paint and the text transformation of the tabs here, so that only the
+    // measurement itself runs on the executor
+    final TextView textView =
+        (TextView)
+            LayoutInflater.from(getContext())
+                .inflate(R.layout.design_layout_tab_text, mTabStrip, false);
+    TextViewCompat.setTextAppearance(textView, mTabTextAppearance);
+    final TextPaint paint = new TextPaint(textView.getPaint());
+    final TransformationMethod transformation = textView.getTransformationMethod();
+
+    final int count = mTabs.size();
+    final Tab[] tabs = new Tab[count];
+    final CharSequence[] texts = new CharSequence[count];
+    final CharSequence[] displayedTexts = new CharSequence[count];
+    for (int i = 0; i < count; i++) {
+      final Tab tab = mTabs.get(i);
+      tabs[i] = tab;
+      texts[i] = tab.getText();
+      displayedTexts[i] =
+          (texts[i] != null && transformation != null)
+              ? transformation.getTransformation(texts[i], textView)
+              : texts[i];
+    }
+
+    final float textSize = mTabTextSize;
+    final float multiLineTextSize = mTabTextMultiLineSize;
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            for (int i = 0; i < count; i++) {
+              final CharSequence text = displayedTexts[i];
+              if (TextUtils.isEmpty(text)) {
+                continue;
+              }
+              paint.setTextSize(textSize);
+              final float width = paint.measureText(text, 0, text.length());
+              paint.setTextSize(multiLineTextSize);
+              final float multiLineWidth = paint.measureText(text, 0, text.length());
+              tabs[i].mTextMetrics =
+                  new TabTextMetrics(texts[i], textSize, width, multiLineTextSize, multiLineWidth);
+            }
+            // Let any tabs which have already been measured pick up the new metrics
+            new Handler(Looper.getMainLooper())
+                .post(
+                    new Runnable() {
+                      @Override
+                      public void run() {
+                        mTabStrip.requestLayout();
+                      }
+                    });
+          }
+        });
+  }
+
   /** Remove all tabs from the action bar and deselect the current tab. */
   public void removeAllTabs() {
     // Remove all the views
-    for (int i = mTabStrip.getChildCount() - 1; i >= 0; i--) {
-      removeTabViewAt(i);
+    if (isVirtualizingTabs()) {
+      mTabStrip.releaseTabViews();
+    } else {
+      for (int i = mTabStrip.getChildCount() - 1; i >= 0; i--) {
+        removeTabViewAt(i);
+      }
     }
 
     for (final Iterator<Tab> i = mTabs.iterator(); i.hasNext(); ) {
@@ -700,7 +788,11 @@ public class TabLayout extends HorizontalScrollView {
    */
   public void setTabMode(@Mode int mode) {
     if (mode != mMode) {
+      final boolean wasVirtualizingTabs = isVirtualizingTabs();
       mMode = mode;
+      if (wasVirtualizingTabs != isVirtualizingTabs()) {
+        recreateTabViews();
+      }
       applyModeAndGravity();
     }
   }
@@ -1024,6 +1116,76 @@ public class TabLayout extends HorizontalScrollView {
     setPagerAdapter(adapter, false);
   }
 
+  /**
+   * Sets whether changes to the {@link PagerAdapter} should be reconciled with the existing tabs.
+   *
+   * <p>By default, every tab is removed and added again whenever the adapter's data set changes.
+   * When enabled, the page titles are compared with the titles of the current tabs instead, and
+   * only the tabs which changed are updated, inserted or removed. The other tabs keep their views,
+   * and the selected tab and scroll position are kept where possible.
+   *
+   * @see #isTabReconciliationEnabled()
+   */
+  public void setTabReconciliationEnabled(boolean enabled) {
+    mTabReconciliationEnabled = enabled;
+  }
+
+  /**
+   * Returns whether changes to the {@link PagerAdapter} are reconciled with the existing tabs.
+   *
+   * @see #setTabReconciliationEnabled(boolean)
+   */
+  public boolean isTabReconciliationEnabled() {
+    return mTabReconciliationEnabled;
+  }
+
+  /**
+   * Sets whether tabs should be virtualized when this layout is in {@link #MODE_SCROLLABLE}.
+   *
+   * <p>By default, every tab has its own view, which is created and measured up front. When
+   * virtualized, only the tabs which are scrolled into view, plus a few on either side, have a
+   * view, and views are recycled as the tabs are scrolled. The width of each tab is measured once
+   * and cached until the tab changes. This is useful for layouts with hundreds of tabs.
+   *
+   * @see #isTabVirtualizationEnabled()
+   */
+  public void setTabVirtualizationEnabled(boolean enabled) {
+    if (mTabVirtualizationEnabled != enabled) {
+      final boolean wasVirtualizingTabs = isVirtualizingTabs();
+      mTabVirtualizationEnabled = enabled;
+      if (wasVirtualizingTabs != isVirtualizingTabs()) {
+        recreateTabViews();
+      }
+    }
+  }
+
+  /**
+   * Returns whether tabs are virtualized when this layout is in {@link #MODE_SCROLLABLE}.
+   *
+   * @see #setTabVirtualizationEnabled(boolean)
+   */
+  public boolean isTabVirtualizationEnabled() {
+    return mTabVirtualizationEnabled;
+  }
+
+  boolean isVirtualizingTabs() {
+    return mTabVirtualizationEnabled && mMode == MODE_SCROLLABLE;
+  }
+
+  /** Replaces the tab views after switching between virtualized and regular tabs. */
+  private void recreateTabViews() {
+    mTabStrip.releaseTabViews();
+    if (!isVirtualizingTabs()) {
+      for (int i = 0, count = mTabs.size(); i < count; i++) {
+        addTabView(mTabs.get(i));
+      }
+    }
+    if (mSelectedTab != null) {
+      setSelectedTabView(mSelectedTab.getPosition());
+    }
+    requestLayout();
+  }
+
   @Override
   public boolean shouldDelayChildPressedState() {
     // Only delay the pressed state if the tabs can scroll
@@ -1082,6 +1244,11 @@ public class TabLayout extends HorizontalScrollView {
   }
 
   void populateFromPagerAdapter() {
+    if (mTabReconciliationEnabled && mPagerAdapter != null) {
+      reconcileTabsWithPagerAdapter();
+      return;
+    }
+
     removeAllTabs();
 
     if (mPagerAdapter != null) {
@@ -1100,6 +1267,87 @@ public class TabLayout extends HorizontalScrollView {
     }
   }
 
+  private void reconcileTabsWithPagerAdapter() {
+    final int adapterCount = mPagerAdapter.getCount();
+    final CharSequence[] titles = new CharSequence[adapterCount];
+    for (int i = 0; i < adapterCount; i++) {
+      titles[i] = mPagerAdapter.getPageTitle(i);
+    }
+    final int tabCount = mTabs.size();
+
+    // Tabs at either end whose titles haven't changed are kept as they are
+    int start = 0;
+    while (start < adapterCount
+        && start < tabCount
+        && TextUtils.equals(mTabs.get(start).getText(), titles[start])) {
+      start++;
+    }
+    int end = 0;
+    while (end < adapterCount - start
+        && end < tabCount - start
+        && TextUtils.equals(
+            mTabs.get(tabCount - 1 - end).getText(), titles[adapterCount - 1 - end])) {
+      end++;
+    }
+
+    // Rebind the tabs in between, then insert or remove the difference
+    final int oldCount = tabCount - start - end;
+    final int newCount = adapterCount - start - end;
+    final int rebindCount = Math.min(oldCount, newCount);
+    for (int i = start; i < start + rebindCount; i++) {
+      mTabs.get(i).setText(titles[i]);
+    }
+
+    boolean selectedTabRemoved = false;
+    final int changePosition = start + rebindCount;
+    if (newCount > oldCount) {
+      for (int i = changePosition; i < changePosition + newCount - oldCount; i++) {
+        final Tab tab = newTab().setText(titles[i]);
+        tab.setPosition(i);
+        mTabs.add(i, tab);
+        addTabView(tab);
+      }
+    } else {
+      for (int i = changePosition + oldCount - newCount - 1; i >= changePosition; i--) {
+        removeTabViewAt(i);
+        final Tab removedTab = mTabs.remove(i);
+        selectedTabRemoved |= removedTab == mSelectedTab;
+        removedTab.reset();
+        sTabPool.release(removedTab);
+      }
+    }
+    if (newCount != oldCount) {
+      // Renumber the tabs after the change once, rather than for every tab added or removed
+      for (int i = changePosition, count = mTabs.size(); i < count; i++) {
+        mTabs.get(i).setPosition(i);
+      }
+    }
+
+    if (mSelectedTab != null
+        && !selectedTabRemoved
+        && newCount != oldCount
+        && mSelectedTab.getPosition() >= changePosition) {
+      // The selected tab has moved, so move the indicator with it
+      mTabStrip.setIndicatorPositionFromTabPosition(mSelectedTab.getPosition(), 0f);
+    }
+
+    if (mViewPager != null && adapterCount > 0) {
+      // Make sure we reflect the currently set ViewPager item
+      final int curItem = mViewPager.getCurrentItem();
+      if (curItem != getSelectedTabPosition() && curItem < getTabCount()) {
+        selectTab(getTabAt(curItem));
+      }
+    } else if (selectedTabRemoved) {
+      selectTab(mTabs.isEmpty() ? null : mTabs.get(Math.max(0, changePosition - 1)));
+    }
+  }
+
+  /** Returns the number of {@link TabView}s which have been created, rather than reused. */
+  @VisibleForTesting
+  int getCreatedTabViewCount() {
+    return mCreatedTabViewCount;
+  }
+
   private void updateAllTabs() {
     for (int i = 0, z = mTabs.size(); i < z; i++) {
       mTabs.get(i).updateView();
@@ -1110,6 +1358,7 @@ public class TabLayout extends HorizontalScrollView {
     TabView tabView = mTabViewPool != null ? mTabViewPool.acquire() : null;
     if (tabView == null) {
       tabView = new TabView(getContext());
+      mCreatedTabViewCount++;
     }
     tabView.setTab(tab);
     tabView.setFocusable(true);
@@ -1128,8 +1377,19 @@ public class TabLayout extends HorizontalScrollView {
   }
 
   private void addTabView(Tab tab) {
-    final TabView tabView = tab.mView;
-    mTabStrip.addView(tabView, tab.getPosition(), createLayoutParamsForTabs());
+    // Whether the tab has a view depends on the mode it's added in, not the one it was created in
+    if (isVirtualizingTabs()) {
+      if (tab.mView != null && tab.mView.getParent() == null) {
+        mTabStrip.releaseTabView(tab.mView);
+      }
+      // The views will be bound to the tabs at their new positions on the next layout
+      mTabStrip.releaseTabViews();
+      return;
+    }
+    if (tab.mView == null) {
+      tab.mView = createTabView(tab);
+    }
+    mTabStrip.addView(tab.mView, tab.getPosition(), createLayoutParamsForTabs());
   }
 
   @Override
@@ -1244,7 +1504,28 @@ public class TabLayout extends HorizontalScrollView {
     }
   }
 
+  @Override
+  protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+    super.onScrollChanged(l, t, oldl, oldt);
+    if (isVirtualizingTabs() && mTabStrip.needsTabViewWindowUpdate()) {
+      mTabStrip.requestLayout();
+    }
+  }
+
+  TabView getMeasuringTabView() {
+    if (mMeasuringTabView == null) {
+      mMeasuringTabView = new TabView(getContext());
+      mMeasuringTabView.setLayoutParams(createLayoutParamsForTabs());
+    }
+    mMeasuringTabView.setMinimumWidth(getTabMinWidth());
+    return mMeasuringTabView;
+  }
+
   private void removeTabViewAt(int position) {
+    if (isVirtualizingTabs()) {
+      mTabStrip.releaseTabViews();
+      return;
+    }
     final TabView view = (TabView) mTabStrip.getChildAt(position);
     mTabStrip.removeViewAt(position);
     if (view != null) {
@@ -1301,12 +1582,12 @@ public class TabLayout extends HorizontalScrollView {
   }
 
   private void setSelectedTabView(int position) {
-    final int tabCount = mTabStrip.getChildCount();
-    if (position < tabCount) {
-      for (int i = 0; i < tabCount; i++) {
+    if (position < mTabStrip.getTabCount()) {
+      final int firstPosition = mTabStrip.getFirstTabViewPosition();
+      for (int i = 0, count = mTabStrip.getChildCount(); i < count; i++) {
         final View child = mTabStrip.getChildAt(i);
-        child.setSelected(i == position);
-        child.setActivated(i == position);
+        child.setSelected(firstPosition + i == position);
+        child.setActivated(firstPosition + i == position);
       }
     }
   }
@@ -1367,14 +1648,12 @@ public class TabLayout extends HorizontalScrollView {
 
   private int calculateScrollXForTab(int position, float positionOffset) {
     if (mMode == MODE_SCROLLABLE) {
-      final View selectedChild = mTabStrip.getChildAt(position);
-      final View nextChild =
-          position + 1 < mTabStrip.getChildCount() ? mTabStrip.getChildAt(position + 1) : null;
-      final int selectedWidth = selectedChild != null ? selectedChild.getWidth() : 0;
-      final int nextWidth = nextChild != null ? nextChild.getWidth() : 0;
+      final int selectedWidth = mTabStrip.getTabWidth(position);
+      final int nextWidth =
+          position + 1 < mTabStrip.getTabCount() ? mTabStrip.getTabWidth(position + 1) : 0;
 
       // base scroll amount: places center of tab in center of parent
-      int scrollBase = selectedChild.getLeft() + (selectedWidth / 2) - (getWidth() / 2);
+      int scrollBase = mTabStrip.getTabLeft(position) + (selectedWidth / 2) - (getWidth() / 2);
       // offset amount: fraction of the distance between centers of tabs
       int scrollOffset = (int) ((selectedWidth + nextWidth) * 0.5f * positionOffset);
 
@@ -1406,6 +1685,9 @@ public class TabLayout extends HorizontalScrollView {
   }
 
   void updateTabViews(final boolean requestLayout) {
+    for (int i = 0, count = mTabs.size(); i < count; i++) {
+      mTabs.get(i).mCachedWidth = Tab.INVALID_WIDTH;
+    }
     for (int i = 0; i < mTabStrip.getChildCount(); i++) {
       View child = mTabStrip.getChildAt(i);
       child.setMinimumWidth(getTabMinWidth());
@@ -1414,6 +1696,10 @@ public class TabLayout extends HorizontalScrollView {
         child.requestLayout();
       }
     }
+    if (requestLayout && isVirtualizingTabs()) {
+      // Tabs without views still need to be measured again
+      mTabStrip.requestLayout();
+    }
   }
 
   /** A tab in this layout. Instances can be created via {@link #newTab()}. */
@@ -1436,6 +1722,14 @@ public class TabLayout extends HorizontalScrollView {
     TabLayout mParent;
     TabView mView;
 
+    static final int INVALID_WIDTH = -1;
+
+    /** The width of this tab's view when tabs are virtualized, or {@link #INVALID_WIDTH}. */
+    int mCachedWidth = INVALID_WIDTH;
+
+    /** Set from the executor given to {@link TabLayout#precomputeTabText(Executor)}. */
+    volatile TabTextMetrics mTextMetrics;
+
     Tab() {
       // Private constructor
     }
@@ -1501,8 +1795,10 @@ public class TabLayout extends HorizontalScrollView {
      */
     @NonNull
     public Tab setCustomView(@LayoutRes int resId) {
-      final LayoutInflater inflater = LayoutInflater.from(mView.getContext());
-      return setCustomView(inflater.inflate(resId, mView, false));
+      // Virtualized tabs may not have a view, so inflate using the view used to measure them
+      final ViewGroup root = mView != null ? mView : mParent.getMeasuringTabView();
+      final LayoutInflater inflater = LayoutInflater.from(root.getContext());
+      return setCustomView(inflater.inflate(resId, root, false));
     }
 
     /**
@@ -1657,8 +1953,12 @@ public class TabLayout extends HorizontalScrollView {
     }
 
     void updateView() {
+      // The tab needs to be measured again
+      mCachedWidth = INVALID_WIDTH;
       if (mView != null) {
         mView.update();
+      } else if (mParent != null && mParent.isVirtualizingTabs()) {
+        mParent.mTabStrip.requestLayout();
       }
     }
 
@@ -1671,6 +1971,42 @@ public class TabLayout extends HorizontalScrollView {
       mContentDesc = null;
       mPosition = INVALID_POSITION;
       mCustomView = null;
+      mCachedWidth = INVALID_WIDTH;
+      mTextMetrics = null;
+    }
+  }
+
+  /** The widths of a tab's text at the single and multi-line text sizes. */
+  static final class TabTextMetrics {
+    final CharSequence mText;
+    final float mTextSize;
+    final float mWidth;
+    final float mMultiLineTextSize;
+    final float mMultiLineWidth;
+
+    TabTextMetrics(
+        CharSequence text,
+        float textSize,
+        float width,
+        float multiLineTextSize,
+        float multiLineWidth) {
+      mText = text;
+      mTextSize = textSize;
+      mWidth = width;
+      mMultiLineTextSize = multiLineTextSize;
+      mMultiLineWidth = multiLineWidth;
+    }
+
+    @SuppressWarnings("ReferenceEquality") // Tabs which are given new text are measured again
+    boolean matches(CharSequence text, float textSize, float multiLineTextSize) {
+      return mText == text
+          && mTextSize == textSize
+          && mMultiLineTextSize == multiLineTextSize;
+    }
+
+    /** Returns whether the text fits on a single line of the given width at the text size. */
+    boolean fitsOnOneLine(int availableWidth) {
+      return Math.ceil(mWidth) <= availableWidth;
     }
   }
 
@@ -1803,6 +2139,10 @@ public class TabLayout extends HorizontalScrollView {
         widthMeasureSpec = origWidthMeasureSpec;
       }
 
+      if (measureWithTextMetrics(widthMeasureSpec, heightMeasureSpec)) {
+        return;
+      }
+
       // Now lets measure
       super.onMeasure(widthMeasureSpec, heightMeasureSpec);
 
@@ -1850,6 +2190,46 @@ public class TabLayout extends HorizontalScrollView {
       }
     }
 
+    /**
+     * Picks the text size and max lines from the metrics computed by {@link
+     * #precomputeTabText(Executor)}, so that this view only needs to be measured once.
+     *
+     * @return whether this view was measured
+     */
+    private boolean measureWithTextMetrics(int widthMeasureSpec, int heightMeasureSpec) {
+      final TabTextMetrics metrics = mTab != null ? mTab.mTextMetrics : null;
+      if (metrics == null
+          || mTextView == null
+          || mCustomView != null
+          || MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED
+          || !metrics.matches(mTab.getText(), mTabTextSize, mTabTextMultiLineSize)) {
+        return false;
+      }
+
+      float textSize = mTabTextSize;
+      int maxLines = mDefaultMaxLines;
+      if (mIconView != null && mIconView.getVisibility() == VISIBLE) {
+        // If the icon view is being displayed, we limit the text to 1 line
+        maxLines = 1;
+      } else {
+        final int availableWidth =
+            MeasureSpec.getSize(widthMeasureSpec) - getPaddingLeft() - getPaddingRight();
+        if (!metrics.fitsOnOneLine(availableWidth)) {
+          // Text which wraps uses the reduced text size
+          textSize = mTabTextMultiLineSize;
+        }
+      }
+
+      if (textSize != mTextView.getTextSize()) {
+        mTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSize);
+      }
+      if (maxLines != TextViewCompat.getMaxLines(mTextView)) {
+        mTextView.setMaxLines(maxLines);
+      }
+      super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+      return true;
+    }
+
     void setTab(@Nullable final Tab tab) {
       if (tab != mTab) {
         mTab = tab;
@@ -1860,6 +2240,7 @@ public class TabLayout extends HorizontalScrollView {
     void reset() {
       setTab(null);
       setSelected(false);
+      setActivated(false);
     }
 
     final void update() {
@@ -1928,8 +2309,10 @@ public class TabLayout extends HorizontalScrollView {
         }
       }
 
-      // Finally update our selected state
-      setSelected(tab != null && tab.isSelected());
+      // Finally update our selected and activated state, which a pooled view may still hold
+      final boolean selected = tab != null && tab.isSelected();
+      setSelected(selected);
+      setActivated(selected);
     }
 
     final void updateOrientation() {
@@ -2065,7 +2448,26 @@ public class TabLayout extends HorizontalScrollView {
     private int mIndicatorLeft = -1;
     private int mIndicatorRight = -1;
 
+    // A single animator is reused for every indicator animation, driven by these fields
     private ValueAnimator mIndicatorAnimator;
+    private int mAnimationStartLeft;
+    private int mAnimationStartRight;
+    private int mAnimationTargetLeft;
+    private int mAnimationTargetRight;
+    private int mAnimationTargetPosition;
+
+    // When tabs are virtualized, the children are the views of the tabs from this position on
+    private int mFirstTabViewPosition;
+    private int mWindowFirstPosition;
+    private int mWindowLastPosition = -1;
+
+    // The bounds of every tab once laid out, in mTabLefts and mTabRights. When tabs are
+    // virtualized, they are also measured from the start edge in mTabStarts and mTabEnds
+    private int mTabBoundsCount;
+    private int[] mTabStarts = new int[0];
+    private int[] mTabEnds = new int[0];
+    private int[] mTabLefts = new int[0];
+    private int[] mTabRights = new int[0];
 
     SlidingTabStrip(Context context) {
       super(context);
@@ -2087,6 +2489,214 @@ public class TabLayout extends HorizontalScrollView {
       }
     }
 
+    /** Returns the number of tabs in this strip, including tabs which don't have a view. */
+    int getTabCount() {
+      return isVirtualizingTabs() ? mTabs.size() : getChildCount();
+    }
+
+    /** Returns the position of the tab which the first child belongs to. */
+    int getFirstTabViewPosition() {
+      return isVirtualizingTabs() ? mFirstTabViewPosition : 0;
+    }
+
+    private boolean hasTabBounds(int position) {
+      return position >= 0 && position < mTabBoundsCount && position < getTabCount();
+    }
+
+    int getTabLeft(int position) {
+      return hasTabBounds(position) ? mTabLefts[position] : -1;
+    }
+
+    int getTabRight(int position) {
+      return hasTabBounds(position) ? mTabRights[position] : -1;
+    }
+
+    int getTabWidth(int position) {
+      return hasTabBounds(position) ? mTabRights[position] - mTabLefts[position] : 0;
+    }
+
+    /** Removes the views of virtualized tabs, so that they're bound again on the next layout. */
+    void releaseTabViews() {
+      for (int i = getChildCount() - 1; i >= 0; i--) {
+        final TabView tabView = (TabView) getChildAt(i);
+        removeViewAt(i);
+        releaseTabView(tabView);
+      }
+      mFirstTabViewPosition = 0;
+      requestLayout();
+    }
+
+    private void releaseTabView(TabView tabView) {
+      final Tab tab = tabView.getTab();
+      if (tab != null && tab.mView == tabView) {
+        tab.mView = null;
+      }
+      tabView.reset();
+      mTabViewPool.release(tabView);
+    }
+
+    /** Returns whether the scroll position has moved the window of virtualized tab views. */
+    boolean needsTabViewWindowUpdate() {
+      final int firstPosition = mWindowFirstPosition;
+      final int lastPosition = mWindowLastPosition;
+      computeTabViewWindow(getWidth());
+      return firstPosition != mWindowFirstPosition || lastPosition != mWindowLastPosition;
+    }
+
+    /** Computes which tabs are visible at the current scroll position, plus a margin. */
+    private void computeTabViewWindow(int width) {
+      if (mTabBoundsCount == 0) {
+        mWindowFirstPosition = 0;
+        mWindowLastPosition = -1;
+        return;
+      }
+      final int viewportWidth =
+          TabLayout.this.getWidth() > 0
+              ? TabLayout.this.getWidth()
+              : getResources().getDisplayMetrics().widthPixels;
+      final int scrollX = TabLayout.this.getScrollX();
+      final int visibleStart =
+          ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL
+              ? width - scrollX - viewportWidth
+              : scrollX;
+      mWindowFirstPosition =
+          Math.max(0, findTabPositionAt(visibleStart) - VIRTUALIZED_TAB_VIEW_MARGIN);
+      mWindowLastPosition =
+          Math.min(
+              mTabBoundsCount - 1,
+              findTabPositionAt(visibleStart + viewportWidth) + VIRTUALIZED_TAB_VIEW_MARGIN);
+    }
+
+    /** Returns the position of the tab at the given distance from the start edge. */
+    private int findTabPositionAt(int offset) {
+      int low = 0;
+      int high = mTabBoundsCount - 1;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (mTabEnds[mid] > offset) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * Binds views to the tabs in the window, recycling the views of the tabs which have left it.
+     * Children are kept in the order of their tabs' positions.
+     */
+    private void updateTabViewWindow(int width) {
+      computeTabViewWindow(width);
+      final int firstPosition = mWindowFirstPosition;
+      final int lastPosition = mWindowLastPosition;
+
+      for (int i = getChildCount() - 1; i >= 0; i--) {
+        final TabView tabView = (TabView) getChildAt(i);
+        final int position = tabView.getTab().getPosition();
+        if (position < firstPosition || position > lastPosition) {
+          removeViewInLayout(tabView);
+          releaseTabView(tabView);
+        }
+      }
+
+      for (int position = firstPosition, index = 0; position <= lastPosition; position++, index++) {
+        final Tab tab = mTabs.get(position);
+        if (tab.mView != null && tab.mView.getParent() != this) {
+          // Only trust views which are bound in this strip
+          releaseTabView(tab.mView);
+        }
+        if (tab.mView == null) {
+          tab.mView = createTabView(tab);
+          addViewInLayout(tab.mView, index, createLayoutParamsForTabs(), true);
+        }
+      }
+      mFirstTabViewPosition = firstPosition;
+    }
+
+    private void ensureTabBoundsCapacity(int count) {
+      if (mTabStarts.length < count) {
+        mTabStarts = new int[count];
+        mTabEnds = new int[count];
+        mTabLefts = new int[count];
+        mTabRights = new int[count];
+      }
+    }
+
+    private void measureVirtualized(int widthMeasureSpec, int heightMeasureSpec) {
+      final int childHeightMeasureSpec =
+          getChildMeasureSpec(
+              heightMeasureSpec, getPaddingTop() + getPaddingBottom(), LayoutParams.MATCH_PARENT);
+      final int unspecifiedWidthMeasureSpec =
+          MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+      int maxHeight = 0;
+
+      // Measure the tabs whose widths aren't known yet, using their view if they have one
+      final int count = mTabs.size();
+      ensureTabBoundsCapacity(count);
+      int offset = ViewCompat.getPaddingStart(this);
+      for (int i = 0; i < count; i++) {
+        final Tab tab = mTabs.get(i);
+        if (tab.mCachedWidth == Tab.INVALID_WIDTH) {
+          final TabView tabView = tab.mView != null ? tab.mView : getMeasuringTabView();
+          tabView.setTab(tab);
+          tabView.measure(unspecifiedWidthMeasureSpec, childHeightMeasureSpec);
+          tab.mCachedWidth = tabView.getMeasuredWidth();
+          maxHeight = Math.max(maxHeight, tabView.getMeasuredHeight());
+          if (tabView != tab.mView) {
+            tabView.setTab(null);
+          }
+        }
+        mTabStarts[i] = offset;
+        offset += tab.mCachedWidth;
+        mTabEnds[i] = offset;
+      }
+      mTabBoundsCount = count;
+
+      final int width = resolveSize(offset + ViewCompat.getPaddingEnd(this), widthMeasureSpec);
+      updateTabViewWindow(width);
+
+      for (int i = 0, childCount = getChildCount(); i < childCount; i++) {
+        final TabView tabView = (TabView) getChildAt(i);
+        tabView.measure(
+            MeasureSpec.makeMeasureSpec(tabView.getTab().mCachedWidth, MeasureSpec.EXACTLY),
+            childHeightMeasureSpec);
+        maxHeight = Math.max(maxHeight, tabView.getMeasuredHeight());
+      }
+
+      setMeasuredDimension(
+          width,
+          resolveSize(maxHeight + getPaddingTop() + getPaddingBottom(), heightMeasureSpec));
+    }
+
+    /** Records the bounds of the tab views, so that the indicator doesn't need to look them up. */
+    private void updateTabBounds() {
+      final int count = getChildCount();
+      ensureTabBoundsCapacity(count);
+      for (int i = 0; i < count; i++) {
+        final View child = getChildAt(i);
+        mTabLefts[i] = child.getLeft();
+        mTabRights[i] = child.getRight();
+      }
+      mTabBoundsCount = count;
+    }
+
+    private void layoutVirtualized(int width) {
+      final boolean isRtl = ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL;
+      for (int i = 0; i < mTabBoundsCount; i++) {
+        mTabLefts[i] = isRtl ? width - mTabEnds[i] : mTabStarts[i];
+        mTabRights[i] = mTabLefts[i] + mTabEnds[i] - mTabStarts[i];
+      }
+
+      final int top = getPaddingTop();
+      for (int i = 0, childCount = getChildCount(); i < childCount; i++) {
+        final TabView tabView = (TabView) getChildAt(i);
+        final int position = tabView.getTab().getPosition();
+        tabView.layout(
+            mTabLefts[position], top, mTabRights[position], top + tabView.getMeasuredHeight());
+      }
+    }
+
     boolean childrenNeedLayout() {
       for (int i = 0, z = getChildCount(); i < z; i++) {
         final View child = getChildAt(i);
@@ -2127,6 +2737,11 @@ public class TabLayout extends HorizontalScrollView {
 
     @Override
     protected void onMeasure(final int widthMeasureSpec, final int heightMeasureSpec) {
+      if (isVirtualizingTabs()) {
+        measureVirtualized(widthMeasureSpec, heightMeasureSpec);
+        return;
+      }
+
       super.onMeasure(widthMeasureSpec, heightMeasureSpec);
 
       if (MeasureSpec.getMode(widthMeasureSpec) != MeasureSpec.EXACTLY) {
@@ -2183,7 +2798,12 @@ public class TabLayout extends HorizontalScrollView {
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
-      super.onLayout(changed, l, t, r, b);
+      if (isVirtualizingTabs()) {
+        layoutVirtualized(r - l);
+      } else {
+        super.onLayout(changed, l, t, r, b);
+        updateTabBounds();
+      }
 
       if (mIndicatorAnimator != null && mIndicatorAnimator.isRunning()) {
         // If we're currently running an animation, lets cancel it and start a
@@ -2200,20 +2820,23 @@ public class TabLayout extends HorizontalScrollView {
     }
 
     private void updateIndicatorPosition() {
-      final View selectedTitle = getChildAt(mSelectedPosition);
       int left;
       int right;
 
-      if (selectedTitle != null && selectedTitle.getWidth() > 0) {
-        left = selectedTitle.getLeft();
-        right = selectedTitle.getRight();
+      if (hasTabBounds(mSelectedPosition) && getTabWidth(mSelectedPosition) > 0) {
+        left = getTabLeft(mSelectedPosition);
+        right = getTabRight(mSelectedPosition);
 
-        if (mSelectionOffset > 0f && mSelectedPosition < getChildCount() - 1) {
+        if (mSelectionOffset > 0f && mSelectedPosition < getTabCount() - 1) {
           // Draw the selection partway between the tabs
-          View nextTitle = getChildAt(mSelectedPosition + 1);
-          left = (int) (mSelectionOffset * nextTitle.getLeft() + (1.0f - mSelectionOffset) * left);
+          final int nextPosition = mSelectedPosition + 1;
+          left =
+              (int)
+                  (mSelectionOffset * getTabLeft(nextPosition) + (1.0f - mSelectionOffset) * left);
           right =
-              (int) (mSelectionOffset * nextTitle.getRight() + (1.0f - mSelectionOffset) * right);
+              (int)
+                  (mSelectionOffset * getTabRight(nextPosition)
+                      + (1.0f - mSelectionOffset) * right);
         }
       } else {
         left = right = -1;
@@ -2231,22 +2854,21 @@ public class TabLayout extends HorizontalScrollView {
       }
     }
 
-    void animateIndicatorToPosition(final int position, int duration) {
+    void animateIndicatorToPosition(int position, int duration) {
       if (mIndicatorAnimator != null && mIndicatorAnimator.isRunning()) {
         mIndicatorAnimator.cancel();
       }
 
       final boolean isRtl = ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL;
 
-      final View targetView = getChildAt(position);
-      if (targetView == null) {
+      if (!hasTabBounds(position)) {
         // If we don't have a view, just update the position now and return
         updateIndicatorPosition();
         return;
       }
 
-      final int targetLeft = targetView.getLeft();
-      final int targetRight = targetView.getRight();
+      final int targetLeft = getTabLeft(position);
+      final int targetRight = getTabRight(position);
       final int startLeft;
       final int startRight;
 
@@ -2275,29 +2897,40 @@ public class TabLayout extends HorizontalScrollView {
       }
 
       if (startLeft != targetLeft || startRight != targetRight) {
-        ValueAnimator animator = mIndicatorAnimator = new ValueAnimator();
-        animator.setInterpolator(AnimationUtils.FAST_OUT_SLOW_IN_INTERPOLATOR);
-        animator.setDuration(duration);
-        animator.setFloatValues(0, 1);
-        animator.addUpdateListener(
+        ensureIndicatorAnimator();
+        mAnimationStartLeft = startLeft;
+        mAnimationStartRight = startRight;
+        mAnimationTargetLeft = targetLeft;
+        mAnimationTargetRight = targetRight;
+        mAnimationTargetPosition = position;
+        mIndicatorAnimator.setDuration(duration);
+        mIndicatorAnimator.start();
+      }
+    }
+
+    private void ensureIndicatorAnimator() {
+      if (mIndicatorAnimator == null) {
+        mIndicatorAnimator = new ValueAnimator();
+        mIndicatorAnimator.setInterpolator(AnimationUtils.FAST_OUT_SLOW_IN_INTERPOLATOR);
+        mIndicatorAnimator.setFloatValues(0, 1);
+        mIndicatorAnimator.addUpdateListener(
             new ValueAnimator.AnimatorUpdateListener() {
               @Override
               public void onAnimationUpdate(ValueAnimator animator) {
                 final float fraction = animator.getAnimatedFraction();
                 setIndicatorPosition(
-                    AnimationUtils.lerp(startLeft, targetLeft, fraction),
-                    AnimationUtils.lerp(startRight, targetRight, fraction));
+                    AnimationUtils.lerp(mAnimationStartLeft, mAnimationTargetLeft, fraction),
+                    AnimationUtils.lerp(mAnimationStartRight, mAnimationTargetRight, fraction));
               }
             });
-        animator.addListener(
+        mIndicatorAnimator.addListener(
             new AnimatorListenerAdapter() {
               @Override
               public void onAnimationEnd(Animator animator) {
-                mSelectedPosition = position;
+                mSelectedPosition = mAnimationTargetPosition;
                 mSelectionOffset = 0f;
               }
             });
-        animator.start();
       }
     }
 
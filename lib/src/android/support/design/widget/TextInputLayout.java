@@ -178,8 +178,6 @@ public class TextInputLayout extends LinearLayout {
   public static final int BOX_BACKGROUND_FILLED = 1;
   public static final int BOX_BACKGROUND_OUTLINE = 2;
 
-  private final Rect mTmpRect = new Rect();
-  private final RectF mTmpRectF = new RectF();
   private Typeface mTypeface;
 
   private boolean mPasswordToggleEnabled;
@@ -1281,17 +1279,15 @@ public class TextInputLayout extends LinearLayout {
       editTextBackground = editTextBackground.mutate();
     }
 
-    final Rect editTextBounds = new Rect();
-    ViewGroupUtils.getDescendantRect(this, mEditText, editTextBounds);
-
     Rect editTextBackgroundBounds = editTextBackground.getBounds();
     if (editTextBackgroundBounds.left != editTextBackgroundBounds.right) {
 
-      Rect editTextBackgroundPadding = new Rect();
+      Rect editTextBackgroundPadding = GeometryPool.acquireRect();
       editTextBackground.getPadding(editTextBackgroundPadding);
 
       final int left = editTextBackgroundBounds.left - editTextBackgroundPadding.left;
       final int right = editTextBackgroundBounds.right + editTextBackgroundPadding.right * 2;
+      GeometryPool.releaseRect(editTextBackgroundPadding);
       editTextBackground.setBounds(
           left, editTextBackgroundBounds.top, right, mEditText.getBottom());
     }
@@ -1836,7 +1832,7 @@ public class TextInputLayout extends LinearLayout {
     }
 
     if (mHintEnabled && mEditText != null) {
-      final Rect rect = mTmpRect;
+      final Rect rect = GeometryPool.acquireRect();
       ViewGroupUtils.getDescendantRect(this, mEditText, rect);
 
       final int l = rect.left + mEditText.getCompoundPaddingLeft();
@@ -1853,6 +1849,7 @@ public class TextInputLayout extends LinearLayout {
       // EditText's editable area
       mCollapsingTextHelper.setCollapsedBounds(l, t, r, bottom - top - getPaddingBottom());
       mCollapsingTextHelper.recalculate();
+      GeometryPool.releaseRect(rect);
     }
   }
 
@@ -1879,10 +1876,11 @@ public class TextInputLayout extends LinearLayout {
     if (!cutoutEnabled()) {
       return;
     }
-    final RectF cutoutBounds = mTmpRectF;
+    final RectF cutoutBounds = GeometryPool.acquireRectF();
     mCollapsingTextHelper.getCollapsedTextActualBounds(cutoutBounds);
     applyCutoutPadding(cutoutBounds);
     ((CutoutDrawable) mBoxBackground).setCutout(cutoutBounds);
+    GeometryPool.releaseRectF(cutoutBounds);
   }
 
   private void closeCutout() {
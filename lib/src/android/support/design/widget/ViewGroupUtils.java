@@ -24,9 +24,6 @@ import android.view.ViewGroup;
 import android.view.ViewParent;
 
 class ViewGroupUtils {
-  private static final ThreadLocal<Matrix> sMatrix = new ThreadLocal<>();
-  private static final ThreadLocal<RectF> sRectF = new ThreadLocal<>();
-
   /**
    * This is a port of the common {@link ViewGroup#offsetDescendantRectToMyCoords(android.view.View,
    * android.graphics.Rect)} from the framework, but adapted to take transformations into account.
@@ -36,21 +33,10 @@ class ViewGroupUtils {
    * @param rect (in/out) the rect to offset from descendant to this view's coordinate system
    */
   static void offsetDescendantRect(ViewGroup parent, View descendant, Rect rect) {
-    Matrix m = sMatrix.get();
-    if (m == null) {
-      m = new Matrix();
-      sMatrix.set(m);
-    } else {
-      m.reset();
-    }
-
+    final Matrix m = GeometryPool.acquireMatrix();
     offsetDescendantMatrix(parent, descendant, m);
 
-    RectF rectF = sRectF.get();
-    if (rectF == null) {
-      rectF = new RectF();
-      sRectF.set(rectF);
-    }
+    final RectF rectF = GeometryPool.acquireRectF();
     rectF.set(rect);
     m.mapRect(rectF);
     rect.set(
@@ -58,6 +44,9 @@ class ViewGroupUtils {
         (int) (rectF.top + 0.5f),
         (int) (rectF.right + 0.5f),
         (int) (rectF.bottom + 0.5f));
+
+    GeometryPool.releaseRectF(rectF);
+    GeometryPool.releaseMatrix(m);
   }
 
   /**
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import java.util.ArrayList;
+
+/**
+ * A list of items sorted such that the items with the highest Z values are at the front. Items
+ * with equal Z values are kept in the order they were added.
+ *
+ * <p>Items are added with an insertion sort, which doesn't allocate once the list has grown to its
+ * size, and runs in linear time when the items are added in (nearly) descending Z order, as is
+ * usual for views added in reverse drawing order.
+ */
+final class ZSortedList<T> {
+  private final ArrayList<T> mItems = new ArrayList<>();
+  private float[] mZ = new float[0];
+
+  /** Adds the item after any items with an equal or higher Z value. */
+  void add(T item, float z) {
+    final int size = mItems.size();
+    if (mZ.length == size) {
+      final float[] newZ = new float[Math.max(8, size * 2)];
+      System.arraycopy(mZ, 0, newZ, 0, size);
+      mZ = newZ;
+    }
+    mItems.add(item);
+    int i = size - 1;
+    while (i >= 0 && mZ[i] < z) {
+      mItems.set(i + 1, mItems.get(i));
+      mZ[i + 1] = mZ[i];
+      i--;
+    }
+    mItems.set(i + 1, item);
+    mZ[i + 1] = z;
+  }
+
+  T get(int index) {
+    return mItems.get(index);
+  }
+
+  int size() {
+    return mItems.size();
+  }
+
+  void clear() {
+    mItems.clear();
+  }
+}
@@ -40,8 +40,8 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.design.R;
 import android.support.design.animation.AnimatorSetCompat;
-import android.support.design.animation.ArgbEvaluatorCompat;
 import android.support.design.animation.ChildrenAlphaProperty;
+import android.support.design.animation.ColorRampEvaluator;
 import android.support.design.animation.DrawableAlphaProperty;
 import android.support.design.animation.MotionSpec;
 import android.support.design.animation.MotionTiming;
@@ -70,6 +70,24 @@ import java.util.List;
  */
 public abstract class FabTransformationBehavior extends ExpandableTransformationBehavior {
 
+  private static final int TIMING_ELEVATION = MotionSpec.getTimingKey("elevation");
+  private static final int TIMING_TRANSLATION_X_LINEAR =
+      MotionSpec.getTimingKey("translationXLinear");
+  private static final int TIMING_TRANSLATION_Y_LINEAR =
+      MotionSpec.getTimingKey("translationYLinear");
+  private static final int TIMING_TRANSLATION_X_CURVE_UPWARDS =
+      MotionSpec.getTimingKey("translationXCurveUpwards");
+  private static final int TIMING_TRANSLATION_Y_CURVE_UPWARDS =
+      MotionSpec.getTimingKey("translationYCurveUpwards");
+  private static final int TIMING_TRANSLATION_X_CURVE_DOWNWARDS =
+      MotionSpec.getTimingKey("translationXCurveDownwards");
+  private static final int TIMING_TRANSLATION_Y_CURVE_DOWNWARDS =
+      MotionSpec.getTimingKey("translationYCurveDownwards");
+  private static final int TIMING_ICON_FADE = MotionSpec.getTimingKey("iconFade");
+  private static final int TIMING_EXPANSION = MotionSpec.getTimingKey("expansion");
+  private static final int TIMING_COLOR = MotionSpec.getTimingKey("color");
+  private static final int TIMING_CONTENT_FADE = MotionSpec.getTimingKey("contentFade");
+
   private final Rect tmpRect = new Rect();
   private final RectF tmpRectF1 = new RectF();
   private final RectF tmpRectF2 = new RectF();
@@ -195,7 +213,7 @@ public abstract class FabTransformationBehavior extends ExpandableTransformation
       animator = ObjectAnimator.ofFloat(child, View.TRANSLATION_Z, -translationZ);
     }
 
-    MotionTiming timing = spec.timings.getTiming("elevation");
+    MotionTiming timing = spec.timings.getTiming(TIMING_ELEVATION);
     timing.apply(animator);
     animations.add(animator);
   }
@@ -219,16 +237,16 @@ public abstract class FabTransformationBehavior extends ExpandableTransformation
     MotionTiming translationYTiming;
     if (translationX == 0 || translationY == 0) {
       // Horizontal or vertical motion.
-      translationXTiming = spec.timings.getTiming("translationXLinear");
-      translationYTiming = spec.timings.getTiming("translationYLinear");
+      translationXTiming = spec.timings.getTiming(TIMING_TRANSLATION_X_LINEAR);
+      translationYTiming = spec.timings.getTiming(TIMING_TRANSLATION_Y_LINEAR);
     } else if ((expanded && translationY < 0) || (!expanded && translationY > 0)) {
       // Upwards motion.
-      translationXTiming = spec.timings.getTiming("translationXCurveUpwards");
-      translationYTiming = spec.timings.getTiming("translationYCurveUpwards");
+      translationXTiming = spec.timings.getTiming(TIMING_TRANSLATION_X_CURVE_UPWARDS);
+      translationYTiming = spec.timings.getTiming(TIMING_TRANSLATION_Y_CURVE_UPWARDS);
     } else {
       // Downwards motion.
-      translationXTiming = spec.timings.getTiming("translationXCurveDownwards");
-      translationYTiming = spec.timings.getTiming("translationYCurveDownwards");
+      translationXTiming = spec.timings.getTiming(TIMING_TRANSLATION_X_CURVE_DOWNWARDS);
+      translationYTiming = spec.timings.getTiming(TIMING_TRANSLATION_Y_CURVE_DOWNWARDS);
     }
 
     if (expanded) {
@@ -302,7 +320,7 @@ public abstract class FabTransformationBehavior extends ExpandableTransformation
           }
         });
 
-    MotionTiming timing = spec.timings.getTiming("iconFade");
+    MotionTiming timing = spec.timings.getTiming(TIMING_ICON_FADE);
     timing.apply(animator);
     animations.add(animator);
     listeners.add(
@@ -341,7 +359,7 @@ public abstract class FabTransformationBehavior extends ExpandableTransformation
     float dependencyRadius = tmpRect.width() / 2f;
 
     Animator animator;
-    MotionTiming timing = spec.timings.getTiming("expansion");
+    MotionTiming timing = spec.timings.getTiming(TIMING_EXPANSION);
 
     if (expanded) {
       if (!currentlyAnimating) {
@@ -441,8 +459,8 @@ public abstract class FabTransformationBehavior extends ExpandableTransformation
               tint);
     }
 
-    animator.setEvaluator(ArgbEvaluatorCompat.getInstance());
-    MotionTiming timing = spec.timings.getTiming("color");
+    animator.setEvaluator(ColorRampEvaluator.getInstance());
+    MotionTiming timing = spec.timings.getTiming(TIMING_COLOR);
     timing.apply(animator);
     animations.add(animator);
   }
@@ -482,7 +500,7 @@ public abstract class FabTransformationBehavior extends ExpandableTransformation
           ObjectAnimator.ofFloat(childContentContainer, ChildrenAlphaProperty.CHILDREN_ALPHA, 0f);
     }
 
-    MotionTiming timing = spec.timings.getTiming("contentFade");
+    MotionTiming timing = spec.timings.getTiming(TIMING_CONTENT_FADE);
     timing.apply(animator);
     animations.add(animator);
   }
@@ -609,19 +627,15 @@ public abstract class FabTransformationBehavior extends ExpandableTransformation
 
   private float calculateValueOfAnimationAtEndOfExpansion(
       FabTransformationSpec spec, MotionTiming timing, float from, float to) {
-    long delay = timing.getDelay();
-    long duration = timing.getDuration();
-
     // Calculate at what time in the translation animation does the expansion animation end.
-    MotionTiming expansionTiming = spec.timings.getTiming("expansion");
+    MotionTiming expansionTiming = spec.timings.getTiming(TIMING_EXPANSION);
     long expansionEnd = expansionTiming.getDelay() + expansionTiming.getDuration();
     // Adjust one frame (16.6ms) for Android's draw pipeline.
     // A value set at frame N will be drawn at frame N+1.
     expansionEnd += 17;
-    float fraction = (float) (expansionEnd - delay) / duration;
 
-    // Calculate the exact value of the animation at that time.
-    fraction = timing.getInterpolator().getInterpolation(fraction);
+    // Calculate the value of the animation at that time.
+    float fraction = timing.getInterpolatedFraction(expansionEnd);
     return lerp(from, to, fraction);
   }
 
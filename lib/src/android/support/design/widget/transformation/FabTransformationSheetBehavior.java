@@ -49,7 +49,7 @@ public class FabTransformationSheetBehavior extends FabTransformationBehavior {
     }
 
     FabTransformationSpec spec = new FabTransformationSpec();
-    spec.timings = MotionSpec.createFromResource(context, specRes);
+    spec.timings = MotionSpec.getSharedFromResource(context, specRes);
     spec.positioning = new Positioning(Gravity.CENTER, 0f, 0f);
     return spec;
   }
@@ -17,10 +17,15 @@ package android.support.design.animation;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
+import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
 import android.content.res.TypedArray;
 import android.os.Build.VERSION;
@@ -114,6 +119,104 @@ public class MotionSpecTest {
     assertEquals(ValueAnimator.REVERSE, translation.getRepeatMode());
   }
 
+  @Test
+  public void lookUpTimingsByKey() {
+    MotionSpec spec =
+        MotionSpec.createFromResource(
+            activityTestRule.getActivity(), R.animator.valid_set_of_object_animator_motion_spec);
+    int alphaKey = MotionSpec.getTimingKey("alpha");
+
+    assertEquals(alphaKey, MotionSpec.getTimingKey("alpha"));
+    assertTrue(spec.hasTiming(alphaKey));
+    assertSame(spec.getTiming("alpha"), spec.getTiming(alphaKey));
+    assertSame(
+        spec.getTiming("translation"), spec.findTiming(MotionSpec.getTimingKey("translation")));
+    assertFalse(spec.hasTiming(MotionSpec.getTimingKey("missing")));
+    assertNull(spec.findTiming(MotionSpec.getTimingKey("missing")));
+  }
+
+  @Test
+  public void setTimingUpdatesTotalDuration() {
+    MotionSpec spec = new MotionSpec();
+    spec.setTiming("alpha", new MotionTiming(0, 100));
+    assertEquals(100, spec.getTotalDuration());
+
+    spec.setTiming("translation", new MotionTiming(50, 150));
+    assertEquals(200, spec.getTotalDuration());
+
+    spec.setTiming("translation", new MotionTiming(0, 50));
+    assertEquals(100, spec.getTotalDuration());
+  }
+
+  @Test
+  public void interpolatedFractionMatchesInterpolator() {
+    MotionTiming timing = new MotionTiming(100, 200, new FastOutSlowInInterpolator());
+    TimeInterpolator interpolator = timing.getInterpolator();
+
+    for (long time = 100; time <= 300; time += 7) {
+      assertEquals(
+          interpolator.getInterpolation((time - 100) / 200f),
+          timing.getInterpolatedFraction(time),
+          0.005f);
+    }
+    // Times outside of the timing are passed straight to the interpolator
+    assertEquals(interpolator.getInterpolation(-0.5f), timing.getInterpolatedFraction(0), 0f);
+    assertEquals(interpolator.getInterpolation(1.5f), timing.getInterpolatedFraction(400), 0f);
+  }
+
+  @Test
+  public void interpolatedFractionWithoutDurationJumpsToTheEnd() {
+    MotionTiming timing = new MotionTiming(100, 0, new FastOutSlowInInterpolator());
+
+    assertEquals(0f, timing.getInterpolatedFraction(0), 0f);
+    assertEquals(0f, timing.getInterpolatedFraction(99), 0f);
+    assertEquals(1f, timing.getInterpolatedFraction(100), 0f);
+    assertEquals(1f, timing.getInterpolatedFraction(400), 0f);
+  }
+
+  @Test
+  public void resourcesAreOnlyInflatedOnce() {
+    MotionSpec.clearCache();
+    int hits = MotionSpec.getCacheHitCount();
+    int misses = MotionSpec.getCacheMissCount();
+
+    MotionSpec spec1 =
+        MotionSpec.createFromResource(
+            activityTestRule.getActivity(), R.animator.valid_set_of_object_animator_motion_spec);
+    MotionSpec spec2 =
+        MotionSpec.createFromResource(
+            activityTestRule.getActivity(), R.animator.valid_set_of_object_animator_motion_spec);
+
+    assertEquals(hits + 1, MotionSpec.getCacheHitCount());
+    assertEquals(misses + 1, MotionSpec.getCacheMissCount());
+    // Each caller gets its own copy of the cached spec
+    assertNotSame(spec1, spec2);
+    assertEquals(spec1, spec2);
+    spec1.setTiming("alpha", null);
+    assertNotNull(spec2.getTiming("alpha"));
+  }
+
+  @Test
+  public void sharedMotionSpecIsShared() {
+    MotionSpec spec1 =
+        MotionSpec.getSharedFromResource(
+            activityTestRule.getActivity(), R.animator.valid_set_of_object_animator_motion_spec);
+    MotionSpec spec2 =
+        MotionSpec.getSharedFromResource(
+            activityTestRule.getActivity(), R.animator.valid_set_of_object_animator_motion_spec);
+
+    assertSame(spec1, spec2);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void sharedMotionSpecIsImmutable() {
+    MotionSpec spec =
+        MotionSpec.getSharedFromResource(
+            activityTestRule.getActivity(), R.animator.valid_set_of_object_animator_motion_spec);
+
+    spec.setTiming("alpha", null);
+  }
+
   public void inflateInvalidSetOfSetMotionSpec() {
     assertNull(
         MotionSpec.createFromResource(
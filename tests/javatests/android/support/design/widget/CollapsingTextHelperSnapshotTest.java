@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.design.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import android.content.res.ColorStateList;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.filters.SmallTest;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+public class CollapsingTextHelperSnapshotTest {
+
+  private CollapsingTextHelper helper;
+
+  @Before
+  public void setUp() {
+    CollapsingTextHelper.clearSnapshotBitmapPool();
+
+    final View view = new View(InstrumentationRegistry.getTargetContext());
+    view.layout(0, 0, 500, 200);
+
+    helper = new CollapsingTextHelper(view);
+    helper.setCollapsedTextColor(ColorStateList.valueOf(Color.WHITE));
+    helper.setExpandedTextColor(ColorStateList.valueOf(Color.BLACK));
+    helper.setCollapsedTextSize(20);
+    helper.setExpandedTextSize(40);
+    helper.setCollapsedBounds(0, 0, 500, 50);
+    helper.setExpandedBounds(0, 100, 500, 200);
+    helper.setSnapshotsEnabled(true);
+    helper.setText("Title");
+  }
+
+  @Test
+  public void testSnapshotsAreOnlyRenderedOnce() {
+    // One snapshot for each of the collapsed and expanded states
+    assertEquals(2, helper.getSnapshotRenderCount());
+
+    for (int i = 0; i <= 20; i++) {
+      helper.setExpansionFraction(i / 20f);
+    }
+    helper.recalculate();
+
+    assertEquals(2, helper.getSnapshotRenderCount());
+  }
+
+  @Test
+  public void testSnapshotsAreRenderedWhenTheTitleChanges() {
+    helper.setText("Another title");
+    assertEquals(4, helper.getSnapshotRenderCount());
+
+    // Only the collapsed snapshot depends on the collapsed text color
+    helper.setCollapsedTextColor(ColorStateList.valueOf(Color.RED));
+    assertEquals(5, helper.getSnapshotRenderCount());
+  }
+
+  @Test
+  public void testSnapshotBitmapsAreReused() {
+    final Bitmap bitmap = helper.getCollapsedSnapshotBitmap();
+    assertNotNull(bitmap);
+
+    // A shorter title fits in the bitmap of the previous one
+    helper.setText("Tit");
+    assertSame(bitmap, helper.getCollapsedSnapshotBitmap());
+  }
+
+  @Test
+  public void testDisablingSnapshotsReleasesThem() {
+    helper.setSnapshotsEnabled(false);
+    assertNull(helper.getCollapsedSnapshotBitmap());
+  }
+}
@@ -37,6 +37,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import android.annotation.TargetApi;
+import android.content.Context;
 import android.graphics.Rect;
 import android.support.design.testapp.CoordinatorLayoutActivity;
 import android.support.design.testapp.R;
@@ -742,6 +743,96 @@ public class CoordinatorLayoutTest {
     verify(spyBehavior, never()).getInsetDodgeRect(same(col), same(view), any(Rect.class));
   }
 
+  @Test
+  public void testIncrementalDependencyUpdates() throws Throwable {
+    final CoordinatorLayout col = activityTestRule.getActivity().mCoordinatorLayout;
+
+    // Add two views, A & B, where B depends on A
+    final View viewA = new View(col.getContext());
+    final View viewB = new View(col.getContext());
+    final CoordinatorLayout.LayoutParams lpB = col.generateDefaultLayoutParams();
+    lpB.setBehavior(new DependentBehavior(viewA));
+
+    activityTestRule.runOnUiThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            col.setIncrementalDependencyUpdatesEnabled(true);
+            col.addView(viewA);
+            col.addView(viewB, lpB);
+          }
+        });
+    getInstrumentation().waitForIdleSync();
+
+    final int fullRebuilds = col.getFullDependencyRebuildCount();
+    final int incrementalRebuilds = col.getIncrementalDependencyRebuildCount();
+
+    // Now add view C, which depends on B
+    final View viewC = new View(col.getContext());
+    final CoordinatorLayout.LayoutParams lpC = col.generateDefaultLayoutParams();
+    lpC.setBehavior(new DependentBehavior(viewB));
+
+    activityTestRule.runOnUiThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            col.addView(viewC, 0, lpC);
+          }
+        });
+    getInstrumentation().waitForIdleSync();
+
+    // Assert that only the new view was evaluated, and that the sorted order is still correct
+    assertThat(col.getFullDependencyRebuildCount(), is(fullRebuilds));
+    assertThat(col.getIncrementalDependencyRebuildCount(), is(incrementalRebuilds + 1));
+    List<View> sorted = col.getDependencySortedChildren();
+    assertTrue(sorted.indexOf(viewA) < sorted.indexOf(viewB));
+    assertTrue(sorted.indexOf(viewB) < sorted.indexOf(viewC));
+
+    // Now remove view B and assert that C no longer depends on anything
+    activityTestRule.runOnUiThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            col.removeView(viewB);
+          }
+        });
+    getInstrumentation().waitForIdleSync();
+
+    assertThat(col.getFullDependencyRebuildCount(), is(fullRebuilds));
+    assertTrue(col.getDependencies(viewC).isEmpty());
+    sorted = col.getDependencySortedChildren();
+    assertFalse(sorted.contains(viewB));
+  }
+
+  @Test
+  public void testRegisteredDefaultBehavior() throws Throwable {
+    final CoordinatorLayout col = activityTestRule.getActivity().mCoordinatorLayout;
+    final Behavior behavior = new Behavior() {};
+    CoordinatorLayout.registerDefaultBehavior(
+        RegisteredBehaviorView.class,
+        new CoordinatorLayout.DefaultBehaviorFactory() {
+          @Override
+          public Behavior createBehavior() {
+            return behavior;
+          }
+        });
+
+    final View view = new RegisteredBehaviorView(col.getContext());
+    activityTestRule.runOnUiThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            col.addView(view);
+          }
+        });
+    getInstrumentation().waitForIdleSync();
+
+    // Assert that the view was given the Behavior created by the registered factory
+    final CoordinatorLayout.LayoutParams lp =
+        (CoordinatorLayout.LayoutParams) view.getLayoutParams();
+    assertTrue(lp.getBehavior() == behavior);
+  }
+
   public static class NestedScrollingBehavior extends CoordinatorLayout.Behavior<ImageView> {
     @Override
     public boolean onStartNestedScroll(
@@ -762,4 +853,10 @@ public class CoordinatorLayoutTest {
       return true;
     }
   }
+
+  public static class RegisteredBehaviorView extends View {
+    public RegisteredBehaviorView(Context context) {
+      super(context);
+    }
+  }
 }
@@ -16,6 +16,11 @@
 
 package android.support.design.widget;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import android.app.Activity;
@@ -25,6 +30,12 @@ import android.support.test.annotation.UiThreadTest;
 import android.support.test.filters.SmallTest;
 import android.support.test.rule.ActivityTestRule;
 import android.support.test.runner.AndroidJUnit4;
+import android.support.v4.view.PagerAdapter;
+import android.view.View;
+import android.view.ViewGroup;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -56,4 +67,138 @@ public class TabLayoutPoolingTest {
     tabLayout2.addTab(tabLayout2.newTab());
     tabLayout2.addTab(tabLayout2.newTab());
   }
+
+  @UiThreadTest
+  @SmallTest
+  @Test
+  public void testReconcilingTabsWithPagerAdapter() {
+    final Activity activity = activityTestRule.getActivity();
+    final TabLayout tabLayout = activity.findViewById(R.id.tabs_2);
+    tabLayout.setTabReconciliationEnabled(true);
+
+    final TitlesPagerAdapter adapter = new TitlesPagerAdapter("One", "Two", "Three", "Four");
+    tabLayout.setPagerAdapter(adapter, true);
+    tabLayout.getTabAt(2).select();
+    final int createdTabViewCount = tabLayout.getCreatedTabViewCount();
+    final TabLayout.Tab selectedTab = tabLayout.getTabAt(2);
+    final TabLayout.Tab firstTab = tabLayout.getTabAt(0);
+
+    // Changing a title rebinds the existing tab
+    adapter.titles.set(1, "Second");
+    adapter.notifyDataSetChanged();
+    assertEquals(4, tabLayout.getTabCount());
+    assertEquals("Second", tabLayout.getTabAt(1).getText());
+    assertSame(firstTab, tabLayout.getTabAt(0));
+    assertSame(selectedTab, tabLayout.getTabAt(2));
+    assertEquals(createdTabViewCount, tabLayout.getCreatedTabViewCount());
+
+    // Inserting a page only creates a view for the new tab, and keeps the selected tab
+    adapter.titles.add(0, "Zero");
+    adapter.notifyDataSetChanged();
+    assertEquals(5, tabLayout.getTabCount());
+    assertEquals(createdTabViewCount + 1, tabLayout.getCreatedTabViewCount());
+    assertSame(selectedTab, tabLayout.getTabAt(3));
+    assertEquals(3, tabLayout.getSelectedTabPosition());
+    for (int i = 0; i < tabLayout.getTabCount(); i++) {
+      assertEquals(i, tabLayout.getTabAt(i).getPosition());
+      assertEquals(adapter.titles.get(i), tabLayout.getTabAt(i).getText());
+    }
+
+    // Removing a page removes its tab only
+    adapter.titles.remove(1);
+    adapter.notifyDataSetChanged();
+    assertEquals(4, tabLayout.getTabCount());
+    assertSame(selectedTab, tabLayout.getTabAt(2));
+    assertEquals(2, tabLayout.getSelectedTabPosition());
+    assertEquals(createdTabViewCount + 1, tabLayout.getCreatedTabViewCount());
+  }
+
+  @UiThreadTest
+  @SmallTest
+  @Test
+  public void testVirtualizedTabsOnlyHaveViewsNearTheVisibleOnes() {
+    final Activity activity = activityTestRule.getActivity();
+    final TabLayout tabLayout = new TabLayout(activity);
+    tabLayout.setTabMode(TabLayout.MODE_SCROLLABLE);
+    tabLayout.setTabVirtualizationEnabled(true);
+    final int createdTabViewCount = tabLayout.getCreatedTabViewCount();
+    for (int i = 0; i < 200; i++) {
+      tabLayout.addTab(tabLayout.newTab().setText("Tab " + i));
+    }
+    layout(tabLayout);
+
+    final TabLayout.Tab firstTab = tabLayout.getTabAt(0);
+    final TabLayout.Tab lastTab = tabLayout.getTabAt(199);
+    assertNotNull(firstTab.mView);
+    assertTrue(firstTab.mView.isActivated());
+    assertNull(lastTab.mView);
+    assertTrue(tabLayout.getCreatedTabViewCount() - createdTabViewCount < 20);
+
+    // Scrolling to the end moves the views over to the tabs which have become visible
+    tabLayout.scrollTo(Integer.MAX_VALUE, 0);
+    layout(tabLayout);
+    assertNull(firstTab.mView);
+    assertNotNull(lastTab.mView);
+    // A view rebound from the selected tab doesn't stay activated
+    assertFalse(lastTab.mView.isSelected());
+    assertFalse(lastTab.mView.isActivated());
+    assertTrue(tabLayout.getCreatedTabViewCount() - createdTabViewCount < 20);
+  }
+
+  @UiThreadTest
+  @SmallTest
+  @Test
+  public void testTabsGetViewsForTheModeTheyAreAddedIn() {
+    final Activity activity = activityTestRule.getActivity();
+    final TabLayout tabLayout = new TabLayout(activity);
+    tabLayout.setTabMode(TabLayout.MODE_SCROLLABLE);
+    final ViewGroup tabStrip = (ViewGroup) tabLayout.getChildAt(0);
+
+    // Created while virtualizing, added while not
+    tabLayout.setTabVirtualizationEnabled(true);
+    final TabLayout.Tab createdVirtualized = tabLayout.newTab().setText("One");
+    tabLayout.setTabVirtualizationEnabled(false);
+    tabLayout.addTab(createdVirtualized);
+    assertNotNull(createdVirtualized.mView);
+    assertSame(tabStrip, createdVirtualized.mView.getParent());
+
+    // Created while not virtualizing, added while virtualizing
+    final TabLayout.Tab createdWithView = tabLayout.newTab().setText("Two");
+    tabLayout.setTabVirtualizationEnabled(true);
+    tabLayout.addTab(createdWithView);
+    layout(tabLayout);
+    assertNotNull(createdWithView.mView);
+    assertSame(tabStrip, createdWithView.mView.getParent());
+    assertEquals(2, tabStrip.getChildCount());
+  }
+
+  private static void layout(View view) {
+    view.measure(
+        View.MeasureSpec.makeMeasureSpec(480, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+    view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+  }
+
+  private static class TitlesPagerAdapter extends PagerAdapter {
+    final List<CharSequence> titles;
+
+    TitlesPagerAdapter(CharSequence... titles) {
+      this.titles = new ArrayList<>(Arrays.asList(titles));
+    }
+
+    @Override
+    public int getCount() {
+      return titles.size();
+    }
+
+    @Override
+    public CharSequence getPageTitle(int position) {
+      return titles.get(position);
+    }
+
+    @Override
+    public boolean isViewFromObject(View view, Object object) {
+      return view == object;
+    }
+  }
 }
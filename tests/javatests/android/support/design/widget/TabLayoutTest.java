@@ -53,6 +53,7 @@ import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.PointerIcon;
 import android.view.View;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Rule;
 import org.junit.Test;
@@ -229,6 +230,42 @@ public class TabLayoutTest {
     }
   }
 
+  @Test
+  @UiThreadTest
+  public void testPrecomputedTabTextMeasuresLikeTabText() {
+    final String[] titles = {
+      "Tab", "A much longer tab title which needs to wrap onto a second line", "Another tab"
+    };
+    final LayoutInflater inflater = LayoutInflater.from(activityTestRule.getActivity());
+    final TabLayout tabLayout = (TabLayout) inflater.inflate(R.layout.design_tabs, null);
+    final TabLayout precomputedTabLayout = (TabLayout) inflater.inflate(R.layout.design_tabs, null);
+    for (String title : titles) {
+      tabLayout.addTab(tabLayout.newTab().setText(title));
+      precomputedTabLayout.addTab(precomputedTabLayout.newTab().setText(title));
+    }
+
+    precomputedTabLayout.precomputeTabText(
+        new Executor() {
+          @Override
+          public void execute(Runnable command) {
+            command.run();
+          }
+        });
+
+    final int widthMeasureSpec = View.MeasureSpec.makeMeasureSpec(600, View.MeasureSpec.EXACTLY);
+    final int heightMeasureSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+    tabLayout.measure(widthMeasureSpec, heightMeasureSpec);
+    precomputedTabLayout.measure(widthMeasureSpec, heightMeasureSpec);
+
+    for (int i = 0; i < titles.length; i++) {
+      final TabLayout.Tab tab = tabLayout.getTabAt(i);
+      final TabLayout.Tab precomputedTab = precomputedTabLayout.getTabAt(i);
+      assertNotNull(precomputedTab.mTextMetrics);
+      assertEquals(tab.mView.getMeasuredWidth(), precomputedTab.mView.getMeasuredWidth());
+      assertEquals(tab.mView.getMeasuredHeight(), precomputedTab.mView.getMeasuredHeight());
+    }
+  }
+
   @Test
   public void setScrollPositionLtr() throws Throwable {
     testSetScrollPosition(true);